@@ -0,0 +1,315 @@
+package org.encinet.pomodoro.config.processor;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.PrimitiveType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Generates the config registry and one binder per {@code @ConfigFile} class at build time,
+ * so the plugin neither scans its classpath nor reflects over fields when configs load.
+ * <p>
+ * For each config class {@code Foo} a {@code FooBinder} is written next to it, assigning every
+ * {@code @ConfigValue} field from the YAML. The fields are assigned directly, so they must not
+ * be private, final or static. {@code GeneratedConfigRegistry} then lists every config class
+ * with its file, version, constructor and binder.
+ */
+@SupportedAnnotationTypes(ConfigProcessor.CONFIG_FILE)
+public class ConfigProcessor extends AbstractProcessor {
+    static final String CONFIG_FILE = "org.encinet.pomodoro.config.annotations.ConfigFile";
+    private static final String CONFIG_VALUE = "org.encinet.pomodoro.config.annotations.ConfigValue";
+    private static final String ABSTRACT_CONFIG = "org.encinet.pomodoro.config.AbstractConfig";
+    private static final String YAML_CONFIGURATION = "org.bukkit.configuration.file.YamlConfiguration";
+    private static final String LOGGER = "java.util.logging.Logger";
+    private static final String TYPE_CONVERTER = "org.encinet.pomodoro.config.utils.TypeConverter";
+    private static final String REGISTRY_PACKAGE = "org.encinet.pomodoro.config";
+    private static final String REGISTRY_NAME = "GeneratedConfigRegistry";
+    private static final String GENERATED = "@javax.annotation.processing.Generated(\"" + ConfigProcessor.class.getName() + "\")";
+
+    private boolean registryWritten;
+
+    private record ConfigClass(TypeElement type, String binderName, String fileName, int version) {}
+
+    /**
+     * A field to bind.
+     *
+     * @param name       The field name.
+     * @param path       The YAML path it is read from.
+     * @param conversion The TypeConverter call turning {@code raw} into the field's type.
+     * @param type       The type the converted value is cast to before assigning it.
+     */
+    private record ConfigField(String name, String path, String conversion, String type) {}
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        TypeElement configFile = processingEnv.getElementUtils().getTypeElement(CONFIG_FILE);
+        if (configFile == null || annotations.isEmpty()) {
+            return false;
+        }
+
+        List<ConfigClass> configs = new ArrayList<>();
+        for (Element element : roundEnv.getElementsAnnotatedWith(configFile)) {
+            ConfigClass config = processConfigClass((TypeElement) element);
+            if (config != null) {
+                configs.add(config);
+            }
+        }
+
+        if (registryWritten) {
+            // All config classes live in the plugin sources, so they are all seen in the first round
+            for (ConfigClass config : configs) {
+                error(config.type(), "Generated config classes are not supported");
+            }
+            return false;
+        }
+        configs.sort(Comparator.comparing(config -> config.type().getQualifiedName().toString()));
+        writeRegistry(configs);
+        registryWritten = true;
+        return false;
+    }
+
+    private ConfigClass processConfigClass(TypeElement type) {
+        if (!isValidConfigClass(type)) {
+            return null;
+        }
+
+        List<ConfigField> fields = new ArrayList<>();
+        boolean valid = true;
+        for (VariableElement field : ElementFilter.fieldsIn(type.getEnclosedElements())) {
+            AnnotationMirror configValue = findAnnotation(field, CONFIG_VALUE);
+            if (configValue == null) {
+                continue;
+            }
+            Set<Modifier> modifiers = field.getModifiers();
+            if (modifiers.contains(Modifier.PRIVATE) || modifiers.contains(Modifier.FINAL) || modifiers.contains(Modifier.STATIC)) {
+                error(field, "@ConfigValue fields must not be private, final or static, so the generated binder can assign them");
+                valid = false;
+                continue;
+            }
+            String conversion = conversionFor(field.asType());
+            if (conversion == null) {
+                error(field, "Unsupported @ConfigValue type: " + field.asType());
+                valid = false;
+                continue;
+            }
+            String path = (String) annotationValue(configValue, "value");
+            fields.add(new ConfigField(field.getSimpleName().toString(), path, conversion, castFor(field.asType())));
+        }
+        if (!valid) {
+            return null;
+        }
+
+        AnnotationMirror metadata = findAnnotation(type, CONFIG_FILE);
+        ConfigClass config = new ConfigClass(type, type.getSimpleName() + "Binder",
+                (String) annotationValue(metadata, "name"), (Integer) annotationValue(metadata, "version"));
+        writeBinder(config, fields);
+        return config;
+    }
+
+    private boolean isValidConfigClass(TypeElement type) {
+        if (type.getKind() != ElementKind.CLASS || type.getModifiers().contains(Modifier.ABSTRACT)
+                || !type.getModifiers().contains(Modifier.PUBLIC) || type.getNestingKind().isNested()) {
+            error(type, "@ConfigFile classes must be public, top-level and not abstract");
+            return false;
+        }
+        TypeElement abstractConfig = processingEnv.getElementUtils().getTypeElement(ABSTRACT_CONFIG);
+        if (abstractConfig == null || !processingEnv.getTypeUtils().isSubtype(type.asType(), abstractConfig.asType())) {
+            error(type, "@ConfigFile classes must extend " + ABSTRACT_CONFIG);
+            return false;
+        }
+        for (ExecutableElement constructor : ElementFilter.constructorsIn(type.getEnclosedElements())) {
+            List<? extends VariableElement> parameters = constructor.getParameters();
+            if (constructor.getModifiers().contains(Modifier.PUBLIC) && parameters.size() == 2
+                    && erasedName(parameters.get(0).asType()).equals(YAML_CONFIGURATION)
+                    && erasedName(parameters.get(1).asType()).equals(LOGGER)) {
+                return true;
+            }
+        }
+        error(type, "@ConfigFile classes need a public (YamlConfiguration, Logger) constructor");
+        return false;
+    }
+
+    /**
+     * Builds the TypeConverter call converting {@code raw} to a field's type, or returns null
+     * when the type is not supported. Mirrors what TypeConverter accepts.
+     */
+    private String conversionFor(TypeMirror type) {
+        if (type.getKind().isPrimitive()) {
+            return TYPE_CONVERTER + ".convert(raw, " + type + ".class)";
+        }
+        if (type.getKind() != TypeKind.DECLARED) {
+            return null;
+        }
+
+        String rawName = erasedName(type);
+        List<? extends TypeMirror> arguments = ((DeclaredType) type).getTypeArguments();
+        if (arguments.isEmpty()) {
+            return TYPE_CONVERTER + ".convert(raw, " + rawName + ".class)";
+        }
+        for (TypeMirror argument : arguments) {
+            if (argument.getKind() != TypeKind.DECLARED || !((DeclaredType) argument).getTypeArguments().isEmpty()) {
+                return null; // Nested generics and wildcards are not supported
+            }
+        }
+        return switch (rawName) {
+            case "java.util.List", "java.util.Collection" ->
+                    TYPE_CONVERTER + ".toList(raw, " + erasedName(arguments.get(0)) + ".class)";
+            case "java.util.Set" -> TYPE_CONVERTER + ".toSet(raw, " + erasedName(arguments.get(0)) + ".class)";
+            case "java.util.Map" -> erasedName(arguments.get(0)).equals("java.lang.String")
+                    ? TYPE_CONVERTER + ".toMap(raw, " + erasedName(arguments.get(1)) + ".class)"
+                    : null;
+            default -> null;
+        };
+    }
+
+    private String castFor(TypeMirror type) {
+        if (type.getKind().isPrimitive()) {
+            return processingEnv.getTypeUtils().boxedClass((PrimitiveType) type).getQualifiedName().toString();
+        }
+        return type.toString();
+    }
+
+    private void writeBinder(ConfigClass config, List<ConfigField> fields) {
+        TypeElement type = config.type();
+        String packageName = packageOf(type);
+        String typeName = type.getQualifiedName().toString();
+        try (PrintWriter out = new PrintWriter(processingEnv.getFiler()
+                .createSourceFile(packageName + "." + config.binderName(), type).openWriter())) {
+            out.println("package " + packageName + ";");
+            out.println();
+            out.println("/**");
+            out.println(" * Fills the @ConfigValue fields of {@link " + typeName + "}. Generated, do not edit.");
+            out.println(" */");
+            out.println(GENERATED);
+            out.println("public final class " + config.binderName() + " {");
+            out.println("    private " + config.binderName() + "() {");
+            out.println("    }");
+            out.println();
+            out.println("    @SuppressWarnings(\"unchecked\")");
+            out.println("    public static void bind(" + typeName + " config, " + YAML_CONFIGURATION + " yaml, " + LOGGER + " logger) {");
+            out.println("        Object raw;");
+            out.println("        Object value;");
+            for (ConfigField field : fields) {
+                String path = literal(field.path());
+                out.println();
+                out.println("        raw = yaml.get(" + path + ");");
+                out.println("        if (raw != null) {");
+                out.println("            value = " + field.conversion() + ";");
+                out.println("            if (value != null) {");
+                out.println("                config." + field.name() + " = (" + field.type() + ") value;");
+                out.println("            } else {");
+                out.println("                logger.warning(" + literal("Failed to convert value for field: " + field.name()
+                        + " at path '" + field.path() + "'. Found value: ") + " + raw);");
+                out.println("            }");
+                out.println("        }");
+            }
+            out.println("    }");
+            out.println("}");
+        } catch (IOException e) {
+            error(type, "Failed to write " + config.binderName() + ": " + e.getMessage());
+        }
+    }
+
+    private void writeRegistry(List<ConfigClass> configs) {
+        Element[] origins = configs.stream().map(ConfigClass::type).toArray(Element[]::new);
+        try (PrintWriter out = new PrintWriter(processingEnv.getFiler()
+                .createSourceFile(REGISTRY_PACKAGE + "." + REGISTRY_NAME, origins).openWriter())) {
+            out.println("package " + REGISTRY_PACKAGE + ";");
+            out.println();
+            out.println("/**");
+            out.println(" * Every @ConfigFile class in the plugin. Generated, do not edit.");
+            out.println(" */");
+            out.println(GENERATED);
+            out.println("public final class " + REGISTRY_NAME + " {");
+            out.println("    public static final java.util.List<ConfigBinding<?>> BINDINGS = java.util.List.of(");
+            for (int i = 0; i < configs.size(); i++) {
+                ConfigClass config = configs.get(i);
+                String typeName = config.type().getQualifiedName().toString();
+                String binder = packageOf(config.type()) + "." + config.binderName();
+                out.println("            new ConfigBinding<>(" + typeName + ".class, " + literal(config.fileName()) + ", "
+                        + config.version() + ", " + typeName + "::new, " + binder + "::bind)"
+                        + (i < configs.size() - 1 ? "," : ""));
+            }
+            out.println("    );");
+            out.println();
+            out.println("    private " + REGISTRY_NAME + "() {");
+            out.println("    }");
+            out.println("}");
+        } catch (IOException e) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, "Failed to write " + REGISTRY_NAME + ": " + e.getMessage());
+        }
+    }
+
+    private AnnotationMirror findAnnotation(Element element, String annotationName) {
+        for (AnnotationMirror mirror : element.getAnnotationMirrors()) {
+            if (erasedName(mirror.getAnnotationType()).equals(annotationName)) {
+                return mirror;
+            }
+        }
+        return null;
+    }
+
+    private Object annotationValue(AnnotationMirror mirror, String name) {
+        Map<? extends ExecutableElement, ? extends AnnotationValue> values =
+                processingEnv.getElementUtils().getElementValuesWithDefaults(mirror);
+        for (Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> entry : values.entrySet()) {
+            if (entry.getKey().getSimpleName().contentEquals(name)) {
+                return entry.getValue().getValue();
+            }
+        }
+        return null;
+    }
+
+    private String erasedName(TypeMirror type) {
+        return processingEnv.getTypeUtils().erasure(type).toString();
+    }
+
+    private String packageOf(TypeElement type) {
+        PackageElement packageElement = processingEnv.getElementUtils().getPackageOf(type);
+        return packageElement.getQualifiedName().toString();
+    }
+
+    private static String literal(String value) {
+        StringBuilder builder = new StringBuilder("\"");
+        for (char c : value.toCharArray()) {
+            switch (c) {
+                case '"' -> builder.append("\\\"");
+                case '\\' -> builder.append("\\\\");
+                case '\n' -> builder.append("\\n");
+                default -> builder.append(c);
+            }
+        }
+        return builder.append('"').toString();
+    }
+
+    private void error(Element element, String message) {
+        processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, message, element);
+    }
+}
@@ -0,0 +1,93 @@
+package org.encinet.pomodoro.config;
+
+import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.minimessage.MiniMessage;
+import net.kyori.adventure.text.minimessage.tag.resolver.Placeholder;
+import net.kyori.adventure.text.minimessage.tag.resolver.TagResolver;
+import org.bukkit.configuration.file.YamlConfiguration;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares rendering a message with placeholders from its compiled {@link MessageTemplate}
+ * against the former path, which looked the format up in the YAML of the player's locale and
+ * its fallbacks, built a {@link TagResolver} array through a stream, and parsed the format.
+ * <p>
+ * The keys cover the kinds of template: a message with slots, the per-second title subtitle,
+ * the boss bar title whose gradient-styled preset name is bound in a cached parse, and a
+ * static message.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class MessageRenderBenchmark {
+    // An English client whose exact locale has no file, so the old path fell back to "en"
+    private static final String LOCALE = "en_us";
+
+    @Param({"messages.preset_renamed", "title.subtitle", "bossbar.title", "messages.timer_stop"})
+    public String key;
+
+    private final MiniMessage miniMessage = MiniMessage.miniMessage();
+    private Map<String, YamlConfiguration> languageConfigs;
+    private MessageTemplate template;
+    private Map<String, String> placeholders;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        YamlConfiguration english;
+        try (InputStream in = MessageRenderBenchmark.class.getResourceAsStream("/message/en.yml")) {
+            if (in == null) {
+                throw new IOException("message/en.yml is not on the classpath");
+            }
+            english = YamlConfiguration.loadConfiguration(new InputStreamReader(in, StandardCharsets.UTF_8));
+        }
+        languageConfigs = Map.of("en", english);
+        template = MessageTemplate.compile(miniMessage, english.getString(key));
+        placeholders = switch (key) {
+            case "messages.preset_renamed" -> Map.of("old_name", "Classic", "new_name", "Deep Work");
+            case "title.subtitle", "bossbar.title" -> Map.of(
+                    "preset_name", "Classic",
+                    "status", "Working",
+                    "current_session", "2",
+                    "total_sessions", "4",
+                    "time", "12:34");
+            default -> Map.of();
+        };
+    }
+
+    @Benchmark
+    public Component compiledTemplate() {
+        return template.render(placeholders);
+    }
+
+    @Benchmark
+    public Component lookUpAndParse() {
+        String format = getMessageForLocale(key, LOCALE);
+        if (format == null) {
+            format = getMessageForLocale(key, LOCALE.substring(0, LOCALE.indexOf('_')));
+        }
+        TagResolver[] resolvers = placeholders.entrySet().stream()
+                .map(entry -> Placeholder.unparsed(entry.getKey(), entry.getValue()))
+                .toArray(TagResolver[]::new);
+        return miniMessage.deserialize(format, resolvers);
+    }
+
+    private String getMessageForLocale(String key, String locale) {
+        YamlConfiguration langConfig = languageConfigs.get(locale);
+        return langConfig != null ? langConfig.getString(key) : null;
+    }
+}
@@ -0,0 +1,92 @@
+package org.encinet.pomodoro.service;
+
+import org.encinet.pomodoro.config.impl.PresetConfig;
+import org.encinet.pomodoro.service.session.PomodoroSession;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the session work one thread does per refresh cycle when every session is refreshed
+ * by one global task, as before, with the work of one region thread when each session is
+ * refreshed on its owner's scheduler.
+ * <p>
+ * Only the plugin's own part of a refresh is measured: the stale-session check against the
+ * registry and publishing the snapshot the displays render from. Sending the displays needs a
+ * running server and costs the same per session either way. Players are spread over the
+ * regions by UUID, so the regions are unevenly loaded as on a real server.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class SessionRefreshBenchmark {
+    private static final PresetConfig.Preset PRESET = new PresetConfig.Preset("Classic", "TOMATO", false, 25, 5, 15, 4);
+
+    @Param({"1000", "5000"})
+    public int sessions;
+
+    @Param({"4", "16"})
+    public int regions;
+
+    private final Map<UUID, PomodoroSession> registry = new ConcurrentHashMap<>();
+    // What each region's refresh tasks hold: the owner and their session
+    private final List<List<Map.Entry<UUID, PomodoroSession>>> regionSessions = new ArrayList<>();
+    private int nextRegion;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        for (int i = 0; i < regions; i++) {
+            regionSessions.add(new ArrayList<>());
+        }
+        for (int i = 0; i < sessions; i++) {
+            UUID uuid = UUID.randomUUID();
+            PomodoroSession session = new PomodoroSession("classic", PRESET, true, true);
+            registry.put(uuid, session);
+            regionSessions.get(Math.floorMod(uuid.hashCode(), regions)).add(Map.entry(uuid, session));
+        }
+    }
+
+    private void refresh(UUID uuid, PomodoroSession session, Blackhole blackhole) {
+        if (registry.get(uuid) != session) {
+            return;
+        }
+        blackhole.consume(session.publishSnapshot().displaySeconds());
+    }
+
+    /**
+     * One cycle of the former global task: every session on one thread.
+     */
+    @Benchmark
+    public void globalTick(Blackhole blackhole) {
+        for (Map.Entry<UUID, PomodoroSession> entry : registry.entrySet()) {
+            refresh(entry.getKey(), entry.getValue(), blackhole);
+        }
+    }
+
+    /**
+     * One cycle on one region thread: only the sessions of players in that region. The
+     * regions take turns, so the result is the mean over all of them.
+     */
+    @Benchmark
+    public void regionTick(Blackhole blackhole) {
+        List<Map.Entry<UUID, PomodoroSession>> owned = regionSessions.get(nextRegion);
+        nextRegion = (nextRegion + 1) % regions;
+        for (Map.Entry<UUID, PomodoroSession> entry : owned) {
+            refresh(entry.getKey(), entry.getValue(), blackhole);
+        }
+    }
+}
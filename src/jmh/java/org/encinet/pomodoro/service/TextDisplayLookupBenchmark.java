@@ -0,0 +1,248 @@
+package org.encinet.pomodoro.service;
+
+import org.encinet.pomodoro.config.impl.PresetConfig;
+import org.encinet.pomodoro.service.session.PomodoroSession;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the metadata packet listener's work per outgoing ENTITY_METADATA packet, with
+ * {@code sessions} sessions each showing a TextDisplay.
+ * <p>
+ * Most packets on a server are for mobs, items and players, so only {@code pomodoroPercent}
+ * percent of the packets are for a Pomodoro TextDisplay. Each packet is encoded as on the wire:
+ * a VarInt entity ID followed by the metadata entries. The packet buffers stand in for the
+ * Netty buffers PacketEvents hands the listener, and {@link #decode} for the decoding done by
+ * the metadata wrapper, which cannot be built outside a running server.
+ * <ul>
+ *     <li>{@link #peekThenLookUp} is the listener's path: read the entity ID, look it up in
+ *     {@link TextDisplayIndex}, and decode the metadata only for a Pomodoro display.</li>
+ *     <li>{@link #decodeThenLookUp} decodes every packet before the lookup, as the listener
+ *     did when it built the wrapper first.</li>
+ *     <li>{@link #decodeThenScan} also streams over every session to find the owner, as the
+ *     listener did before the index.</li>
+ * </ul>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@OperationsPerInvocation(TextDisplayLookupBenchmark.PACKETS)
+public class TextDisplayLookupBenchmark {
+    static final int PACKETS = 1024;
+    private static final PresetConfig.Preset PRESET = new PresetConfig.Preset("Classic", "TOMATO", false, 25, 5, 15, 4);
+    private static final int END_OF_METADATA = 0xFF;
+    private static final int TYPE_BYTE = 0;
+    private static final int TYPE_VAR_INT = 1;
+    private static final int TYPE_FLOAT = 3;
+    private static final int TYPE_COMPONENT = 5;
+    private static final int TYPE_BOOLEAN = 8;
+    private static final int TEXT_INDEX = 23;
+
+    private record DisplayedSession(int textDisplayId, PomodoroSession session) {}
+
+    private record Entry(int index, int type, Object value) {}
+
+    @Param({"5000"})
+    public int sessions;
+
+    @Param({"5"})
+    public int pomodoroPercent;
+
+    private final TextDisplayIndex index = new TextDisplayIndex();
+    private final Map<UUID, DisplayedSession> registry = new ConcurrentHashMap<>();
+    private ByteBuffer[] packets;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        SplittableRandom random = new SplittableRandom(42);
+        // Entity IDs are handed out from one counter, so displays and other entities interleave
+        int[] displayIds = new int[sessions];
+        int nextEntityId = 1;
+        for (int i = 0; i < sessions; i++) {
+            nextEntityId += 1 + random.nextInt(20);
+            displayIds[i] = nextEntityId;
+            PomodoroSession session = new PomodoroSession("classic", PRESET, true, true);
+            registry.put(UUID.randomUUID(), new DisplayedSession(displayIds[i], session));
+            index.put(displayIds[i], session);
+        }
+
+        packets = new ByteBuffer[PACKETS];
+        for (int i = 0; i < PACKETS; i++) {
+            if (random.nextInt(100) < pomodoroPercent) {
+                packets[i] = textDisplayPacket(displayIds[random.nextInt(sessions)]);
+            } else {
+                // Other entities, which may hold any ID the displays do not
+                int entityId;
+                do {
+                    entityId = 1 + random.nextInt(nextEntityId + 1000);
+                } while (index.get(entityId) != null);
+                packets[i] = mobPacket(entityId, random);
+            }
+        }
+    }
+
+    /**
+     * The metadata a living entity sends as it moves and takes damage: flags, air, pose,
+     * health and a few entity-specific values.
+     */
+    private static ByteBuffer mobPacket(int entityId, SplittableRandom random) {
+        ByteBuffer buffer = ByteBuffer.allocate(64);
+        writeVarInt(buffer, entityId);
+        writeEntry(buffer, 0, TYPE_BYTE);
+        buffer.put((byte) random.nextInt(0x40));
+        writeEntry(buffer, 1, TYPE_VAR_INT);
+        writeVarInt(buffer, 300);
+        writeEntry(buffer, 6, TYPE_VAR_INT);
+        writeVarInt(buffer, 0);
+        writeEntry(buffer, 9, TYPE_FLOAT);
+        buffer.putFloat(1 + random.nextInt(20));
+        writeEntry(buffer, 15, TYPE_BOOLEAN);
+        buffer.put((byte) random.nextInt(2));
+        buffer.put((byte) END_OF_METADATA);
+        return buffer.flip();
+    }
+
+    private static ByteBuffer textDisplayPacket(int entityId) {
+        byte[] text = "{\"text\":\"Classic - Working - 12:34\",\"color\":\"white\"}".getBytes(StandardCharsets.UTF_8);
+        ByteBuffer buffer = ByteBuffer.allocate(16 + text.length);
+        writeVarInt(buffer, entityId);
+        writeEntry(buffer, TEXT_INDEX, TYPE_COMPONENT);
+        writeVarInt(buffer, text.length);
+        buffer.put(text);
+        buffer.put((byte) END_OF_METADATA);
+        return buffer.flip();
+    }
+
+    private static void writeEntry(ByteBuffer buffer, int index, int type) {
+        buffer.put((byte) index);
+        writeVarInt(buffer, type);
+    }
+
+    private static void writeVarInt(ByteBuffer buffer, int value) {
+        while ((value & ~0x7F) != 0) {
+            buffer.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        buffer.put((byte) value);
+    }
+
+    private static int readVarInt(ByteBuffer buffer) {
+        int value = 0;
+        int shift = 0;
+        byte current;
+        do {
+            current = buffer.get();
+            value |= (current & 0x7F) << shift;
+            shift += 7;
+        } while ((current & 0x80) != 0);
+        return value;
+    }
+
+    /**
+     * Reads the leading entity ID and restores the read position, as the listener does.
+     */
+    private static int peekEntityId(ByteBuffer buffer) {
+        int readerIndex = buffer.position();
+        int entityId = readVarInt(buffer);
+        buffer.position(readerIndex);
+        return entityId;
+    }
+
+    /**
+     * Decodes the whole packet into an entity ID and a list of entries, as the metadata
+     * wrapper does, and restores the read position.
+     */
+    private static int decode(ByteBuffer buffer, List<Entry> entries) {
+        int readerIndex = buffer.position();
+        int entityId = readVarInt(buffer);
+        int entryIndex;
+        while ((entryIndex = buffer.get() & 0xFF) != END_OF_METADATA) {
+            int type = readVarInt(buffer);
+            Object value = switch (type) {
+                case TYPE_BYTE -> buffer.get();
+                case TYPE_VAR_INT -> readVarInt(buffer);
+                case TYPE_FLOAT -> buffer.getFloat();
+                case TYPE_BOOLEAN -> buffer.get() != 0;
+                case TYPE_COMPONENT -> {
+                    byte[] bytes = new byte[readVarInt(buffer)];
+                    buffer.get(bytes);
+                    yield new String(bytes, StandardCharsets.UTF_8);
+                }
+                default -> throw new IllegalStateException("Unknown metadata type " + type);
+            };
+            entries.add(new Entry(entryIndex, type, value));
+        }
+        buffer.position(readerIndex);
+        return entityId;
+    }
+
+    @Benchmark
+    public void peekThenLookUp(Blackhole blackhole) {
+        for (ByteBuffer packet : packets) {
+            if (index.isEmpty()) {
+                continue;
+            }
+            PomodoroSession session = index.get(peekEntityId(packet));
+            if (session == null) {
+                continue;
+            }
+            List<Entry> entries = new ArrayList<>();
+            decode(packet, entries);
+            blackhole.consume(entries);
+            blackhole.consume(session);
+        }
+    }
+
+    @Benchmark
+    public void decodeThenLookUp(Blackhole blackhole) {
+        for (ByteBuffer packet : packets) {
+            if (index.isEmpty()) {
+                continue;
+            }
+            List<Entry> entries = new ArrayList<>();
+            PomodoroSession session = index.get(decode(packet, entries));
+            if (session == null) {
+                continue;
+            }
+            blackhole.consume(entries);
+            blackhole.consume(session);
+        }
+    }
+
+    @Benchmark
+    public void decodeThenScan(Blackhole blackhole) {
+        for (ByteBuffer packet : packets) {
+            List<Entry> entries = new ArrayList<>();
+            int entityId = decode(packet, entries);
+            PomodoroSession session = registry.values().stream()
+                    .filter(displayed -> displayed.textDisplayId() == entityId)
+                    .map(DisplayedSession::session)
+                    .findFirst()
+                    .orElse(null);
+            if (session == null) {
+                continue;
+            }
+            blackhole.consume(entries);
+            blackhole.consume(session);
+        }
+    }
+}
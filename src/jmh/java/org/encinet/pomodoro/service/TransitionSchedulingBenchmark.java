@@ -0,0 +1,99 @@
+package org.encinet.pomodoro.service;
+
+import org.encinet.pomodoro.config.impl.PresetConfig;
+import org.encinet.pomodoro.service.session.PomodoroSession;
+import org.encinet.pomodoro.service.session.state.PomodoroStateHandler;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Comparator;
+import java.util.PriorityQueue;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares one second of transition work with 10k running work sessions, of which only a
+ * handful reach their deadline or warning window in that second.
+ * <p>
+ * {@link #pollAll} is the former once-a-second tick that checked every session.
+ * {@link #fireDue} is the per-session delayed event: only the sessions due in the second run,
+ * and each one schedules its next event. A priority queue by event time stands in for the
+ * schedulers' delayed task queues, and its earliest {@code due} entries are fired as if due.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class TransitionSchedulingBenchmark {
+    private static final PresetConfig.Preset PRESET = new PresetConfig.Preset("Classic", "TOMATO", false, 25, 5, 15, 4);
+    private static final int WORK_SECONDS = PRESET.work() * 60;
+
+    private record ScheduledEvent(long atNanos, PomodoroSession session) {}
+
+    @Param({"10000"})
+    public int sessions;
+
+    // Countdowns spread over 25 minutes end about 7 times a second, and each ending session
+    // fires once a second through its warning window
+    @Param({"40"})
+    public int due;
+
+    private PomodoroSession[] all;
+    private final PriorityQueue<ScheduledEvent> events = new PriorityQueue<>(Comparator.comparingLong(ScheduledEvent::atNanos));
+    private ScheduledEvent[] fired;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        SplittableRandom random = new SplittableRandom(42);
+        all = new PomodoroSession[sessions];
+        for (int i = 0; i < sessions; i++) {
+            all[i] = new PomodoroSession("classic", PRESET, true, true);
+            all[i].startCountdown(1 + random.nextInt(WORK_SECONDS));
+            events.add(new ScheduledEvent(nextEvent(all[i]), all[i]));
+        }
+        fired = new ScheduledEvent[due];
+    }
+
+    private static long nextEvent(PomodoroSession session) {
+        return session.getNextCountdownEventNanos(PomodoroStateHandler.WARNING_SECONDS);
+    }
+
+    /**
+     * What the work state does for a session when it is checked: move on at the deadline,
+     * or warn inside the warning window.
+     */
+    private static int check(PomodoroSession session) {
+        if (session.checkDeadline()) {
+            session.startCountdown(WORK_SECONDS);
+            return 2;
+        }
+        return session.getTimeLeft() <= PomodoroStateHandler.WARNING_SECONDS ? 1 : 0;
+    }
+
+    @Benchmark
+    public void pollAll(Blackhole blackhole) {
+        for (PomodoroSession session : all) {
+            blackhole.consume(check(session));
+        }
+    }
+
+    @Benchmark
+    public void fireDue(Blackhole blackhole) {
+        // Take every due event before rescheduling, so none is fired twice in one second
+        for (int i = 0; i < due; i++) {
+            fired[i] = events.poll();
+        }
+        for (int i = 0; i < due; i++) {
+            PomodoroSession session = fired[i].session();
+            blackhole.consume(check(session));
+            events.add(new ScheduledEvent(nextEvent(session), session));
+        }
+    }
+}
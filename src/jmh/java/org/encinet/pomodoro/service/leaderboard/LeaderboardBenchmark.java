@@ -0,0 +1,86 @@
+package org.encinet.pomodoro.service.leaderboard;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the in-memory leaderboard with a million ranked players: recording a session,
+ * looking up a player's rank and reading the top ten.
+ * <p>
+ * {@link #rankByScan()} is the baseline the leaderboard replaces: ranking a player by
+ * counting everyone ahead of them, as {@code ORDER BY} over every row has to.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class LeaderboardBenchmark {
+    @Param({"1000000"})
+    public int players;
+
+    private Leaderboard leaderboard;
+    private Map<UUID, Integer> scores;
+    private UUID[] uuids;
+    private final SplittableRandom random = new SplittableRandom(42);
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        leaderboard = new Leaderboard();
+        scores = new HashMap<>(players * 2);
+        uuids = new UUID[players];
+        for (int i = 0; i < players; i++) {
+            uuids[i] = new UUID(random.nextLong(), random.nextLong());
+            // Up to a few hundred hours of focus time
+            int score = 1 + random.nextInt(1_000_000);
+            leaderboard.set(uuids[i], score);
+            scores.put(uuids[i], score);
+        }
+    }
+
+    private UUID randomPlayer() {
+        return uuids[random.nextInt(uuids.length)];
+    }
+
+    /**
+     * A completed 25 minute session moving a player up the ranking.
+     */
+    @Benchmark
+    public void recordSession() {
+        leaderboard.add(randomPlayer(), 1500);
+    }
+
+    @Benchmark
+    public int rank() {
+        return leaderboard.getRank(randomPlayer());
+    }
+
+    @Benchmark
+    public List<Leaderboard.Entry> top10() {
+        return leaderboard.getTop(10);
+    }
+
+    @Benchmark
+    public int rankByScan() {
+        int score = scores.get(randomPlayer());
+        int ahead = 0;
+        for (int other : scores.values()) {
+            if (other > score) {
+                ahead++;
+            }
+        }
+        return ahead + 1;
+    }
+}
@@ -0,0 +1,97 @@
+package org.encinet.pomodoro.service.storage;
+
+import org.bukkit.configuration.file.YamlConfiguration;
+import org.encinet.pomodoro.config.impl.PresetConfig;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+/**
+ * Compares getting a player's combined presets from the cached view against the former
+ * per-call merge, which copied the global presets into a new map and added the personal ones
+ * on every menu refresh, tab completion and preset lookup. The rename benchmarks compare
+ * applying an edit to the cached view and its index against dropping and rebuilding them.
+ * <p>
+ * The global presets are the shipped presets.yml, and the player has {@code personal}
+ * presets of their own, plus the one the rename benchmarks edit.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class PresetViewBenchmark {
+    @Param({"0", "5", "20"})
+    public int personal;
+
+    private static final String EDITED = "edited";
+
+    private final UUID player = UUID.randomUUID();
+    private final Map<UUID, Map<String, PresetConfig.Preset>> playerPresets = new ConcurrentHashMap<>();
+    private final PresetViews views = new PresetViews();
+    private PresetConfig globals;
+    private int renames;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        try (InputStream in = PresetViewBenchmark.class.getResourceAsStream("/presets.yml")) {
+            if (in == null) {
+                throw new IOException("presets.yml is not on the classpath");
+            }
+            YamlConfiguration config = YamlConfiguration.loadConfiguration(new InputStreamReader(in, StandardCharsets.UTF_8));
+            globals = new PresetConfig(config, Logger.getLogger(getClass().getName()));
+        }
+        Map<String, PresetConfig.Preset> presets = new ConcurrentHashMap<>();
+        for (int i = 0; i < personal; i++) {
+            presets.put("personal" + i, new PresetConfig.Preset("Personal " + i, "BOOK", false, 25 + i, 5, 15, 4));
+        }
+        presets.put(EDITED, new PresetConfig.Preset("<gold>Edited", "BOOK", false, 25, 5, 15, 4));
+        playerPresets.put(player, presets);
+    }
+
+    private void rename() {
+        playerPresets.get(player).put(EDITED, new PresetConfig.Preset("<gold>Edited " + (renames++ & 7), "BOOK", false, 25, 5, 15, 4));
+    }
+
+    @Benchmark
+    public Map<String, PresetConfig.Preset> cachedView() {
+        return views.get(player, globals, playerPresets::get).presets();
+    }
+
+    @Benchmark
+    public Map<String, PresetConfig.Preset> mergePerCall() {
+        Map<String, PresetConfig.Preset> combinedPresets = new HashMap<>();
+        combinedPresets.putAll(globals.getPresets());
+        combinedPresets.putAll(playerPresets.getOrDefault(player, new HashMap<>()));
+        return combinedPresets;
+    }
+
+    @Benchmark
+    public PresetIndex renameThenUpdate() {
+        rename();
+        views.update(player, EDITED, playerPresets::get);
+        return views.get(player, globals, playerPresets::get).index();
+    }
+
+    @Benchmark
+    public PresetIndex renameThenRebuild() {
+        rename();
+        views.invalidate(player);
+        return views.get(player, globals, playerPresets::get).index();
+    }
+}
@@ -0,0 +1,130 @@
+package org.encinet.pomodoro.service.storage;
+
+import org.encinet.pomodoro.config.impl.PresetConfig;
+import org.encinet.pomodoro.service.storage.backend.H2StorageBackend;
+import org.encinet.pomodoro.service.storage.backend.MemoryStorageBackend;
+import org.encinet.pomodoro.service.storage.backend.SqliteStorageBackend;
+import org.encinet.pomodoro.service.storage.backend.StorageBackend;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+import java.util.stream.Stream;
+
+/**
+ * Compares the throughput of the storage backends on the operations the storage thread runs:
+ * a flush-sized write batch, and the per-player lookups done on join.
+ * <p>
+ * Each backend starts from the same database of {@code players} players, each with one
+ * personal preset and one completed session. The database is rebuilt for every iteration,
+ * as the session history grows with every write and would otherwise fill the heap of the
+ * memory backend.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(time = 1)
+@Measurement(time = 1)
+public class StorageBackendBenchmark {
+    private static final PresetConfig.Preset PRESET = new PresetConfig.Preset("Classic", "TOMATO", false, 25, 5, 15, 4);
+    // Roughly what one flush interval collects on a busy server
+    private static final int BATCH_PLAYERS = 50;
+
+    @Param({"memory", "sqlite", "h2"})
+    public String backendName;
+
+    @Param({"10000"})
+    public int players;
+
+    private Path dataFolder;
+    private StorageBackend backend;
+    private UUID[] uuids;
+    private int next;
+
+    @Setup(Level.Iteration)
+    public void setUp() throws IOException, SQLException {
+        dataFolder = Files.createTempDirectory("pomodoro-bench");
+        File folder = dataFolder.toFile();
+        backend = switch (backendName) {
+            case "memory" -> new MemoryStorageBackend();
+            case "sqlite" -> new SqliteStorageBackend(folder, Logger.getLogger(getClass().getName()));
+            case "h2" -> new H2StorageBackend(folder);
+            default -> throw new IllegalArgumentException("Unknown backend " + backendName);
+        };
+        backend.open();
+
+        uuids = new UUID[players];
+        WriteBehindQueue queue = new WriteBehindQueue();
+        long now = System.currentTimeMillis();
+        for (int i = 0; i < players; i++) {
+            uuids[i] = UUID.randomUUID();
+            queue.upsert(uuids[i], "classic", PRESET);
+            queue.appendSession(completedSession(uuids[i], now));
+        }
+        backend.writeBatch(queue.drain());
+    }
+
+    @TearDown(Level.Iteration)
+    public void tearDown() throws IOException, SQLException {
+        backend.close();
+        try (Stream<Path> files = Files.walk(dataFolder)) {
+            files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    private UUID nextPlayer() {
+        UUID uuid = uuids[next];
+        next = (next + 1) % uuids.length;
+        return uuid;
+    }
+
+    private static SessionRecord completedSession(UUID uuid, long endedAt) {
+        return new SessionRecord(uuid, endedAt - 1_500_000, endedAt, "classic", 1500, 0, 0,
+                SessionRecord.Outcome.COMPLETED);
+    }
+
+    /**
+     * One flush: a preset edit and a completed session for each of {@value #BATCH_PLAYERS}
+     * players, written in one transaction.
+     */
+    @Benchmark
+    public int writeBatch() throws SQLException {
+        WriteBehindQueue queue = new WriteBehindQueue();
+        long now = System.currentTimeMillis();
+        for (int i = 0; i < BATCH_PLAYERS; i++) {
+            UUID uuid = nextPlayer();
+            queue.upsert(uuid, "classic", PRESET);
+            queue.appendSession(completedSession(uuid, now));
+        }
+        return backend.writeBatch(queue.drain());
+    }
+
+    @Benchmark
+    public DatabaseManager.PlayerStats loadStats() throws SQLException {
+        return backend.loadStats(nextPlayer());
+    }
+
+    @Benchmark
+    public Map<String, PresetConfig.Preset> loadPresets() throws SQLException {
+        return backend.loadPresets(nextPlayer());
+    }
+}
@@ -14,9 +14,11 @@ import org.encinet.pomodoro.config.LanguageManager;
 import org.encinet.pomodoro.listeners.PlayerListener;
 import org.encinet.pomodoro.listeners.UIListener;
 import org.encinet.pomodoro.service.PomodoroManager;
+import org.encinet.pomodoro.service.leaderboard.LeaderboardManager;
 import org.encinet.pomodoro.service.sound.SoundManager;
 import org.encinet.pomodoro.service.storage.DatabaseManager;
 import org.encinet.pomodoro.service.storage.PlayerPresetManager;
+import org.encinet.pomodoro.service.storage.PlayerStatsManager;
 import org.encinet.pomodoro.ui.UIManager;
 
 /**
@@ -29,6 +31,8 @@ public final class Pomodoro extends JavaPlugin {
     private PomodoroManager pomodoroManager;
     private UIManager uiManager;
     private PlayerPresetManager playerPresetManager;
+    private PlayerStatsManager playerStatsManager;
+    private LeaderboardManager leaderboardManager;
     private DatabaseManager databaseManager;
     private PlayerListener playerListener;
     private SoundManager soundManager;
@@ -36,6 +40,7 @@ public final class Pomodoro extends JavaPlugin {
     @Override
     public void onEnable() {
         // Plugin startup logic
+        long start = System.nanoTime();
         instance = this;
 
         configManager = new ConfigManager(this);
@@ -49,6 +54,8 @@ public final class Pomodoro extends JavaPlugin {
         uiManager = new UIManager();
         databaseManager = new DatabaseManager(this);
         playerPresetManager = new PlayerPresetManager(this);
+        leaderboardManager = new LeaderboardManager(this);
+        playerStatsManager = new PlayerStatsManager(this);
 
 
         LifecycleEventManager<org.bukkit.plugin.Plugin> lifecycleManager = this.getLifecycleManager();
@@ -62,6 +69,7 @@ public final class Pomodoro extends JavaPlugin {
         playerListener = new PlayerListener();
         getServer().getPluginManager().registerEvents(new UIListener(), this);
         getServer().getPluginManager().registerEvents(playerListener, this);
+        getLogger().info(String.format("Enabled in %.1f ms", (System.nanoTime() - start) / 1e6));
     }
 
     @Override
@@ -78,8 +86,10 @@ public final class Pomodoro extends JavaPlugin {
     }
 
     public void reload() {
+        long start = System.nanoTime();
         configManager.reloadAll();
         languageManager.loadLanguages();
+        getLogger().info(String.format("Reloaded in %.1f ms", (System.nanoTime() - start) / 1e6));
     }
 
     public static Pomodoro getInstance() {
@@ -106,6 +116,14 @@ public final class Pomodoro extends JavaPlugin {
         return playerPresetManager;
     }
 
+    public PlayerStatsManager getPlayerStatsManager() {
+        return playerStatsManager;
+    }
+
+    public LeaderboardManager getLeaderboardManager() {
+        return leaderboardManager;
+    }
+
     public DatabaseManager getDatabaseManager() {
         return databaseManager;
     }
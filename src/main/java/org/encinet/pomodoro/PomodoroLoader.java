@@ -0,0 +1,36 @@
+package org.encinet.pomodoro;
+
+import io.papermc.paper.plugin.loader.PluginClasspathBuilder;
+import io.papermc.paper.plugin.loader.PluginLoader;
+import io.papermc.paper.plugin.loader.library.impl.MavenLibraryResolver;
+import org.bukkit.configuration.file.YamlConfiguration;
+import org.eclipse.aether.artifact.DefaultArtifact;
+import org.eclipse.aether.graph.Dependency;
+import org.eclipse.aether.repository.RemoteRepository;
+
+import java.io.File;
+
+/**
+ * Adds the libraries the server does not bundle to the plugin's classpath.
+ * <p>
+ * Only the H2 driver is needed, and only when the h2 storage backend is selected, so the
+ * config is read here before the plugin itself loads.
+ */
+public class PomodoroLoader implements PluginLoader {
+    private static final String H2_ARTIFACT = "com.h2database:h2:2.3.232";
+
+    @Override
+    public void classloader(PluginClasspathBuilder classpathBuilder) {
+        File configFile = classpathBuilder.getContext().getDataDirectory().resolve("config.yml").toFile();
+        String backend = YamlConfiguration.loadConfiguration(configFile).getString("storage.backend", "sqlite");
+        if (!"h2".equalsIgnoreCase(backend)) {
+            return;
+        }
+
+        MavenLibraryResolver resolver = new MavenLibraryResolver();
+        resolver.addRepository(new RemoteRepository.Builder("central", "default",
+                "https://repo.maven.apache.org/maven2/").build());
+        resolver.addDependency(new Dependency(new DefaultArtifact(H2_ARTIFACT), null));
+        classpathBuilder.addLibrary(resolver);
+    }
+}
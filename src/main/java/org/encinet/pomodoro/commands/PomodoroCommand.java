@@ -1,25 +1,35 @@
 package org.encinet.pomodoro.commands;
 
 import com.mojang.brigadier.Command;
+import com.mojang.brigadier.LiteralMessage;
 import com.mojang.brigadier.arguments.StringArgumentType;
 import com.mojang.brigadier.builder.LiteralArgumentBuilder;
 import com.mojang.brigadier.context.CommandContext;
 import com.mojang.brigadier.suggestion.SuggestionProvider;
+import com.mojang.brigadier.suggestion.Suggestions;
 import com.mojang.brigadier.tree.LiteralCommandNode;
 import io.papermc.paper.command.brigadier.CommandSourceStack;
 import io.papermc.paper.command.brigadier.Commands;
+import net.kyori.adventure.text.Component;
 import org.bukkit.command.CommandSender;
 import org.bukkit.entity.Player;
 import org.encinet.pomodoro.Pomodoro;
 import org.encinet.pomodoro.config.LanguageManager;
 import org.encinet.pomodoro.config.impl.PresetConfig;
+import org.encinet.pomodoro.service.MetricLine;
 import org.encinet.pomodoro.service.PomodoroManager;
+import org.encinet.pomodoro.service.leaderboard.Leaderboard;
+import org.encinet.pomodoro.service.leaderboard.LeaderboardManager;
 import org.encinet.pomodoro.service.session.PomodoroSession;
 import org.encinet.pomodoro.service.session.PomodoroState;
 import org.encinet.pomodoro.service.storage.PlayerPresetManager;
+import org.encinet.pomodoro.service.storage.PresetIndex;
 import org.encinet.pomodoro.ui.UIManager;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 import java.util.function.Consumer;
 import java.util.function.Predicate;
 import java.util.function.BiConsumer;
@@ -30,6 +40,8 @@ public class PomodoroCommand {
     private static final UIManager UI_MANAGER = PLUGIN.getUiManager();
     private static final LanguageManager LANG = PLUGIN.getLanguageManager();
     private static final PlayerPresetManager PRESET_MANAGER = PLUGIN.getPlayerPresetManager();
+    private static final LeaderboardManager LEADERBOARD_MANAGER = PLUGIN.getLeaderboardManager();
+    private static final int TOP_ENTRIES = 10;
 
     public static LiteralCommandNode<CommandSourceStack> getCommand() {
         LiteralArgumentBuilder<CommandSourceStack> command = Commands.literal("pomodoro")
@@ -40,7 +52,10 @@ public class PomodoroCommand {
                 .then(buildResumeCommand())
                 .then(buildNextCommand())
                 .then(buildGuiCommand())
-                .then(buildReloadCommand());
+                .then(buildTopCommand())
+                .then(buildReloadCommand())
+                .then(buildMetricsCommand())
+                .then(buildRebuildStatsCommand());
         return command.build();
     }
 
@@ -88,7 +103,7 @@ public class PomodoroCommand {
             return;
         }
 
-        POMODORO_MANAGER.start(player, preset);
+        POMODORO_MANAGER.start(player, presetKey, preset);
         player.sendMessage(LANG.getMessage(player, "messages.timer_start", Map.of("preset", preset.name())));
     }
 
@@ -146,6 +161,46 @@ public class PomodoroCommand {
                 .executes(playerExecutor(UI_MANAGER::openPresetMainUI));
     }
 
+    private static LiteralArgumentBuilder<CommandSourceStack> buildTopCommand() {
+        LiteralArgumentBuilder<CommandSourceStack> top = Commands.literal("top")
+                .executes(context -> executeTop(context.getSource().getSender(), LeaderboardManager.Period.ALL));
+        for (LeaderboardManager.Period period : LeaderboardManager.Period.values()) {
+            top.then(Commands.literal(period.toString().toLowerCase())
+                    .executes(context -> executeTop(context.getSource().getSender(), period)));
+        }
+        return top;
+    }
+
+    private static int executeTop(CommandSender sender, LeaderboardManager.Period period) {
+        String locale = sender instanceof Player player ? player.locale().toString() : null;
+        sender.sendMessage(LANG.getTemplate("leaderboard.header", locale)
+                .render(Map.of("period", LANG.getPeriodName(period, locale))));
+
+        List<Leaderboard.Entry> entries = LEADERBOARD_MANAGER.getTop(period, TOP_ENTRIES);
+        if (entries.isEmpty()) {
+            sender.sendMessage(LANG.getTemplate("leaderboard.empty", locale).render());
+        }
+        int rank = 1;
+        for (Leaderboard.Entry entry : entries) {
+            sender.sendMessage(LANG.getTemplate("leaderboard.entry", locale).render(Map.of(
+                    "rank", String.valueOf(rank++),
+                    "player", LEADERBOARD_MANAGER.getPlayerName(entry.uuid()),
+                    "time", LANG.formatTime(entry.score(), locale))));
+        }
+
+        if (sender instanceof Player player) {
+            int ownRank = LEADERBOARD_MANAGER.getRank(period, player.getUniqueId());
+            if (ownRank > 0) {
+                sender.sendMessage(LANG.getMessage(player, "leaderboard.self", Map.of(
+                        "rank", String.valueOf(ownRank),
+                        "time", LANG.formatTime(LEADERBOARD_MANAGER.getScore(period, player.getUniqueId()), locale))));
+            } else {
+                sender.sendMessage(LANG.getMessage(player, "leaderboard.self_unranked"));
+            }
+        }
+        return Command.SINGLE_SUCCESS;
+    }
+
     private static LiteralArgumentBuilder<CommandSourceStack> buildReloadCommand() {
         return Commands.literal("reload")
                 .requires(source -> source.getSender().hasPermission("pomodoro.admin"))
@@ -161,6 +216,56 @@ public class PomodoroCommand {
                 });
     }
 
+    private static LiteralArgumentBuilder<CommandSourceStack> buildMetricsCommand() {
+        return Commands.literal("metrics")
+                .requires(source -> source.getSender().hasPermission("pomodoro.admin"))
+                .executes(context -> {
+                    CommandSender sender = context.getSource().getSender();
+                    List<MetricLine> lines = new ArrayList<>(POMODORO_MANAGER.getTickMetrics().describeAndReset());
+                    lines.addAll(POMODORO_MANAGER.getVisuals().getRenderCache().describeAndReset());
+                    lines.addAll(POMODORO_MANAGER.getVisuals().describeUpdatesAndReset());
+                    lines.addAll(Pomodoro.getInstance().getDatabaseManager().describeAndReset());
+                    for (MetricLine line : lines) {
+                        sender.sendMessage(getMessage(sender, "admin.metrics." + line.key(), line.placeholders()));
+                    }
+                    return Command.SINGLE_SUCCESS;
+                });
+    }
+
+    private static LiteralArgumentBuilder<CommandSourceStack> buildRebuildStatsCommand() {
+        return Commands.literal("rebuild-stats")
+                .requires(source -> source.getSender().hasPermission("pomodoro.admin"))
+                .executes(context -> {
+                    CommandSender sender = context.getSource().getSender();
+                    sender.sendMessage(getMessage(sender, "admin.rebuild_stats.started", Map.of()));
+                    long start = System.nanoTime();
+                    Pomodoro.getInstance().getDatabaseManager().rebuildRollups().thenCompose(rows -> rows < 0
+                            ? CompletableFuture.completedFuture(rows)
+                            // The daily and weekly leaderboards were seeded from the old rollups
+                            : PLUGIN.getPlayerStatsManager().reseedLeaderboards().thenApply(v -> rows)
+                    ).thenAccept(rows -> {
+                        if (rows < 0) {
+                            sender.sendMessage(getMessage(sender, "admin.rebuild_stats.failed", Map.of()));
+                        } else {
+                            sender.sendMessage(getMessage(sender, "admin.rebuild_stats.done", Map.of(
+                                    "sessions", String.valueOf(rows),
+                                    "time", String.format("%.1f", (System.nanoTime() - start) / 1e6))));
+                        }
+                    });
+                    return Command.SINGLE_SUCCESS;
+                });
+    }
+
+    /**
+     * Gets a message in the sender's language, or in the default language for the console.
+     */
+    private static Component getMessage(CommandSender sender, String key, Map<String, String> placeholders) {
+        if (sender instanceof Player player) {
+            return LANG.getMessage(player, key, placeholders);
+        }
+        return LANG.getMessage(key, placeholders);
+    }
+
     // --- Predicates & Executors ---
 
     private static Predicate<CommandSourceStack> playerPredicate(Predicate<Player> predicate) {
@@ -192,15 +297,30 @@ public class PomodoroCommand {
 
     // --- Suggestion Providers ---
 
+    /**
+     * Suggests preset keys matching the typed prefix by key or display name, with the
+     * display name as the tooltip. The index is fetched and searched on the async scheduler,
+     * so the calling thread never builds it.
+     */
     private static SuggestionProvider<CommandSourceStack> presetSuggestionProvider() {
         return (context, builder) -> {
-            if (context.getSource().getSender() instanceof Player player) {
-                Map<String, PresetConfig.Preset> presets = PRESET_MANAGER.getPlayerPresets(player);
-                presets.keySet().stream()
-                        .filter(preset -> preset.toLowerCase().startsWith(builder.getRemainingLowerCase()))
-                        .forEach(builder::suggest);
+            if (!(context.getSource().getSender() instanceof Player player)) {
+                return builder.buildFuture();
             }
-            return builder.buildFuture();
+            CompletableFuture<Suggestions> suggestions = new CompletableFuture<>();
+            PLUGIN.getServer().getAsyncScheduler().runNow(PLUGIN, task -> {
+                PresetIndex index = PRESET_MANAGER.getPresetIndex(player);
+                for (String key : index.find(builder.getRemaining())) {
+                    String name = index.displayName(key);
+                    if (name != null) {
+                        builder.suggest(key, new LiteralMessage(name));
+                    } else {
+                        builder.suggest(key);
+                    }
+                }
+                suggestions.complete(builder.build());
+            });
+            return suggestions;
         };
     }
 }
@@ -0,0 +1,40 @@
+package org.encinet.pomodoro.config;
+
+import org.bukkit.configuration.file.YamlConfiguration;
+
+import java.util.function.BiFunction;
+import java.util.logging.Logger;
+
+/**
+ * Everything needed to load one config class, generated at build time for each class
+ * annotated with {@link org.encinet.pomodoro.config.annotations.ConfigFile}.
+ *
+ * @param type     The config class.
+ * @param fileName The name of the configuration file.
+ * @param version  The current version of the configuration file.
+ * @param factory  The config class's (YamlConfiguration, Logger) constructor.
+ * @param binder   Fills the config's {@link org.encinet.pomodoro.config.annotations.ConfigValue} fields.
+ * @param <T>      The config class.
+ */
+public record ConfigBinding<T extends AbstractConfig>(Class<T> type, String fileName, int version,
+                                                      BiFunction<YamlConfiguration, Logger, T> factory,
+                                                      Binder<T> binder) {
+
+    @FunctionalInterface
+    public interface Binder<T> {
+        void bind(T config, YamlConfiguration yaml, Logger logger);
+    }
+
+    /**
+     * Creates the config and fills its annotated fields from the loaded file.
+     *
+     * @param yaml   The loaded configuration file.
+     * @param logger The plugin logger.
+     * @return The loaded config.
+     */
+    public T load(YamlConfiguration yaml, Logger logger) {
+        T config = factory.apply(yaml, logger);
+        binder.bind(config, yaml, logger);
+        return config;
+    }
+}
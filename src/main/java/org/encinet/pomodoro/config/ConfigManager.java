@@ -1,38 +1,50 @@
 package org.encinet.pomodoro.config;
 
-import com.google.common.reflect.ClassPath;
 import org.bukkit.configuration.file.YamlConfiguration;
 import org.encinet.pomodoro.Pomodoro;
-import org.encinet.pomodoro.config.annotations.ConfigFile;
+import org.encinet.pomodoro.config.impl.PomodoroConfig;
+import org.encinet.pomodoro.config.impl.PresetConfig;
 import org.encinet.pomodoro.config.utils.FileManager;
 
-import java.io.File;
-import java.io.IOException;
-import java.lang.reflect.Constructor;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.logging.Level;
 
 /**
- * Manages all configuration files for the plugin using classpath scanning.
- * This manager automatically discovers, loads, and updates any class in the
- * 'impl' package annotated with @ConfigFile.
+ * Manages all configuration files for the plugin.
+ * Every class annotated with @ConfigFile is listed in a registry generated at build time,
+ * together with a binder for its @ConfigValue fields, so loading needs no classpath scan
+ * or reflection.
  *
  * @author Noctiro
  */
 public class ConfigManager {
     public static final String VERSION_KEY = "config-version";
-    private static final String CONFIG_IMPL_PACKAGE = "org.encinet.pomodoro.config.impl";
 
     private final Pomodoro plugin;
     private final FileManager fileManager;
-    private final Map<Class<? extends AbstractConfig>, ManagedConfig> configs = new HashMap<>();
-    private final Map<Class<? extends AbstractConfig>, AbstractConfig> configImplementations = new HashMap<>();
 
     /**
-     * Represents a loaded configuration file and its metadata.
+     * All loaded configs. A reload builds a complete new snapshot and then replaces this
+     * one, so readers on other threads never see a missing or half-loaded config.
      */
-    private record ManagedConfig(File file, YamlConfiguration configuration, ConfigFile metadata) {}
+    private volatile ConfigSnapshot snapshot = new ConfigSnapshot(null, null, Map.of());
+
+    /**
+     * An immutable set of loaded configs. The configs read on hot paths have their own fields,
+     * so reading them is a plain field access instead of a map lookup.
+     *
+     * @param pomodoro The main plugin configuration.
+     * @param presets  The global presets.
+     * @param all      Every loaded config, by class.
+     */
+    public record ConfigSnapshot(PomodoroConfig pomodoro, PresetConfig presets,
+                                 Map<Class<? extends AbstractConfig>, AbstractConfig> all) {
+        private static ConfigSnapshot of(Map<Class<? extends AbstractConfig>, AbstractConfig> configs) {
+            return new ConfigSnapshot((PomodoroConfig) configs.get(PomodoroConfig.class),
+                    (PresetConfig) configs.get(PresetConfig.class), Map.copyOf(configs));
+        }
+    }
 
     public ConfigManager(Pomodoro plugin) {
         this.plugin = plugin;
@@ -40,66 +52,91 @@ public class ConfigManager {
     }
 
     /**
-     * Initializes and loads all defined configuration files by scanning the classpath.
+     * Initializes and loads all configuration files listed in the generated registry.
      */
     public void initialize() {
-        plugin.getLogger().info("Scanning for configuration files...");
-        try {
-            ClassPath classPath = ClassPath.from(plugin.getClass().getClassLoader());
-            for (ClassPath.ClassInfo classInfo : classPath.getTopLevelClasses(CONFIG_IMPL_PACKAGE)) {
-                Class<?> clazz = classInfo.load();
-                if (AbstractConfig.class.isAssignableFrom(clazz) && clazz.isAnnotationPresent(ConfigFile.class)) {
-                    loadConfig((Class<? extends AbstractConfig>) clazz);
-                }
+        snapshot = loadSnapshot(snapshot);
+    }
+
+    /**
+     * Loads every config class into a new snapshot.
+     * A config that fails to load keeps its instance from the previous snapshot, if any.
+     *
+     * @param previous The snapshot being replaced.
+     * @return The new snapshot.
+     */
+    private ConfigSnapshot loadSnapshot(ConfigSnapshot previous) {
+        long start = System.nanoTime();
+        Map<Class<? extends AbstractConfig>, AbstractConfig> loaded = new HashMap<>();
+        for (ConfigBinding<?> binding : GeneratedConfigRegistry.BINDINGS) {
+            AbstractConfig config = loadConfig(binding);
+            if (config != null) {
+                loaded.put(binding.type(), config);
+            } else if (previous.all().containsKey(binding.type())) {
+                plugin.getLogger().warning("Keeping the previous " + binding.type().getSimpleName() + ".");
+                loaded.put(binding.type(), previous.all().get(binding.type()));
             }
-        } catch (IOException e) {
-            plugin.getLogger().log(Level.SEVERE, "Failed to scan classpath for configs", e);
         }
 
-        plugin.getLogger().info("All configuration files loaded.");
-        loadAllImplementations();
+        plugin.getLogger().info(String.format("All configuration files loaded in %.1f ms.",
+                (System.nanoTime() - start) / 1e6));
+        return ConfigSnapshot.of(loaded);
     }
 
     /**
-     * Loads a specific configuration file based on its class and @ConfigFile annotation.
+     * Loads a specific configuration file and binds its config class.
      *
-     * @param configClass The configuration class to load.
+     * @param binding The generated binding of the configuration class to load.
+     * @return The loaded configuration, or null if it could not be loaded.
      */
-    private void loadConfig(Class<? extends AbstractConfig> configClass) {
-        ConfigFile metadata = configClass.getAnnotation(ConfigFile.class);
-        String fileName = metadata.name();
-
-        YamlConfiguration finalConfig = fileManager.loadAndManageFile(fileName, VERSION_KEY, metadata.version());
-        File file = new File(plugin.getDataFolder(), fileName); // For the record
-
-        configs.put(configClass, new ManagedConfig(file, finalConfig, metadata));
-        plugin.getLogger().info("Loaded configuration: " + fileName);
+    private AbstractConfig loadConfig(ConfigBinding<?> binding) {
+        YamlConfiguration finalConfig = fileManager.loadAndManageFile(binding.fileName(), VERSION_KEY, binding.version());
+        plugin.getLogger().info("Loaded configuration: " + binding.fileName());
 
-        // Instantiate and register the implementation
         try {
-            Constructor<? extends AbstractConfig> constructor = configClass.getConstructor(YamlConfiguration.class, java.util.logging.Logger.class);
-            AbstractConfig configInstance = constructor.newInstance(finalConfig, plugin.getLogger());
-            configImplementations.put(configClass, configInstance);
+            return binding.load(finalConfig, plugin.getLogger());
         } catch (Exception e) {
-            plugin.getLogger().log(Level.SEVERE, "Failed to instantiate config class: " + configClass.getSimpleName(), e);
+            plugin.getLogger().log(Level.SEVERE, "Failed to load config class: " + binding.type().getSimpleName(), e);
+            return null;
         }
     }
 
     /**
      * Reloads all configuration files from disk.
+     * The current configs stay in use until every file has been loaded.
      */
     public void reloadAll() {
         plugin.getLogger().info("Reloading all configuration files...");
-        configs.clear();
-        configImplementations.clear();
-        initialize();
+        snapshot = loadSnapshot(snapshot);
         plugin.getLogger().info("All configuration files reloaded.");
     }
 
-    private void loadAllImplementations() {
-        for (AbstractConfig config : configImplementations.values()) {
-            config.loadConfig();
-        }
+    /**
+     * Gets the current snapshot of all loaded configs.
+     * Read it once and keep the reference when several values must come from the same load.
+     *
+     * @return The current snapshot.
+     */
+    public ConfigSnapshot getSnapshot() {
+        return snapshot;
+    }
+
+    /**
+     * Gets the main plugin configuration from the current snapshot.
+     *
+     * @return The current PomodoroConfig.
+     */
+    public PomodoroConfig getPomodoroConfig() {
+        return snapshot.pomodoro();
+    }
+
+    /**
+     * Gets the global presets from the current snapshot.
+     *
+     * @return The current PresetConfig.
+     */
+    public PresetConfig getPresetConfig() {
+        return snapshot.presets();
     }
 
     /**
@@ -111,10 +148,10 @@ public class ConfigManager {
      * @throws IllegalStateException if the requested config is not loaded.
      */
     public <T extends AbstractConfig> T getConfig(Class<T> configClass) {
-        AbstractConfig config = configImplementations.get(configClass);
+        AbstractConfig config = snapshot.all().get(configClass);
         if (config == null) {
             throw new IllegalStateException("Attempted to access unloaded config class: " + configClass.getSimpleName());
         }
         return configClass.cast(config);
     }
-}
\ No newline at end of file
+}
@@ -2,29 +2,41 @@ package org.encinet.pomodoro.config;
 
 import net.kyori.adventure.text.Component;
 import net.kyori.adventure.text.minimessage.MiniMessage;
-import net.kyori.adventure.text.minimessage.tag.resolver.Placeholder;
 import net.kyori.adventure.text.minimessage.tag.resolver.TagResolver;
 import org.bukkit.configuration.file.YamlConfiguration;
 import org.bukkit.entity.Player;
 import org.encinet.pomodoro.Pomodoro;
 import org.encinet.pomodoro.config.impl.PomodoroConfig;
 import org.encinet.pomodoro.config.utils.FileManager;
+import org.encinet.pomodoro.service.leaderboard.LeaderboardManager;
 import org.encinet.pomodoro.service.session.PomodoroState;
 
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class LanguageManager {
     private static final String VERSION_KEY = "config-version";
-    private static final int LATEST_VERSION = 1;
+    private static final int LATEST_VERSION = 3;
+    private static final String BASE_LANGUAGE = "en";
     private final Pomodoro plugin;
     private final FileManager fileManager;
     private final Map<String, YamlConfiguration> languageConfigs = new HashMap<>();
     private final MiniMessage miniMessage = MiniMessage.miniMessage();
-    private YamlConfiguration baseMessages;
+
+    private final Map<String, MessageTemplate> missingTemplates = new ConcurrentHashMap<>();
+
+    /**
+     * Messages compiled at load time, per locale. Replaced as a whole on reload so
+     * readers on other threads never see a half-built table.
+     */
+    private volatile CompiledMessages compiledMessages = new CompiledMessages(Map.of(), Map.of());
+
+    private record CompiledMessages(Map<String, Map<String, MessageTemplate>> messages,
+                                    Map<String, Map<String, List<MessageTemplate>>> lists) {}
 
     public LanguageManager(Pomodoro plugin) {
         this.plugin = plugin;
@@ -36,12 +48,10 @@ public class LanguageManager {
         languageConfigs.clear();
 
         // Define the base language
-        String baseLang = "en";
-        String baseLangFile = "message/" + baseLang + ".yml";
+        String baseLangFile = "message/" + BASE_LANGUAGE + ".yml";
 
-        // Load and set the base language first
+        // Load the base language first
         loadLanguageFile(baseLangFile);
-        baseMessages = languageConfigs.get(baseLang);
 
         // Scan and load all message files from the JAR's resources
         try (var jar = new java.util.jar.JarFile(plugin.getJarFile())) {
@@ -56,6 +66,36 @@ public class LanguageManager {
         } catch (java.io.IOException e) {
             plugin.getLogger().severe("Could not load language files from JAR: " + e.getMessage());
         }
+
+        compileMessages();
+    }
+
+    /**
+     * Compiles every message of every loaded locale into a {@link MessageTemplate},
+     * so rendering never has to look up YAML or parse MiniMessage for plain placeholders.
+     */
+    private void compileMessages() {
+        Map<String, Map<String, MessageTemplate>> messages = new HashMap<>();
+        Map<String, Map<String, List<MessageTemplate>>> lists = new HashMap<>();
+        for (Map.Entry<String, YamlConfiguration> entry : languageConfigs.entrySet()) {
+            YamlConfiguration langConfig = entry.getValue();
+            Map<String, MessageTemplate> localeMessages = new HashMap<>();
+            Map<String, List<MessageTemplate>> localeLists = new HashMap<>();
+            for (String key : langConfig.getKeys(true)) {
+                if (langConfig.isString(key)) {
+                    localeMessages.put(key, MessageTemplate.compile(miniMessage, langConfig.getString(key)));
+                } else if (langConfig.isList(key)) {
+                    List<MessageTemplate> lines = new ArrayList<>();
+                    for (String line : langConfig.getStringList(key)) {
+                        lines.add(MessageTemplate.compile(miniMessage, line));
+                    }
+                    localeLists.put(key, List.copyOf(lines));
+                }
+            }
+            messages.put(entry.getKey(), localeMessages);
+            lists.put(entry.getKey(), localeLists);
+        }
+        compiledMessages = new CompiledMessages(messages, lists);
     }
 
     private void loadLanguageFile(String fileName) {
@@ -66,29 +106,53 @@ public class LanguageManager {
     }
 
     public Component getMessage(String key, String locale, TagResolver... resolvers) {
-        PomodoroConfig pomodoroConfig = Pomodoro.getInstance().getConfigManager().getConfig(PomodoroConfig.class);
-        String messageFormat = null;
+        MessageTemplate template = getTemplate(key, locale);
+        if (resolvers.length == 0) {
+            return template.render();
+        }
+        return miniMessage.deserialize(template.format(), resolvers);
+    }
+
+    /**
+     * Gets the compiled template for a message, following the same locale fallback as
+     * {@link #getMessage(String, String, TagResolver...)}.
+     *
+     * @param key    The message key.
+     * @param locale The locale to look up, or null for the default language.
+     * @return The template; never null.
+     */
+    public MessageTemplate getTemplate(String key, String locale) {
+        PomodoroConfig pomodoroConfig = plugin.getConfigManager().getPomodoroConfig();
+        Map<String, Map<String, MessageTemplate>> messages = compiledMessages.messages();
+        MessageTemplate template = null;
 
         if (pomodoroConfig.isAdaptiveLanguage() && locale != null) {
-            messageFormat = getMessageForLocale(key, locale);
-            if (messageFormat == null && locale.contains("_")) {
-                messageFormat = getMessageForLocale(key, locale.substring(0, locale.indexOf('_')));
+            template = getTemplateForLocale(messages, key, locale);
+            if (template == null && locale.contains("_")) {
+                template = getTemplateForLocale(messages, key, locale.substring(0, locale.indexOf('_')));
             }
         }
 
-        if (messageFormat == null) {
-            messageFormat = getMessageForLocale(key, pomodoroConfig.getDefaultLanguage());
+        if (template == null) {
+            template = getTemplateForLocale(messages, key, pomodoroConfig.getDefaultLanguage());
         }
 
-        if (messageFormat == null) {
-            messageFormat = baseMessages.getString(key);
+        if (template == null) {
+            template = getTemplateForLocale(messages, key, BASE_LANGUAGE);
         }
 
-        if (messageFormat == null) {
-            messageFormat = "<yellow>Missing message for key: " + key + "</yellow>";
+        if (template == null) {
+            template = missingTemplates.computeIfAbsent(key, k ->
+                    MessageTemplate.compile(miniMessage, "<yellow>Missing message for key: " + k + "</yellow>"));
         }
 
-        return miniMessage.deserialize(messageFormat, resolvers);
+        return template;
+    }
+
+    private MessageTemplate getTemplateForLocale(Map<String, Map<String, MessageTemplate>> messages, String key, String locale) {
+        if (locale == null) return null;
+        Map<String, MessageTemplate> localeMessages = messages.get(locale);
+        return localeMessages != null ? localeMessages.get(key) : null;
     }
 
     private String getMessageForLocale(String key, String locale) {
@@ -106,17 +170,11 @@ public class LanguageManager {
     }
 
     public Component getMessage(String key, Map<String, String> placeholders) {
-        TagResolver[] resolvers = placeholders.entrySet().stream()
-                .map(entry -> Placeholder.unparsed(entry.getKey(), entry.getValue()))
-                .toArray(TagResolver[]::new);
-        return getMessage(key, resolvers);
+        return getTemplate(key, null).render(placeholders);
     }
 
     public Component getMessage(Player player, String key, Map<String, String> placeholders) {
-        TagResolver[] resolvers = placeholders.entrySet().stream()
-                .map(entry -> Placeholder.unparsed(entry.getKey(), entry.getValue()))
-                .toArray(TagResolver[]::new);
-        return getMessage(player, key, resolvers);
+        return getTemplate(key, player.locale().toString()).render(placeholders);
     }
 
     public void sendMessage(Player player, String key, TagResolver... resolvers) {
@@ -132,40 +190,55 @@ public class LanguageManager {
     }
 
     public List<Component> getMessageList(String key, String locale, TagResolver... resolvers) {
-        PomodoroConfig pomodoroConfig = Pomodoro.getInstance().getConfigManager().getConfig(PomodoroConfig.class);
-        List<String> messageFormat = null;
+        List<MessageTemplate> templates = getTemplateList(key, locale);
+        List<Component> lines = new ArrayList<>(templates.size());
+        for (MessageTemplate template : templates) {
+            lines.add(resolvers.length == 0 ? template.render() : miniMessage.deserialize(template.format(), resolvers));
+        }
+        return lines;
+    }
+
+    private List<Component> getMessageList(String key, String locale, Map<String, String> placeholders) {
+        List<MessageTemplate> templates = getTemplateList(key, locale);
+        List<Component> lines = new ArrayList<>(templates.size());
+        for (MessageTemplate template : templates) {
+            lines.add(template.render(placeholders));
+        }
+        return lines;
+    }
+
+    private List<MessageTemplate> getTemplateList(String key, String locale) {
+        PomodoroConfig pomodoroConfig = plugin.getConfigManager().getPomodoroConfig();
+        Map<String, Map<String, List<MessageTemplate>>> lists = compiledMessages.lists();
+        List<MessageTemplate> templates = null;
 
         if (pomodoroConfig.isAdaptiveLanguage() && locale != null) {
-            messageFormat = getMessageListForLocale(key, locale);
-            if (messageFormat == null && locale.contains("_")) {
-                messageFormat = getMessageListForLocale(key, locale.substring(0, locale.indexOf('_')));
+            templates = getTemplateListForLocale(lists, key, locale);
+            if (templates == null && locale.contains("_")) {
+                templates = getTemplateListForLocale(lists, key, locale.substring(0, locale.indexOf('_')));
             }
         }
 
-        if (messageFormat == null) {
-            messageFormat = getMessageListForLocale(key, pomodoroConfig.getDefaultLanguage());
+        if (templates == null) {
+            templates = getTemplateListForLocale(lists, key, pomodoroConfig.getDefaultLanguage());
         }
 
-        if (messageFormat == null) {
-            messageFormat = baseMessages.getStringList(key);
+        if (templates == null) {
+            templates = getTemplateListForLocale(lists, key, BASE_LANGUAGE);
         }
 
-        if (messageFormat == null || messageFormat.isEmpty()) {
-            return Collections.singletonList(miniMessage.deserialize("<yellow>Missing message list for key: " + key + "</yellow>"));
+        if (templates == null || templates.isEmpty()) {
+            return Collections.singletonList(missingTemplates.computeIfAbsent("list:" + key, k ->
+                    MessageTemplate.compile(miniMessage, "<yellow>Missing message list for key: " + key + "</yellow>")));
         }
 
-        return messageFormat.stream()
-                .map(line -> miniMessage.deserialize(line, resolvers))
-                .collect(Collectors.toList());
+        return templates;
     }
 
-    private List<String> getMessageListForLocale(String key, String locale) {
+    private List<MessageTemplate> getTemplateListForLocale(Map<String, Map<String, List<MessageTemplate>>> lists, String key, String locale) {
         if (locale == null) return null;
-        YamlConfiguration langConfig = languageConfigs.get(locale);
-        if (langConfig != null && langConfig.isList(key)) {
-            return langConfig.getStringList(key);
-        }
-        return null;
+        Map<String, List<MessageTemplate>> localeLists = lists.get(locale);
+        return localeLists != null ? localeLists.get(key) : null;
     }
 
     public List<Component> getMessageList(Player player, String key) {
@@ -177,15 +250,21 @@ public class LanguageManager {
     }
 
     public List<Component> getMessageList(Player player, String key, Map<String, String> placeholders) {
-        TagResolver[] resolvers = placeholders.entrySet().stream()
-                .map(entry -> Placeholder.unparsed(entry.getKey(), entry.getValue()))
-                .toArray(TagResolver[]::new);
-        return getMessageList(player, key, resolvers);
+        return getMessageList(key, player.locale().toString(), placeholders);
     }
 
     public String getStatusMessage(PomodoroState state, Player player) {
+        return getStatusMessage(state, player.locale().toString());
+    }
+
+    public String getStatusMessage(PomodoroState state, String locale) {
         String key = "status." + state.toString().toLowerCase();
-        return miniMessage.serialize(getMessage(player, key));
+        return miniMessage.serialize(getTemplate(key, locale).render());
+    }
+
+    public String getPeriodName(LeaderboardManager.Period period, String locale) {
+        String key = "leaderboard.period." + period.toString().toLowerCase();
+        return miniMessage.serialize(getTemplate(key, locale).render());
     }
 
     public void sendActionBar(Player player, String key, TagResolver... resolvers) {
@@ -194,10 +273,7 @@ public class LanguageManager {
     }
 
     public void sendActionBar(Player player, String key, Map<String, String> placeholders) {
-        TagResolver[] resolvers = placeholders.entrySet().stream()
-                .map(entry -> Placeholder.unparsed(entry.getKey(), entry.getValue()))
-                .toArray(TagResolver[]::new);
-        sendActionBar(player, key, resolvers);
+        player.sendActionBar(getTemplate("actionbar." + key, player.locale().toString()).render(placeholders));
     }
 
     public String formatTime(int totalSeconds, String locale) {
@@ -0,0 +1,319 @@
+package org.encinet.pomodoro.config;
+
+import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.TextComponent;
+import net.kyori.adventure.text.minimessage.Context;
+import net.kyori.adventure.text.minimessage.MiniMessage;
+import net.kyori.adventure.text.minimessage.tag.Tag;
+import net.kyori.adventure.text.minimessage.tag.resolver.ArgumentQueue;
+import net.kyori.adventure.text.minimessage.tag.resolver.Placeholder;
+import net.kyori.adventure.text.minimessage.tag.resolver.TagResolver;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * A message compiled once at load time, with typed slots for its placeholders.
+ * <p>
+ * The MiniMessage format is parsed a single time. Every placeholder tag that is not a standard
+ * MiniMessage tag becomes a slot, and is parsed as a marker character. Rendering then only
+ * copies the component tree and substitutes slot values into text content, which matches
+ * {@link Placeholder#unparsed(String, String)} semantics without re-parsing. Markers are
+ * private-use characters that the parsed text does not contain, so glyphs of a resource pack
+ * in the message are left alone.
+ * <p>
+ * Modifying tags such as {@code <gradient>} style inserted text per character, so a slot inside
+ * one cannot be filled in after parsing. Such styled slots are bound when the template is
+ * parsed instead: the format is parsed once per distinct combination of their values, and the
+ * result is cached with markers for the remaining slots. In the shipped messages only the
+ * preset name is styled, so each preset is parsed once and its seconds are substituted.
+ */
+public final class MessageTemplate {
+    private static final char MARKER_BASE = '\uE000';
+    private static final char MARKER_LIMIT = '\uF8FF';
+    // A tag, optionally escaped, with its closing slash and name
+    private static final Pattern TAG = Pattern.compile("(\\\\?)<(/?)([!?#]?[a-zA-Z0-9_-]+)(?::[^>]*)?>");
+    private static final Set<String> MODIFYING_TAGS = Set.of("gradient", "rainbow", "pride");
+    // Bounds the parsed variants of a template with styled slots; cleared when full
+    private static final int MAX_VARIANTS = 256;
+
+    /**
+     * A parsed format.
+     *
+     * @param component The parsed component tree.
+     * @param markers   The marker character of each slot, by slot index.
+     */
+    private record Parsed(Component component, char[] markers) {}
+
+    private final MiniMessage miniMessage;
+    private final String format;
+    private final String[] slots;
+    private final String[] styledSlots;
+    // The single parse of a template without styled slots
+    private final Parsed parsed;
+    private final Map<List<String>, Parsed> variants = new ConcurrentHashMap<>();
+    private final LongAdder parses = new LongAdder();
+
+    private MessageTemplate(MiniMessage miniMessage, String format, String[] styledSlots) {
+        this.miniMessage = miniMessage;
+        this.format = format;
+        this.styledSlots = styledSlots;
+        List<String> foundSlots = new ArrayList<>();
+        Parsed first = parse(new String[styledSlots.length], foundSlots);
+        this.slots = foundSlots.toArray(new String[0]);
+        if (styledSlots.length == 0) {
+            this.parsed = first;
+        } else {
+            this.parsed = null;
+            variants.put(Arrays.asList(new String[styledSlots.length]), first);
+        }
+    }
+
+    /**
+     * Compiles a MiniMessage format string.
+     *
+     * @param miniMessage The MiniMessage instance to parse with.
+     * @param format      The raw format string.
+     * @return The compiled template.
+     */
+    public static MessageTemplate compile(MiniMessage miniMessage, String format) {
+        return new MessageTemplate(miniMessage, format, findStyledSlots(format));
+    }
+
+    /**
+     * Finds the placeholders that appear inside a modifying tag. Closing an outer tag is not
+     * tracked, so a placeholder is only ever wrongly counted as styled, never as unstyled.
+     */
+    private static String[] findStyledSlots(String format) {
+        Set<String> styled = new LinkedHashSet<>();
+        int depth = 0;
+        Matcher matcher = TAG.matcher(format);
+        while (matcher.find()) {
+            if (!matcher.group(1).isEmpty()) {
+                continue;
+            }
+            boolean closing = !matcher.group(2).isEmpty();
+            String name = matcher.group(3).toLowerCase(Locale.ROOT);
+            if (MODIFYING_TAGS.contains(name)) {
+                depth = closing ? Math.max(0, depth - 1) : depth + 1;
+            } else if (name.equals("reset")) {
+                depth = 0;
+            } else if (!closing && depth > 0 && !TagResolver.standard().has(name)) {
+                styled.add(name);
+            }
+        }
+        return styled.toArray(new String[0]);
+    }
+
+    /**
+     * Parses the format with the given values for the styled slots. The other slots become
+     * markers, numbered in the order they are met and appended to {@code slots} when new.
+     *
+     * @param styledValues The value of each styled slot, or null to keep its tag as text.
+     * @param slots        The slots found so far.
+     * @return The parsed format.
+     */
+    private Parsed parse(String[] styledValues, List<String> slots) {
+        parses.increment();
+        StringBuilder builder = new StringBuilder(format);
+        for (String value : styledValues) {
+            if (value != null) {
+                builder.append(value);
+            }
+        }
+        String text = builder.toString();
+        List<Character> markers = new ArrayList<>();
+        TagResolver slotResolver = new TagResolver() {
+            @Override
+            public Tag resolve(String name, ArgumentQueue arguments, Context ctx) {
+                for (int i = 0; i < styledSlots.length; i++) {
+                    if (styledSlots[i].equals(name)) {
+                        String value = styledValues[i];
+                        return Tag.selfClosingInserting(Component.text(value != null ? value : "<" + name + ">"));
+                    }
+                }
+                int index = slots.indexOf(name);
+                if (index < 0) {
+                    index = slots.size();
+                    slots.add(name);
+                }
+                while (markers.size() <= index) {
+                    markers.add(nextMarker(text, markers));
+                }
+                return Tag.selfClosingInserting(Component.text(String.valueOf(markers.get(index))));
+            }
+
+            @Override
+            public boolean has(String name) {
+                return !TagResolver.standard().has(name);
+            }
+        };
+        Component component = miniMessage.deserialize(format, slotResolver);
+        char[] markerArray = new char[markers.size()];
+        for (int i = 0; i < markerArray.length; i++) {
+            markerArray[i] = markers.get(i);
+        }
+        return new Parsed(component, markerArray);
+    }
+
+    /**
+     * Picks the next private-use character that is neither in the parsed text nor taken.
+     */
+    private static char nextMarker(String text, List<Character> taken) {
+        char candidate = taken.isEmpty() ? MARKER_BASE : (char) (taken.get(taken.size() - 1) + 1);
+        while (candidate <= MARKER_LIMIT && text.indexOf(candidate) >= 0) {
+            candidate++;
+        }
+        if (candidate > MARKER_LIMIT) {
+            throw new IllegalArgumentException("No free marker characters left for the slots of: " + text);
+        }
+        return candidate;
+    }
+
+    /**
+     * Gets the raw format this template was compiled from.
+     *
+     * @return The MiniMessage format string.
+     */
+    public String format() {
+        return format;
+    }
+
+    /**
+     * Gets the index of a placeholder slot.
+     *
+     * @param name The placeholder name.
+     * @return The slot index, or -1 if the template has no such placeholder.
+     */
+    public int slot(String name) {
+        for (int i = 0; i < slots.length; i++) {
+            if (slots[i].equals(name)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Gets how many times the format has been parsed, including at compile time.
+     *
+     * @return The number of parses.
+     */
+    long parses() {
+        return parses.sum();
+    }
+
+    /**
+     * Renders the template without placeholder values. Placeholders are left as literal tags,
+     * as MiniMessage does for unknown tags.
+     *
+     * @return The rendered component.
+     */
+    public Component render() {
+        return render(Map.of());
+    }
+
+    /**
+     * Renders the template, substituting placeholder values as unparsed text.
+     *
+     * @param values The placeholder values by name.
+     * @return The rendered component.
+     */
+    public Component render(Map<String, String> values) {
+        Parsed target = parsed != null ? parsed : variant(values);
+        if (slots.length == 0) {
+            return target.component();
+        }
+        String[] slotValues = new String[slots.length];
+        for (int i = 0; i < slots.length; i++) {
+            String value = values.get(slots[i]);
+            slotValues[i] = value != null ? value : "<" + slots[i] + ">";
+        }
+        return substitute(target.component(), target.markers(), slotValues);
+    }
+
+    /**
+     * Gets the parse of the format with the styled slots bound to the given values, parsing
+     * it on first use.
+     */
+    private Parsed variant(Map<String, String> values) {
+        String[] styledValues = new String[styledSlots.length];
+        for (int i = 0; i < styledSlots.length; i++) {
+            styledValues[i] = values.get(styledSlots[i]);
+        }
+        List<String> key = Arrays.asList(styledValues);
+        Parsed variant = variants.get(key);
+        if (variant == null) {
+            if (variants.size() >= MAX_VARIANTS) {
+                variants.clear();
+            }
+            variant = variants.computeIfAbsent(key, k -> parse(styledValues, new ArrayList<>(Arrays.asList(slots))));
+        }
+        return variant;
+    }
+
+    private static Component substitute(Component component, char[] markers, String[] slotValues) {
+        Component result = component;
+        if (component instanceof TextComponent text) {
+            String content = text.content();
+            String replaced = substitute(content, markers, slotValues);
+            if (replaced != content) {
+                result = text.content(replaced);
+            }
+        }
+        List<Component> children = component.children();
+        if (children.isEmpty()) {
+            return result;
+        }
+        List<Component> newChildren = null;
+        for (int i = 0; i < children.size(); i++) {
+            Component child = children.get(i);
+            Component newChild = substitute(child, markers, slotValues);
+            if (newChild != child && newChildren == null) {
+                newChildren = new ArrayList<>(children);
+            }
+            if (newChildren != null) {
+                newChildren.set(i, newChild);
+            }
+        }
+        return newChildren != null ? result.children(newChildren) : result;
+    }
+
+    private static String substitute(String content, char[] markers, String[] slotValues) {
+        StringBuilder builder = null;
+        for (int i = 0; i < content.length(); i++) {
+            char c = content.charAt(i);
+            int slot = c >= MARKER_BASE && c <= MARKER_LIMIT ? slotOf(markers, c) : -1;
+            if (slot >= 0 && builder == null) {
+                builder = new StringBuilder(content.length() + 16);
+                builder.append(content, 0, i);
+            }
+            if (builder != null) {
+                if (slot >= 0) {
+                    builder.append(slotValues[slot]);
+                } else {
+                    builder.append(c);
+                }
+            }
+        }
+        return builder != null ? builder.toString() : content;
+    }
+
+    private static int slotOf(char[] markers, char c) {
+        for (int i = 0; i < markers.length; i++) {
+            if (markers[i] == c) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
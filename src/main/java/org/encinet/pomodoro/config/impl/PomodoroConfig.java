@@ -15,31 +15,43 @@ import java.util.logging.Logger;
 public class PomodoroConfig extends AbstractConfig {
     public record Sound(String name, float volume, float pitch) {}
     @ConfigValue("restrictions.allow-chat")
-    private boolean allowChat = false;
+    boolean allowChat = false;
 
     @ConfigValue("restrictions.restrict-movement")
-    private boolean restrictMovement = false;
+    boolean restrictMovement = false;
 
     @ConfigValue("restrictions.max-distance")
-    private int maxDistance = 10;
+    int maxDistance = 10;
 
     @ConfigValue("restrictions.pull-back-delay")
-    private int pullBackDelay = 2000;
+    int pullBackDelay = 2000;
 
     @ConfigValue("text-display.offset-y")
-    private double textDisplayOffsetY = 1.8;
+    double textDisplayOffsetY = 1.8;
+
+    @ConfigValue("text-display.mode")
+    String textDisplayMode = "entity";
+
+    @ConfigValue("performance.tick-shards")
+    int tickShards = 20;
+
+    @ConfigValue("storage.backend")
+    String storageBackend = "sqlite";
+
+    @ConfigValue("storage.flush-interval")
+    int flushInterval = 1000;
 
     @ConfigValue("display-defaults.bossbar")
-    private boolean bossbarDefault = true;
+    boolean bossbarDefault = true;
 
     @ConfigValue("display-defaults.title")
-    private boolean titleDefault = true;
+    boolean titleDefault = true;
 
     @ConfigValue("language.default-language")
-    private String defaultLanguage = "en";
+    String defaultLanguage = "en";
 
     @ConfigValue("language.adaptive-language")
-    private boolean adaptiveLanguage = true;
+    boolean adaptiveLanguage = true;
 
     private final Sound soundUiClick;
     private final Sound soundTimerEndWarning;
@@ -96,6 +108,27 @@ public class PomodoroConfig extends AbstractConfig {
         return textDisplayOffsetY;
     }
 
+    /**
+     * Checks whether the floating timer is faked with packets instead of a real world entity.
+     *
+     * @return true if text-display.mode is "packet".
+     */
+    public boolean isPacketTextDisplay() {
+        return "packet".equalsIgnoreCase(textDisplayMode);
+    }
+
+    public int getTickShards() {
+        return Math.max(1, Math.min(20, tickShards));
+    }
+
+    public String getStorageBackend() {
+        return storageBackend.toLowerCase();
+    }
+
+    public long getFlushInterval() {
+        return Math.max(50, flushInterval);
+    }
+
     public boolean isBossbarDefault() {
         return bossbarDefault;
     }
@@ -41,6 +41,55 @@ public final class TypeConverter {
         // Private constructor to prevent instantiation
     }
 
+    /**
+     * Converts a raw object from a configuration file to a non-generic target type.
+     * Used by the generated config binders.
+     *
+     * @param value      The raw value from the configuration.
+     * @param targetType The target class of the field.
+     * @return The converted object, or null if conversion is not possible.
+     */
+    public static Object convert(Object value, Class<?> targetType) {
+        return convert(value, targetType, targetType);
+    }
+
+    /**
+     * Converts a raw list from a configuration file to a list of the given element type.
+     * Elements that cannot be converted are dropped.
+     *
+     * @param value       The raw value from the configuration.
+     * @param elementType The element class of the list.
+     * @return The converted list, or null if the value is not a list.
+     */
+    public static List<Object> toList(Object value, Class<?> elementType) {
+        if (!(value instanceof List<?> rawList)) return null;
+        return convertElements(rawList, elementType, elementType);
+    }
+
+    /**
+     * Converts a raw list from a configuration file to a set of the given element type.
+     *
+     * @param value       The raw value from the configuration.
+     * @param elementType The element class of the set.
+     * @return The converted set, or null if the value is not a list.
+     */
+    public static Set<Object> toSet(Object value, Class<?> elementType) {
+        List<Object> list = toList(value, elementType);
+        return list != null ? new HashSet<>(list) : null;
+    }
+
+    /**
+     * Converts a configuration section to a map from its keys to the given value type.
+     *
+     * @param value     The raw value from the configuration.
+     * @param valueType The value class of the map.
+     * @return The converted map, or null if the value is not a section.
+     */
+    public static Map<String, Object> toMap(Object value, Class<?> valueType) {
+        if (!(value instanceof ConfigurationSection section)) return null;
+        return convertSection(section, valueType, valueType);
+    }
+
     /**
      * Converts a raw object from a configuration file to a specific target type.
      *
@@ -78,11 +127,14 @@ public final class TypeConverter {
         }
 
         // 5. Handle complex types like Maps and Collections
+        if (!(genericType instanceof ParameterizedType parameterizedType)) {
+            return null; // Raw collection types carry no element type to convert to
+        }
         if (value instanceof ConfigurationSection && Map.class.isAssignableFrom(targetType)) {
-            return convertSectionToMap((ConfigurationSection) value, (ParameterizedType) genericType);
+            return convertSectionToMap((ConfigurationSection) value, parameterizedType);
         }
         if (value instanceof List && Collection.class.isAssignableFrom(targetType)) {
-            return convertListToCollection((List<?>) value, (ParameterizedType) genericType);
+            return convertListToCollection((List<?>) value, parameterizedType);
         }
 
         return null; // Or log a warning if conversion is not supported
@@ -109,7 +161,10 @@ public final class TypeConverter {
         Type valueGenericType = typeArguments[1];
         Class<?> valueClass = getClassFromType(valueGenericType);
         if (valueClass == null) return new HashMap<>();
+        return convertSection(section, valueClass, valueGenericType);
+    }
 
+    private static Map<String, Object> convertSection(ConfigurationSection section, Class<?> valueClass, Type valueGenericType) {
         Map<String, Object> newMap = new HashMap<>();
         for (String key : section.getKeys(false)) {
             Object rawValue = section.get(key);
@@ -129,10 +184,7 @@ public final class TypeConverter {
         Class<?> elementClass = getClassFromType(elementGenericType);
         if (elementClass == null) return new ArrayList<>();
 
-        List<Object> newList = rawList.stream()
-                .map(item -> convert(item, elementClass, elementGenericType))
-                .filter(Objects::nonNull)
-                .collect(Collectors.toList());
+        List<Object> newList = convertElements(rawList, elementClass, elementGenericType);
 
         // Support converting to a Set as well as a List
         if (Set.class.isAssignableFrom((Class<?>) collectionType.getRawType())) {
@@ -141,6 +193,13 @@ public final class TypeConverter {
         return newList;
     }
 
+    private static List<Object> convertElements(List<?> rawList, Class<?> elementClass, Type elementGenericType) {
+        return rawList.stream()
+                .map(item -> convert(item, elementClass, elementGenericType))
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+    }
+
     private static Class<?> getClassFromType(Type type) {
         if (type instanceof Class) {
             return (Class<?>) type;
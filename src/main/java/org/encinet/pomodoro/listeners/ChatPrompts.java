@@ -0,0 +1,62 @@
+package org.encinet.pomodoro.listeners;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
+
+/**
+ * The prompts waiting for a player's next chat message.
+ * <p>
+ * Prompts are set from inventory clicks and answered from the async chat thread. Checking a
+ * message and consuming the prompt it answers is one atomic step on the map, so a rejected
+ * message never has to put its prompt back: a prompt set or cleared in the meantime is never
+ * overwritten or brought back.
+ */
+final class ChatPrompts {
+    private final Map<UUID, PlayerListener.PendingInput> prompts = new ConcurrentHashMap<>();
+
+    /**
+     * Makes the player's next chat message answer a prompt, replacing any earlier prompt.
+     *
+     * @param uuid    The UUID of the prompted player.
+     * @param pending What the next message is used for.
+     */
+    void prompt(UUID uuid, PlayerListener.PendingInput pending) {
+        prompts.put(uuid, pending);
+    }
+
+    /**
+     * Answers a player's prompt with a chat message. An accepted message consumes the prompt;
+     * a rejected one leaves it waiting for the next message.
+     *
+     * @param uuid    The UUID of the player who sent the message.
+     * @param accepts Whether the message is a valid answer to the prompt. Called while the
+     *                player's entry is locked, so it must be quick and must not touch the prompts.
+     * @return The answered prompt and whether it was accepted, or null if no prompt was waiting.
+     */
+    Answer answer(UUID uuid, Predicate<PlayerListener.PendingInput> accepts) {
+        Answer[] answer = new Answer[1];
+        prompts.computeIfPresent(uuid, (k, pending) -> {
+            boolean accepted = accepts.test(pending);
+            answer[0] = new Answer(pending, accepted);
+            return accepted ? null : pending;
+        });
+        return answer[0];
+    }
+
+    /**
+     * Drops a player's prompt, if any.
+     *
+     * @param uuid The UUID of the player.
+     */
+    void clear(UUID uuid) {
+        prompts.remove(uuid);
+    }
+
+    /**
+     * @param prompt   The prompt the message answered.
+     * @param accepted Whether the message was accepted and the prompt consumed.
+     */
+    record Answer(PlayerListener.PendingInput prompt, boolean accepted) {}
+}
@@ -5,9 +5,11 @@ import org.bukkit.Location;
 import org.bukkit.Material;
 import org.bukkit.entity.Player;
 import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
 import org.bukkit.util.Vector;
 import org.bukkit.event.Listener;
 import org.bukkit.entity.Entity;
+import org.bukkit.event.player.AsyncPlayerPreLoginEvent;
 import org.bukkit.event.player.PlayerChangedWorldEvent;
 import org.bukkit.event.player.PlayerJoinEvent;
 import org.bukkit.event.player.PlayerMoveEvent;
@@ -22,22 +24,29 @@ import org.encinet.pomodoro.config.impl.PomodoroConfig;
 import org.encinet.pomodoro.config.impl.PresetConfig;
 import org.encinet.pomodoro.service.PomodoroManager;
 import org.encinet.pomodoro.service.storage.PlayerPresetManager;
+import org.encinet.pomodoro.service.storage.PlayerStatsManager;
 import org.encinet.pomodoro.service.session.PomodoroSession;
 import org.encinet.pomodoro.service.session.PomodoroState;
 import org.encinet.pomodoro.service.sound.SoundManager;
 import org.encinet.pomodoro.ui.IconSelectionUI;
 import org.encinet.pomodoro.ui.UIManager;
 
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Random;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.function.Consumer;
 
 public class PlayerListener implements Listener {
-    private final Map<UUID, String> playerInputState = new HashMap<>();
-    private final Map<UUID, Long> pullingBack = new HashMap<>();
+    private static final long PRELOAD_TIMEOUT_SECONDS = 5;
+
+    private final ChatPrompts prompts = new ChatPrompts();
+    private final Map<UUID, Long> pullingBack = new ConcurrentHashMap<>();
 
     // Service instances
     private final PomodoroManager pomodoroManager = Pomodoro.getInstance().getPomodoroManager();
@@ -45,6 +54,7 @@ public class PlayerListener implements Listener {
     private final LanguageManager languageManager = Pomodoro.getInstance().getLanguageManager();
     private final SoundManager soundManager = Pomodoro.getInstance().getSoundManager();
     private final PlayerPresetManager playerPresetManager = Pomodoro.getInstance().getPlayerPresetManager();
+    private final PlayerStatsManager playerStatsManager = Pomodoro.getInstance().getPlayerStatsManager();
     private final UIManager uiManager = Pomodoro.getInstance().getUiManager();
 
     @EventHandler
@@ -57,13 +67,13 @@ public class PlayerListener implements Listener {
 
         // Move TextDisplay with the player
        if (session.getTextDisplay() != null && !event.getFrom().toVector().equals(event.getTo().toVector())) {
-           PomodoroConfig config = configManager.getConfig(PomodoroConfig.class);
+           PomodoroConfig config = configManager.getPomodoroConfig();
            session.getTextDisplay().teleport(event.getTo().clone().add(0, config.getTextDisplayOffsetY(), 0));
        }
 
         // Handle movement restrictions
         if (session.getState() == PomodoroState.WORK) {
-            PomodoroConfig config = configManager.getConfig(PomodoroConfig.class);
+            PomodoroConfig config = configManager.getPomodoroConfig();
             if (config.isRestrictMovement()) {
                 if (!event.getFrom().toVector().equals(event.getTo().toVector())) {
                     event.setCancelled(true);
@@ -82,7 +92,7 @@ public class PlayerListener implements Listener {
                 PomodoroSession session = pomodoroManager.getSession(player);
                 if (session != null) {
                     if (session.getTextDisplay() != null) {
-                        PomodoroConfig config = configManager.getConfig(PomodoroConfig.class);
+                        PomodoroConfig config = configManager.getPomodoroConfig();
                         session.getTextDisplay().teleport(player.getLocation().add(0, config.getTextDisplayOffsetY(), 0));
                     }
                     if (session.getState() == PomodoroState.WORK) {
@@ -126,13 +136,14 @@ public class PlayerListener implements Listener {
 
         UUID playerUUID = player.getUniqueId();
         if (pomodoroManager.isLocationTooFar(session, destination)) {
+            PomodoroConfig config = configManager.getPomodoroConfig();
             long startTime = pullingBack.computeIfAbsent(playerUUID, k -> {
                 languageManager.sendActionBar(player, "moved_too_far");
                 soundManager.playLeaveWarningSound(player);
+                schedulePullBackDeadline(player, config.getPullBackDelay());
                 return System.currentTimeMillis();
             });
 
-            PomodoroConfig config = configManager.getConfig(PomodoroConfig.class);
             if (System.currentTimeMillis() - startTime > config.getPullBackDelay()) {
                 action.accept(session);
                 pullingBack.remove(playerUUID);
@@ -144,6 +155,28 @@ public class PlayerListener implements Listener {
         }
     }
 
+    /**
+     * Schedules the pull-back deadline as a one-off event, so a player who stops moving
+     * outside the allowed area is still returned without polling every session.
+     *
+     * @param player      The player being pulled back.
+     * @param delayMillis The pull-back delay from the configuration.
+     */
+    private void schedulePullBackDeadline(Player player, long delayMillis) {
+        long delayTicks = Math.max(1L, (delayMillis + 49) / 50 + 1);
+        player.getScheduler().runDelayed(Pomodoro.getInstance(), task -> {
+            PomodoroSession session = pomodoroManager.getSession(player);
+            if (!pullingBack.containsKey(player.getUniqueId())) {
+                return; // Already returned on their own or handled by a move event
+            }
+            if (session != null && session.getState() == PomodoroState.WORK
+                    && pomodoroManager.isLocationTooFar(session, player.getLocation())) {
+                player.teleport(session.getStartLocation());
+            }
+            pullingBack.remove(player.getUniqueId());
+        }, null, delayTicks);
+    }
+
     private void pullPlayerBack(Player player, Location start, Location current) {
         if (!current.getWorld().getUID().equals(start.getWorld().getUID())) {
             player.teleport(start);
@@ -168,78 +201,100 @@ public class PlayerListener implements Listener {
         player.setVelocity(velocity);
     }
 
+    /**
+     * Consumes a chat message as preset input when the player was prompted for one.
+     * <p>
+     * Runs on the async chat thread. The input is validated here, and the prompt is consumed
+     * in the same atomic step only if the input is valid, so each prompt is answered by exactly
+     * one message. Only valid input makes one hop to the player's thread, where the preset is
+     * changed and the menu reopened.
+     */
     @EventHandler
     public void onPlayerChat(AsyncChatEvent event) {
         Player player = event.getPlayer();
-        UUID playerUUID = player.getUniqueId();
+        String input = event.signedMessage().message();
+        ChatPrompts.Answer answer = prompts.answer(player.getUniqueId(), pending -> accepts(pending, input));
 
-        if (playerInputState.containsKey(playerUUID)) {
-            event.setCancelled(true);
-            String state = playerInputState.remove(playerUUID);
-            String input = event.signedMessage().message();
-            handleChatInput(player, state, input);
-        } else {
+        if (answer == null) {
             handleWorkChat(player, event);
+            return;
+        }
+        event.setCancelled(true);
+        if (!answer.accepted()) {
+            // The prompt stays, so the next message is another attempt
+            player.sendMessage(languageManager.getMessage(player, "messages.invalid_preset_name"));
+            return;
+        }
+        PendingInput pending = answer.prompt();
+        switch (pending.type()) {
+            case CREATE -> handleCreatePreset(player, input);
+            case RENAME -> handleRenamePreset(player, pending, input);
+            case REICON -> handleReiconPreset(player, pending, input);
         }
     }
 
-    private void handleChatInput(Player player, String state, String input) {
-        if (state.startsWith("create")) {
-            handleCreatePreset(player, input);
-        } else if (state.startsWith("rename:")) {
-            handleRenamePreset(player, state, input);
-        } else if (state.startsWith("reicon:")) {
-            handleReiconPreset(player, state, input);
-        }
+    /**
+     * Checks whether a message answers a prompt. Invalid icon names still consume the prompt,
+     * as they are answered by reopening the icon menu.
+     */
+    private static boolean accepts(PendingInput pending, String input) {
+        return pending.type() == PendingInput.Type.REICON || PlayerPresetManager.isValidPresetName(input);
     }
 
     private void handleCreatePreset(Player player, String input) {
-        if (!PlayerPresetManager.isValidPresetName(input)) {
-            player.sendMessage(languageManager.getMessage(player, "messages.invalid_preset_name"));
-            setPlayerInputState(player.getUniqueId(), "create"); // Re-prompt
-            return;
-        }
         String key = input.toLowerCase().replace(" ", "_");
-        PresetConfig.Preset defaultPreset = configManager.getConfig(PresetConfig.class).getTemplatePreset();
         List<Material> icons = IconSelectionUI.getCommonIcons();
-        String icon = icons.get(new Random().nextInt(icons.size())).toString();
-        playerPresetManager.addPlayerPreset(player, key, input, icon,
-                defaultPreset.work(), defaultPreset.breakTime(), defaultPreset.longBreak(),
-                defaultPreset.sessions());
-        player.sendMessage(languageManager.getMessage(player, "messages.preset_created", Map.of("preset_name", input)));
-        uiManager.openPresetMainUI(player);
+        String icon = icons.get(ThreadLocalRandom.current().nextInt(icons.size())).toString();
+        runOnPlayer(player, () -> {
+            PresetConfig.Preset defaultPreset = configManager.getPresetConfig().getTemplatePreset();
+            playerPresetManager.addPlayerPreset(player, key, input, icon,
+                    defaultPreset.work(), defaultPreset.breakTime(), defaultPreset.longBreak(),
+                    defaultPreset.sessions());
+            player.sendMessage(languageManager.getMessage(player, "messages.preset_created", Map.of("preset_name", input)));
+            uiManager.openPresetMainUI(player);
+        });
     }
 
-    private void handleRenamePreset(Player player, String state, String input) {
-        if (!PlayerPresetManager.isValidPresetName(input)) {
-            player.sendMessage(languageManager.getMessage(player, "messages.invalid_preset_name"));
-            setPlayerInputState(player.getUniqueId(), state); // Re-prompt with the same state
-            return;
-        }
-        String key = state.split(":")[1];
-        String oldName = playerPresetManager.getPlayerPresets(player).get(key).name();
-        playerPresetManager.renamePlayerPreset(player, key, input);
-        player.sendMessage(languageManager.getMessage(player, "messages.preset_renamed",
-                Map.of("old_name", oldName, "new_name", input)));
-        uiManager.openPresetEditingUI(player, key);
+    private void handleRenamePreset(Player player, PendingInput pending, String input) {
+        String key = pending.presetKey();
+        runOnPlayer(player, () -> {
+            PresetConfig.Preset preset = playerPresetManager.getPlayerPresets(player).get(key);
+            if (preset == null) {
+                return; // Deleted while the player was typing
+            }
+            playerPresetManager.renamePlayerPreset(player, key, input);
+            player.sendMessage(languageManager.getMessage(player, "messages.preset_renamed",
+                    Map.of("old_name", preset.name(), "new_name", input)));
+            uiManager.openPresetEditingUI(player, key);
+        });
     }
 
-    private void handleReiconPreset(Player player, String state, String input) {
-        String key = state.split(":")[1];
-        PresetConfig.Preset preset = playerPresetManager.getPlayerPresets(player).get(key);
-        boolean success = playerPresetManager.updatePlayerPresetIcon(player, key, input, preset.enchanted());
-        if (success) {
-            uiManager.openIconSelectionUI(player, key);
-        } else {
+    private void handleReiconPreset(Player player, PendingInput pending, String input) {
+        String key = pending.presetKey();
+        Material material = Material.getMaterial(input.toUpperCase());
+        if (material == null || !material.isItem()) {
             player.sendMessage(languageManager.getMessage(player, "messages.invalid_icon"));
-            uiManager.openIconSelectionUI(player, key);
+            runOnPlayer(player, () -> uiManager.openIconSelectionUI(player, key));
+            return;
         }
+        runOnPlayer(player, () -> {
+            PresetConfig.Preset preset = playerPresetManager.getPlayerPresets(player).get(key);
+            if (preset != null) {
+                playerPresetManager.updatePlayerPresetIcon(player, key, input, preset.enchanted());
+            }
+            uiManager.openIconSelectionUI(player, key);
+        });
+    }
+
+    private void runOnPlayer(Player player, Runnable action) {
+        player.getScheduler().run(Pomodoro.getInstance(), task -> action.run(), null);
     }
 
     private void handleWorkChat(Player player, AsyncChatEvent event) {
+        // Runs on the async chat thread: read the published snapshot, never the live session
         PomodoroSession session = pomodoroManager.getSession(player);
-        if (session != null && session.getState() == PomodoroState.WORK) {
-            PomodoroConfig config = configManager.getConfig(PomodoroConfig.class);
+        if (session != null && session.getSnapshot().state() == PomodoroState.WORK) {
+            PomodoroConfig config = configManager.getPomodoroConfig();
             if (!config.isAllowChat()) {
                 event.setCancelled(true);
                 player.sendMessage(languageManager.getMessage(player, "messages.cant_chat"));
@@ -251,21 +306,77 @@ public class PlayerListener implements Listener {
     public void onPlayerQuit(PlayerQuitEvent event) {
         Player player = event.getPlayer();
         pomodoroManager.stop(player);
-        playerPresetManager.savePlayerPresets(player.getUniqueId(), playerPresetManager.getPlayerPresets(player));
+        prompts.clear(player.getUniqueId());
+        // Only presets the player changed are written, in one flush shared by everyone quitting this tick
+        playerPresetManager.persistDirty(player.getUniqueId());
         playerPresetManager.clearPlayerCache(player.getUniqueId());
+        playerStatsManager.clearPlayerCache(player.getUniqueId());
+        Pomodoro.getInstance().getDatabaseManager().requestFlush();
+    }
+
+    /**
+     * Warms a player's presets and statistics on the pre-login thread, so the join itself never
+     * waits for the database. Runs last, and only for logins that are still allowed.
+     * If the load is slow or fails, the join falls back to loading lazily.
+     */
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onAsyncPlayerPreLogin(AsyncPlayerPreLoginEvent event) {
+        if (event.getLoginResult() != AsyncPlayerPreLoginEvent.Result.ALLOWED) {
+            return;
+        }
+        UUID uuid = event.getUniqueId();
+        try {
+            CompletableFuture.allOf(playerPresetManager.preload(uuid), playerStatsManager.preload(uuid))
+                    .get(PRELOAD_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException | TimeoutException e) {
+            Pomodoro.getInstance().getLogger().fine("Preload for " + uuid + " did not finish; loading on join instead.");
+        }
     }
 
     @EventHandler
     public void onPlayerJoin(PlayerJoinEvent event) {
         playerPresetManager.loadPlayerPresets(event.getPlayer());
+        playerStatsManager.loadPlayerStats(event.getPlayer());
     }
 
-    public void setPlayerInputState(UUID uuid, String state) {
-        playerInputState.put(uuid, state);
+    /**
+     * Makes the player's next chat message answer a prompt, replacing any earlier prompt.
+     *
+     * @param uuid    The UUID of the prompted player.
+     * @param pending What the next message is used for.
+     */
+    public void setPlayerInputState(UUID uuid, PendingInput pending) {
+        prompts.prompt(uuid, pending);
     }
 
     @EventHandler
     public void onPlayerRespawn(PlayerRespawnEvent event) {
         pomodoroManager.stop(event.getPlayer());
     }
+
+    /**
+     * A prompt waiting for the player's next chat message.
+     *
+     * @param type      What the message is used for.
+     * @param presetKey The preset being renamed or re-iconed, or null when creating one.
+     */
+    public record PendingInput(Type type, String presetKey) {
+        public enum Type {
+            CREATE, RENAME, REICON
+        }
+
+        public static PendingInput create() {
+            return new PendingInput(Type.CREATE, null);
+        }
+
+        public static PendingInput rename(String presetKey) {
+            return new PendingInput(Type.RENAME, presetKey);
+        }
+
+        public static PendingInput reicon(String presetKey) {
+            return new PendingInput(Type.REICON, presetKey);
+        }
+    }
 }
@@ -12,6 +12,7 @@ import org.bukkit.persistence.PersistentDataType;
 import org.encinet.pomodoro.Pomodoro;
 import org.encinet.pomodoro.config.LanguageManager;
 import org.encinet.pomodoro.config.impl.PresetConfig;
+import org.encinet.pomodoro.service.leaderboard.LeaderboardManager;
 import org.encinet.pomodoro.service.session.PomodoroSession;
 import org.encinet.pomodoro.service.storage.PlayerPresetManager;
 
@@ -34,6 +35,7 @@ public class UIListener implements Listener {
         String editTitlePrefix = miniMessage.serialize(languageManager.getMessage(player, "ui.edit.title", Map.of("preset_name", ""))).split(":")[0];
         String iconTitlePrefix = miniMessage.serialize(languageManager.getMessage(player, "ui.icon_selection.title", Map.of("preset_name", ""))).split(":")[0];
         String workCompletedTitle = miniMessage.serialize(languageManager.getMessage(player, "ui.work_completed.title"));
+        String leaderboardTitlePrefix = miniMessage.serialize(languageManager.getMessage(player, "ui.leaderboard.title", Map.of("period", ""))).split(":")[0];
 
         // Determine which UI is open
         if (title.equals(mainTitle)) {
@@ -51,6 +53,9 @@ public class UIListener implements Listener {
         } else if (title.equals(workCompletedTitle)) {
             event.setCancelled(true);
             handleWorkCompletedClick(event);
+        } else if (title.startsWith(leaderboardTitlePrefix)) {
+            event.setCancelled(true);
+            handleLeaderboardClick(event);
         }
     }
 
@@ -113,10 +118,14 @@ public class UIListener implements Listener {
         LanguageManager languageManager = Pomodoro.getInstance().getLanguageManager();
 
         if (slot == 49) { // Create New Preset
-            Pomodoro.getInstance().getPlayerListener().setPlayerInputState(player.getUniqueId(), "create");
+            Pomodoro.getInstance().getPlayerListener().setPlayerInputState(player.getUniqueId(),
+                    PlayerListener.PendingInput.create());
             player.closeInventory();
             player.sendMessage(languageManager.getMessage(player, "messages.enter_preset_name"));
             Pomodoro.getInstance().getSoundManager().playClickSound(player);
+        } else if (slot == 50) { // Leaderboard
+            Pomodoro.getInstance().getSoundManager().playClickSound(player);
+            Pomodoro.getInstance().getUiManager().openLeaderboardUI(player, LeaderboardManager.Period.ALL);
         } else if (slot >= 0 && slot < 45) { // Player Presets
             ItemStack clickedItem = event.getCurrentItem();
             if (clickedItem == null || !clickedItem.hasItemMeta()) {
@@ -143,7 +152,7 @@ public class UIListener implements Listener {
             }
 
             if (event.isLeftClick()) {
-                Pomodoro.getInstance().getPomodoroManager().start(player, preset);
+                Pomodoro.getInstance().getPomodoroManager().start(player, presetKey, preset);
                 player.closeInventory();
                 Pomodoro.getInstance().getSoundManager().playSuccessSound(player);
             } else if (event.isRightClick()) {
@@ -218,7 +227,7 @@ public class UIListener implements Listener {
             case "rename":
                 player.closeInventory();
                 Pomodoro.getInstance().getPlayerListener().setPlayerInputState(player.getUniqueId(),
-                        "rename:" + presetKey);
+                        PlayerListener.PendingInput.rename(presetKey));
                 player.sendMessage(Pomodoro.getInstance().getLanguageManager().getMessage(player,
                         "messages.enter_new_preset_name"));
                 Pomodoro.getInstance().getSoundManager().playClickSound(player);
@@ -309,7 +318,7 @@ public class UIListener implements Listener {
             case "custom_icon":
                 player.closeInventory();
                 Pomodoro.getInstance().getPlayerListener().setPlayerInputState(player.getUniqueId(),
-                        "reicon:" + presetKey);
+                        PlayerListener.PendingInput.reicon(presetKey));
                 player.sendMessage(Pomodoro.getInstance().getLanguageManager().getMessage(player,
                         "messages.enter_new_icon_name"));
                 Pomodoro.getInstance().getSoundManager().playClickSound(player);
@@ -320,4 +329,27 @@ public class UIListener implements Listener {
                 break;
         }
     }
-}
\ No newline at end of file
+
+    private void handleLeaderboardClick(InventoryClickEvent event) {
+        Player player = (Player) event.getWhoClicked();
+        ItemStack clickedItem = event.getCurrentItem();
+        if (clickedItem == null || !clickedItem.hasItemMeta())
+            return;
+
+        String action = clickedItem.getItemMeta().getPersistentDataContainer().get(
+                new NamespacedKey(Pomodoro.getInstance(), "pomodoro_action"),
+                PersistentDataType.STRING);
+        if (action == null)
+            return;
+
+        if (action.equals("back")) {
+            Pomodoro.getInstance().getUiManager().openPresetMainUI(player);
+            Pomodoro.getInstance().getSoundManager().playBackSound(player);
+        } else if (action.startsWith("period:")) {
+            LeaderboardManager.Period period = LeaderboardManager.Period.valueOf(
+                    action.substring("period:".length()).toUpperCase());
+            Pomodoro.getInstance().getSoundManager().playClickSound(player);
+            Pomodoro.getInstance().getUiManager().openLeaderboardUI(player, period);
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package org.encinet.pomodoro.service;
+
+import java.util.Map;
+
+/**
+ * One line of the {@code /pomodoro metrics} report, rendered from the language files.
+ *
+ * @param key          The key of the line's message under {@code admin.metrics}.
+ * @param placeholders The formatted value of each placeholder of the message.
+ */
+public record MetricLine(String key, Map<String, String> placeholders) {}
@@ -1,5 +1,6 @@
 package org.encinet.pomodoro.service;
 
+import io.papermc.paper.threadedregions.scheduler.ScheduledTask;
 import org.bukkit.Bukkit;
 import org.bukkit.Location;
 import org.bukkit.boss.BarColor;
@@ -8,40 +9,51 @@ import org.bukkit.boss.BossBar;
 import org.bukkit.entity.Player;
 import org.bukkit.entity.TextDisplay;
 import org.bukkit.entity.Display.Billboard;
-import org.bukkit.scheduler.BukkitRunnable;
 import org.encinet.pomodoro.Pomodoro;
+import org.encinet.pomodoro.config.ConfigManager;
 import org.encinet.pomodoro.config.impl.PomodoroConfig;
 import org.encinet.pomodoro.config.impl.PresetConfig;
+import org.encinet.pomodoro.service.display.VirtualTextDisplay;
 import org.encinet.pomodoro.service.session.PomodoroSession;
 import org.encinet.pomodoro.service.session.PomodoroState;
+import org.encinet.pomodoro.service.session.SessionRegistry;
+import org.encinet.pomodoro.service.storage.SessionRecord;
 import org.encinet.pomodoro.ui.TimerUI;
+import org.encinet.pomodoro.ui.WorkCompletedUI;
 
-import java.util.HashMap;
 import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.TimeUnit;
 
+/**
+ * Owns all running Pomodoro sessions.
+ * <p>
+ * Each session is driven by its owner's entity scheduler, so on Folia the work runs on
+ * the region thread that owns the player, and on Paper (which implements the same
+ * scheduler API on the main thread) it behaves like regular scheduled tasks.
+ * Two kinds of task exist per session: a delayed task for the session's next timed event
+ * (warning window, deadline), so transitions only touch sessions that are due, and a
+ * repeating display refresh. The registry is written from several region threads at once
+ * and read from Netty and the async chat thread, see {@link SessionRegistry}.
+ */
 public class PomodoroManager {
-    private final Map<UUID, PomodoroSession> sessions = new HashMap<>();
+    private static final long REFRESH_PERIOD = 20L;
+    private static final long NANOS_PER_TICK = TimeUnit.MILLISECONDS.toNanos(50);
+
+    private final SessionRegistry sessions = new SessionRegistry();
     private final PomodoroVisuals visuals;
+    private final TickMetrics tickMetrics = new TickMetrics();
+    private final TextDisplayIndex textDisplayIndex = new TextDisplayIndex();
+    private final TextDisplayIndex passengerIndex = new TextDisplayIndex();
+    private final ConfigManager configManager = Pomodoro.getInstance().getConfigManager();
 
     public PomodoroManager() {
         this.visuals = new PomodoroVisuals(this);
-        new BukkitRunnable() {
-            @Override
-            public void run() {
-                for (Map.Entry<UUID, PomodoroSession> entry : sessions.entrySet()) {
-                    Player player = Bukkit.getPlayer(entry.getKey());
-                    if (player != null) {
-                        tick(player);
-                    }
-                }
-            }
-        }.runTaskTimer(Pomodoro.getInstance(), 0L, 20L);
     }
 
-    public void start(Player player, PresetConfig.Preset preset) {
+    public void start(Player player, String presetKey, PresetConfig.Preset preset) {
         stop(player); // Stop any existing session
-        PomodoroSession session = new PomodoroSession(preset);
+        PomodoroSession session = new PomodoroSession(presetKey, preset);
         session.setStartLocation(player.getLocation());
 
         // Create BossBar
@@ -50,24 +62,92 @@ public class PomodoroManager {
         session.setBossBar(bossBar);
 
         // Create TextDisplay
-        PomodoroConfig pomodoroConfig = Pomodoro.getInstance().getConfigManager().getConfig(PomodoroConfig.class);
-
-        TextDisplay textDisplay = player.getWorld().spawn(player.getLocation().add(0, pomodoroConfig.getTextDisplayOffsetY(), 0), TextDisplay.class, display -> {
-            display.setBillboard(Billboard.CENTER);
-            display.setTeleportDuration(0);
-        });
-        // Hide the TextDisplay from the player so they can interact with blocks
-        player.hideEntity(Pomodoro.getInstance(), textDisplay);
-        session.setTextDisplay(textDisplay);
-
-        sessions.put(player.getUniqueId(), session);
-        session.setState(PomodoroState.WORK, player); // This will trigger onEnter and all necessary updates
+        PomodoroConfig pomodoroConfig = configManager.getPomodoroConfig();
+
+        if (pomodoroConfig.isPacketTextDisplay()) {
+            // Client-side only; the owner never receives it, so it cannot block their interactions
+            session.setVirtualTextDisplay(new VirtualTextDisplay(player, pomodoroConfig.getTextDisplayOffsetY()));
+            passengerIndex.put(player.getEntityId(), session);
+        } else {
+            TextDisplay textDisplay = player.getWorld().spawn(player.getLocation().add(0, pomodoroConfig.getTextDisplayOffsetY(), 0), TextDisplay.class, display -> {
+                display.setBillboard(Billboard.CENTER);
+                display.setTeleportDuration(0);
+            });
+            // Hide the TextDisplay from the player so they can interact with blocks
+            player.hideEntity(Pomodoro.getInstance(), textDisplay);
+            session.setTextDisplay(textDisplay);
+            textDisplayIndex.put(textDisplay.getEntityId(), session);
+        }
+
+        // Enter WORK before registering, so no other thread finds the session still STOPPED
+        session.setState(PomodoroState.WORK, player); // This will trigger onEnter
+        sessions.register(player.getUniqueId(), session);
+        // setState skipped these while the session was not registered yet
+        scheduleNextEvent(player, session);
+        TimerUI.update(player, this);
+        player.updateCommands();
         visuals.update(player);
+        scheduleRefresh(player, session);
+    }
+
+    /**
+     * Schedules the repeating display refresh for a session on the owner's entity scheduler.
+     * Sessions are assigned to a shard by UUID hash, and each shard refreshes on its own tick
+     * of the second, so the work is spread out instead of landing on one tick.
+     * If the player entity is retired (e.g. they log out) the session is dropped from the registry.
+     *
+     * @param player  The owner of the session.
+     * @param session The session to refresh.
+     */
+    private void scheduleRefresh(Player player, PomodoroSession session) {
+        UUID uuid = player.getUniqueId();
+        int shards = configManager.getPomodoroConfig().getTickShards();
+        long shardOffset = Math.floorMod(uuid.hashCode(), shards) * (REFRESH_PERIOD / shards);
+        ScheduledTask task = player.getScheduler().runAtFixedRate(Pomodoro.getInstance(),
+                scheduledTask -> refresh(player, session, scheduledTask),
+                () -> unregister(uuid, session),
+                REFRESH_PERIOD + shardOffset, REFRESH_PERIOD);
+        if (task == null) {
+            // The player was removed before the task could be scheduled
+            unregister(uuid, session);
+            return;
+        }
+        session.setRefreshTask(task);
+    }
+
+    private void unregister(UUID uuid, PomodoroSession session) {
+        if (sessions.remove(uuid, session)) {
+            unindexDisplay(session);
+            if (session.getVirtualTextDisplay() != null) {
+                session.getVirtualTextDisplay().destroy();
+            }
+        }
+    }
+
+    private void unindexDisplay(PomodoroSession session) {
+        if (session.getTextDisplay() != null) {
+            textDisplayIndex.remove(session.getTextDisplay().getEntityId());
+        }
+        if (session.getVirtualTextDisplay() != null) {
+            passengerIndex.remove(session.getVirtualTextDisplay().getOwner().getEntityId());
+        }
     }
 
     public void stop(Player player) {
         PomodoroSession session = sessions.remove(player.getUniqueId());
         if (session != null) {
+            unindexDisplay(session);
+            ScheduledTask task = session.getRefreshTask();
+            if (task != null) {
+                task.cancel();
+                session.setRefreshTask(null);
+            }
+            if (session.getState() == PomodoroState.WORK
+                    || (session.getState() == PomodoroState.PAUSED && session.getPreviousState() == PomodoroState.WORK)) {
+                Pomodoro.getInstance().getPlayerStatsManager().recordWorkSession(
+                        session.createWorkRecord(player.getUniqueId(), SessionRecord.Outcome.STOPPED));
+            }
+            // Only now that it is unregistered may the session publish its STOPPED snapshot
             session.setState(PomodoroState.STOPPED, player);
         }
     }
@@ -76,6 +156,10 @@ public class PomodoroManager {
         PomodoroSession session = getSession(player);
         if (session != null && (session.getState() == PomodoroState.WORK || session.getState() == PomodoroState.BREAK || session.getState() == PomodoroState.LONG_BREAK)) {
             session.setPreviousState(session.getState());
+            if (session.getState() == PomodoroState.WORK) {
+                session.countWorkPause();
+            }
+            session.pauseCountdown();
             session.setState(PomodoroState.PAUSED, player);
         }
     }
@@ -89,6 +173,7 @@ public class PomodoroManager {
                 Pomodoro.getInstance().getSoundManager().playLeaveWarningSound(player);
                 player.teleport(session.getStartLocation());
             }
+            session.resumeCountdown();
             session.setState(session.getPreviousState(), player, true);
         }
     }
@@ -105,25 +190,69 @@ public class PomodoroManager {
         }
     }
 
-    private void tick(Player player) {
-        PomodoroSession session = getSession(player);
-        if (session == null) {
+    /**
+     * Replaces the pending timed event of a session with one for its current state.
+     * Called whenever the session changes state; the delay is derived from the state's
+     * next deadline, and a late run is harmless because handlers check the deadline itself.
+     *
+     * @param player  The owner of the session.
+     * @param session The session whose event should be scheduled.
+     */
+    public void scheduleNextEvent(Player player, PomodoroSession session) {
+        ScheduledTask previous = session.getEventTask();
+        if (previous != null) {
+            previous.cancel();
+            session.setEventTask(null);
+        }
+        if (!sessions.isCurrent(player.getUniqueId(), session)) {
+            return;
+        }
+
+        long nextEvent = session.getState().getHandler().getNextEventNanos(session);
+        if (nextEvent == PomodoroSession.NO_EVENT) {
             return;
         }
+        long delayNanos = nextEvent - System.nanoTime();
+        long delayTicks = Math.max(1L, (delayNanos + NANOS_PER_TICK - 1) / NANOS_PER_TICK);
+        session.setEventTask(player.getScheduler().runDelayed(Pomodoro.getInstance(),
+                task -> fireEvent(player, session), null, delayTicks));
+    }
 
+    private void fireEvent(Player player, PomodoroSession session) {
+        if (!sessions.isCurrent(player.getUniqueId(), session)) {
+            return;
+        }
+        session.setEventTask(null);
         session.tick(player);
+        // A state change inside tick has already scheduled the next event
+        if (session.getEventTask() == null) {
+            scheduleNextEvent(player, session);
+        }
+    }
+
+    private void refresh(Player player, PomodoroSession session, ScheduledTask task) {
+        if (!sessions.isCurrent(player.getUniqueId(), session)) {
+            // The session was stopped or replaced; this task is stale.
+            task.cancel();
+            return;
+        }
+        long start = System.nanoTime();
+        session.publishSnapshot();
 
         // Teleport TextDisplay
         TextDisplay textDisplay = session.getTextDisplay();
         if (textDisplay != null) {
-            PomodoroConfig config = Pomodoro.getInstance().getConfigManager().getConfig(PomodoroConfig.class);
+            PomodoroConfig config = configManager.getPomodoroConfig();
             textDisplay.teleport(player.getLocation().add(0, config.getTextDisplayOffsetY(), 0));
         }
 
         visuals.update(player);
         if (session.getState() != PomodoroState.WORK_COMPLETED) {
             TimerUI.update(player, this);
+        } else {
+            WorkCompletedUI.update(player);
         }
+        tickMetrics.record(Bukkit.getCurrentTick(), System.nanoTime() - start);
     }
 
     public PomodoroSession getSession(Player player) {
@@ -131,13 +260,30 @@ public class PomodoroManager {
     }
 
     public Map<UUID, PomodoroSession> getSessions() {
-        return sessions;
+        return sessions.asMap();
     }
 
     public PomodoroVisuals getVisuals() {
         return visuals;
     }
 
+    public TextDisplayIndex getTextDisplayIndex() {
+        return textDisplayIndex;
+    }
+
+    /**
+     * Gets the index of players carrying a virtual text display, keyed by the player's entity ID.
+     *
+     * @return The passenger index.
+     */
+    public TextDisplayIndex getPassengerIndex() {
+        return passengerIndex;
+    }
+
+    public TickMetrics getTickMetrics() {
+        return tickMetrics;
+    }
+
     /**
      * Checks if a player is too far from their Pomodoro start location during a WORK session.
      *
@@ -162,7 +308,7 @@ public class PomodoroManager {
      */
     public boolean isLocationTooFar(PomodoroSession session, Location location) {
         if (session == null) return false;
-        PomodoroConfig config = Pomodoro.getInstance().getConfigManager().getConfig(PomodoroConfig.class);
+        PomodoroConfig config = configManager.getPomodoroConfig();
         Location startLocation = session.getStartLocation();
         if (!location.getWorld().getUID().equals(startLocation.getWorld().getUID())) {
             return true;
@@ -3,86 +3,105 @@ package org.encinet.pomodoro.service;
 import com.github.retrooper.packetevents.PacketEvents;
 import com.github.retrooper.packetevents.event.PacketListenerAbstract;
 import com.github.retrooper.packetevents.event.PacketSendEvent;
+import com.github.retrooper.packetevents.netty.buffer.ByteBufHelper;
 import com.github.retrooper.packetevents.protocol.entity.data.EntityData;
 import com.github.retrooper.packetevents.protocol.packettype.PacketType;
+import com.github.retrooper.packetevents.wrapper.play.server.WrapperPlayServerDestroyEntities;
 import com.github.retrooper.packetevents.wrapper.play.server.WrapperPlayServerEntityMetadata;
+import com.github.retrooper.packetevents.wrapper.play.server.WrapperPlayServerSetPassengers;
 import net.kyori.adventure.text.Component;
-import net.kyori.adventure.text.serializer.legacy.LegacyComponentSerializer;
 import net.kyori.adventure.title.Title;
+import org.bukkit.boss.BarColor;
 import org.bukkit.boss.BossBar;
 
 import java.time.Duration;
 import org.bukkit.entity.Player;
 import org.bukkit.entity.TextDisplay;
 import org.encinet.pomodoro.Pomodoro;
-import org.encinet.pomodoro.config.LanguageManager;
+import org.encinet.pomodoro.config.ConfigManager;
 import org.encinet.pomodoro.config.impl.PomodoroConfig;
+import org.encinet.pomodoro.service.display.VirtualTextDisplay;
 import org.encinet.pomodoro.service.session.PomodoroSession;
 import org.encinet.pomodoro.service.session.PomodoroState;
+import org.encinet.pomodoro.service.session.SentVisualState;
+import org.encinet.pomodoro.service.session.SessionSnapshot;
 
+import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
-import java.util.Optional;
+import java.util.concurrent.atomic.LongAdder;
 
 public class PomodoroVisuals {
 
+    private static final Title.Times TITLE_TIMES = Title.Times.times(Duration.ZERO, Duration.ofSeconds(2), Duration.ofSeconds(1));
+
     private final PomodoroManager pomodoroManager;
+    private final RenderCache renderCache = new RenderCache();
+    private final LongAdder sentUpdates = new LongAdder();
+    private final LongAdder suppressedUpdates = new LongAdder();
+    private final ConfigManager configManager = Pomodoro.getInstance().getConfigManager();
 
     public PomodoroVisuals(PomodoroManager pomodoroManager) {
         this.pomodoroManager = pomodoroManager;
         PacketEvents.getAPI().getEventManager().registerListener(new TextDisplayPacketListener());
     }
 
+    /**
+     * Renders the session's visuals for its owner. Every output is compared with what was
+     * last sent to the owner, and only changed values go out to the client.
+     *
+     * @param player The owner of the session.
+     */
     public void update(Player player) {
         PomodoroSession session = pomodoroManager.getSession(player);
         if (session == null)
             return;
 
-        if (session.isBossbarEnabled()) {
-            if (session.getBossBar() != null) {
-                session.getBossBar().setVisible(true);
+        // One shared frame feeds the boss bar, the title and the text display
+        RenderCache.Frame frame = renderCache.get(player.locale().toString(), session.getSnapshot());
+        SentVisualState sent = session.getSentVisualState();
+
+        BossBar bossBar = session.getBossBar();
+        if (bossBar != null) {
+            boolean visible = session.isBossbarEnabled();
+            if (count(sent.bossBarVisibleChanged(visible))) {
+                bossBar.setVisible(visible);
             }
-            updateBossBar(player, session);
-        } else {
-            if (session.getBossBar() != null) {
-                session.getBossBar().setVisible(false);
+            if (visible) {
+                updateBossBar(session, bossBar, sent, frame);
             }
         }
 
         if (session.isTitleEnabled()) {
-            updateTitle(player, session);
-        } else {
+            if (count(sent.titleChanged(frame.title(), frame.subtitle()))) {
+                Title title = Title.title(frame.title(), frame.subtitle(), TITLE_TIMES);
+                player.showTitle(title);
+            }
+        } else if (count(sent.titleCleared())) {
             player.clearTitle();
         }
 
-        updateTextDisplay(player, session);
-    }
+        TextDisplay textDisplay = session.getTextDisplay();
+        if (textDisplay != null && count(sent.textDisplayTextChanged(frame.textDisplay()))) {
+            textDisplay.text(frame.textDisplay());
+        }
 
-    private void updateBossBar(Player player, PomodoroSession session) {
-        int totalSeconds;
-        if (session.getState() == PomodoroState.WORK_COMPLETED) {
-            totalSeconds = session.getWorkDuration() + session.getExtraTime();
-        } else {
-            totalSeconds = session.getTimeLeft();
+        VirtualTextDisplay virtualTextDisplay = session.getVirtualTextDisplay();
+        if (virtualTextDisplay != null) {
+            SessionSnapshot snapshot = session.getSnapshot();
+            virtualTextDisplay.sync(locale -> renderCache.get(locale, snapshot).textDisplay());
         }
-        int minutes = totalSeconds / 60;
-        int seconds = totalSeconds % 60;
-        String time = String.format("%02d:%02d", minutes, seconds);
-        LanguageManager languageManager = Pomodoro.getInstance().getLanguageManager();
-        String status = languageManager.getStatusMessage(session.getState(), player);
+    }
 
-        BossBar bossBar = session.getBossBar();
-        bossBar.setTitle(LegacyComponentSerializer.legacySection()
-                .serialize(languageManager.getMessage(player, "bossbar.title", Map.of(
-                        "preset_name", session.getPreset().name(),
-                        "status", status,
-                        "current_session", String.valueOf(session.getCurrentSession()),
-                        "total_sessions", String.valueOf(session.getSessions()),
-                        "time", time))));
+    private void updateBossBar(PomodoroSession session, BossBar bossBar, SentVisualState sent, RenderCache.Frame frame) {
+        if (count(sent.bossBarTitleChanged(frame.bossBarTitle()))) {
+            bossBar.setTitle(frame.bossBarTitle());
+        }
 
-        PomodoroConfig config = Pomodoro.getInstance().getConfigManager().getConfig(PomodoroConfig.class);
+        PomodoroConfig config = configManager.getPomodoroConfig();
 
         double totalDuration;
+        BarColor color;
         PomodoroState currentState = session.getState();
         PomodoroState displayState = currentState == PomodoroState.PAUSED ? session.getPreviousState() : currentState;
 
@@ -90,23 +109,27 @@ public class PomodoroVisuals {
             case WORK:
             case WORK_COMPLETED:
                 totalDuration = session.getWorkDuration();
-                bossBar.setColor(config.getWorkColor());
+                color = config.getWorkColor();
                 break;
             case BREAK:
                 totalDuration = session.getBreakDuration();
-                bossBar.setColor(config.getBreakColor());
+                color = config.getBreakColor();
                 break;
             case LONG_BREAK:
                 totalDuration = session.getLongBreakDuration();
-                bossBar.setColor(config.getLongBreakColor());
+                color = config.getLongBreakColor();
                 break;
             default:
                 totalDuration = 1; // Avoid division by zero
+                color = bossBar.getColor();
                 break;
         }
 
         if (currentState == PomodoroState.PAUSED) {
-            bossBar.setColor(config.getPausedColor());
+            color = config.getPausedColor();
+        }
+        if (count(sent.bossBarColorChanged(color))) {
+            bossBar.setColor(color);
         }
 
         double progress;
@@ -115,118 +138,147 @@ public class PomodoroVisuals {
         } else {
             progress = (totalDuration > 0) ? (double) session.getTimeLeft() / totalDuration : 0;
         }
-        bossBar.setProgress(Math.max(0, Math.min(1, progress)));
-    }
-
-    private void updateTitle(Player player, PomodoroSession session) {
-        int totalSeconds;
-        if (session.getState() == PomodoroState.WORK_COMPLETED) {
-            totalSeconds = session.getWorkDuration() + session.getExtraTime();
-        } else {
-            totalSeconds = session.getTimeLeft();
+        progress = Math.max(0, Math.min(1, progress));
+        if (count(sent.bossBarProgressChanged(progress))) {
+            bossBar.setProgress(progress);
         }
-        int minutes = totalSeconds / 60;
-        int seconds = totalSeconds % 60;
-        String time = String.format("%02d:%02d", minutes, seconds);
-        LanguageManager languageManager = Pomodoro.getInstance().getLanguageManager();
-        String status = languageManager.getStatusMessage(session.getState(), player);
-
-        Component titleComponent = languageManager.getMessage(player, "title.title", Map.of(
-                "preset_name", session.getPreset().name()
-        ));
-        Component subtitleComponent = languageManager.getMessage(player, "title.subtitle", Map.of(
-                "status", status,
-                "current_session", String.valueOf(session.getCurrentSession()),
-                "total_sessions", String.valueOf(session.getSessions()),
-                "time", time
-        ));
-
-        Title.Times times = Title.Times.times(Duration.ZERO, Duration.ofSeconds(2), Duration.ofSeconds(1));
-        Title title = Title.title(titleComponent, subtitleComponent, times);
-        player.showTitle(title);
     }
 
-    private void updateTextDisplay(Player owner, PomodoroSession session) {
-        if (session == null)
-            return;
+    private boolean count(boolean changed) {
+        (changed ? sentUpdates : suppressedUpdates).increment();
+        return changed;
+    }
 
-        int totalSeconds;
-        if (session.getState() == PomodoroState.WORK_COMPLETED) {
-            totalSeconds = session.getWorkDuration() + session.getExtraTime();
-        } else {
-            totalSeconds = session.getTimeLeft();
-        }
-        int minutes = totalSeconds / 60;
-        int seconds = totalSeconds % 60;
-        String time = String.format("%02d:%02d", minutes, seconds);
-        LanguageManager languageManager = Pomodoro.getInstance().getLanguageManager();
-        String status = languageManager.getStatusMessage(session.getState(), owner);
+    /**
+     * Summarizes sent and suppressed visual updates for the metrics report and starts a new window.
+     *
+     * @return The report lines.
+     */
+    public List<MetricLine> describeUpdatesAndReset() {
+        long sentCount = sentUpdates.sumThenReset();
+        long suppressedCount = suppressedUpdates.sumThenReset();
+        long total = sentCount + suppressedCount;
+        return List.of(new MetricLine("visual_updates", Map.of(
+                "sent", String.valueOf(sentCount),
+                "suppressed", String.valueOf(suppressedCount),
+                "suppressed_rate", String.format("%.1f", total > 0 ? suppressedCount * 100.0 / total : 0.0))));
+    }
 
-        TextDisplay textDisplay = session.getTextDisplay();
-        if (textDisplay != null) {
-            textDisplay.text(languageManager.getMessage(owner, "text-display.format", Map.of(
-                    "preset_name", session.getPreset().name(),
-                    "status", status,
-                    "time", time)));
-        }
+    public RenderCache getRenderCache() {
+        return renderCache;
     }
 
     private class TextDisplayPacketListener extends PacketListenerAbstract {
         @Override
         public void onPacketSend(PacketSendEvent event) {
+            if (event.getPacketType() == PacketType.Play.Server.SET_PASSENGERS) {
+                onSetPassengers(event);
+                return;
+            }
+            if (event.getPacketType() == PacketType.Play.Server.DESTROY_ENTITIES) {
+                onDestroyEntities(event);
+                return;
+            }
             if (event.getPacketType() != PacketType.Play.Server.ENTITY_METADATA) {
                 return;
             }
+            // Most metadata packets belong to other entities; skip decoding entirely when idle
+            TextDisplayIndex index = pomodoroManager.getTextDisplayIndex();
+            if (index.isEmpty()) {
+                return;
+            }
+            // Only the leading entity ID is read, so other entities' packets cost one lookup
+            // and no allocation; the metadata list is decoded for Pomodoro displays alone
+            PomodoroSession session = index.get(peekEntityId(event.getByteBuf()));
+            if (session == null) {
+                return;
+            }
             if (!(event.getPlayer() instanceof Player)) {
                 return;
             }
             Player player = (Player) event.getPlayer();
 
             WrapperPlayServerEntityMetadata wrapper = new WrapperPlayServerEntityMetadata(event);
-            int entityId = wrapper.getEntityId();
-
-            PomodoroSession session = pomodoroManager.getSessions().values().stream()
-                    .filter(s -> s.getTextDisplay() != null && s.getTextDisplay().getEntityId() == entityId)
-                    .findFirst().orElse(null);
-
-            if (session == null) {
-                return;
-            }
 
             List<EntityData<?>> entityDataList = wrapper.getEntityMetadata();
-            Optional<EntityData<?>> textDataOptional = entityDataList.stream()
-                    .filter(data -> data.getIndex() == 23) // 23 is the index for the text component in TextDisplay
-                    .findFirst();
-
-            if (textDataOptional.isPresent()) {
-                int totalSeconds;
-                if (session.getState() == PomodoroState.WORK_COMPLETED) {
-                    totalSeconds = session.getWorkDuration() + session.getExtraTime();
-                } else {
-                    totalSeconds = session.getTimeLeft();
+            for (int i = 0; i < entityDataList.size(); i++) {
+                EntityData<?> originalData = entityDataList.get(i);
+                if (originalData.getIndex() != 23) { // 23 is the index for the text component in TextDisplay
+                    continue;
                 }
-                int minutes = totalSeconds / 60;
-                int seconds = totalSeconds % 60;
-                String time = String.format("%02d:%02d", minutes, seconds);
-                LanguageManager languageManager = Pomodoro.getInstance().getLanguageManager();
-                String status = languageManager.getStatusMessage(session.getState(), player);
-
-                Component translatedText = languageManager.getMessage(player, "text-display.format", Map.of(
-                        "preset_name", session.getPreset().name(),
-                        "status", status,
-                        "time", time));
-
-                EntityData<?> originalData = textDataOptional.get();
+                // Runs on a Netty thread: read the published snapshot, never the live session.
+                // Viewers sharing a locale reuse the frame already built for the owner.
+                Component translatedText = renderCache.get(player.locale().toString(), session.getSnapshot()).textDisplay();
+
                 // The value of the EntityData should be a Component, not an
                 // Optional<Component>.
                 // The PacketEvents API likely handles the Optional wrapping internally for this
                 // data type.
                 // The ClassCastException indicates that an Optional was being used where a
                 // Component was expected.
-                EntityData<?> newTextData = new EntityData(originalData.getIndex(), originalData.getType(),
-                        translatedText);
-                entityDataList.set(entityDataList.indexOf(originalData), newTextData);
+                entityDataList.set(i, new EntityData(originalData.getIndex(), originalData.getType(), translatedText));
+                event.markForReEncode(true);
+                break;
+            }
+        }
+
+        /**
+         * Reads the VarInt entity ID that starts an entity packet, leaving the reader index
+         * where it was so the packet can still be decoded or passed on untouched.
+         */
+        private static int peekEntityId(Object buffer) {
+            int readerIndex = ByteBufHelper.readerIndex(buffer);
+            int entityId = ByteBufHelper.readVarInt(buffer);
+            ByteBufHelper.readerIndex(buffer, readerIndex);
+            return entityId;
+        }
+
+        /**
+         * Keeps a virtual text display mounted when the server sends its owner's passenger list,
+         * which would otherwise replace the list on the client.
+         */
+        private void onSetPassengers(PacketSendEvent event) {
+            TextDisplayIndex index = pomodoroManager.getPassengerIndex();
+            if (index.isEmpty() || !(event.getPlayer() instanceof Player player)) {
+                return;
+            }
+            WrapperPlayServerSetPassengers wrapper = new WrapperPlayServerSetPassengers(event);
+            PomodoroSession session = index.get(wrapper.getEntityId());
+            if (session == null || session.getVirtualTextDisplay() == null
+                    || !session.getVirtualTextDisplay().isViewer(player.getUniqueId())) {
+                return;
+            }
+            wrapper.setPassengers(session.getVirtualTextDisplay().withPassengers(wrapper.getPassengers()));
+            event.markForReEncode(true);
+        }
+
+        /**
+         * Destroys a virtual text display together with its owner when a viewer stops tracking
+         * them, so it is not left floating on the client.
+         */
+        private void onDestroyEntities(PacketSendEvent event) {
+            TextDisplayIndex index = pomodoroManager.getPassengerIndex();
+            if (index.isEmpty() || !(event.getPlayer() instanceof Player player)) {
+                return;
+            }
+            WrapperPlayServerDestroyEntities wrapper = new WrapperPlayServerDestroyEntities(event);
+            int[] entityIds = wrapper.getEntityIds();
+            int[] extra = new int[entityIds.length];
+            int extraCount = 0;
+            for (int entityId : entityIds) {
+                PomodoroSession session = index.get(entityId);
+                if (session != null && session.getVirtualTextDisplay() != null
+                        && session.getVirtualTextDisplay().forgetViewer(player.getUniqueId())) {
+                    extra[extraCount++] = session.getVirtualTextDisplay().getEntityId();
+                }
+            }
+            if (extraCount == 0) {
+                return;
             }
+            int[] combined = Arrays.copyOf(entityIds, entityIds.length + extraCount);
+            System.arraycopy(extra, 0, combined, entityIds.length, extraCount);
+            wrapper.setEntityIds(combined);
+            event.markForReEncode(true);
         }
     }
 }
\ No newline at end of file
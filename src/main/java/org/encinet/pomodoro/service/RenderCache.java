@@ -0,0 +1,131 @@
+package org.encinet.pomodoro.service;
+
+import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.serializer.legacy.LegacyComponentSerializer;
+import org.encinet.pomodoro.Pomodoro;
+import org.encinet.pomodoro.config.LanguageManager;
+import org.encinet.pomodoro.service.session.PomodoroState;
+import org.encinet.pomodoro.service.session.SessionSnapshot;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Shares rendered timer components between the boss bar, the title, the text display and
+ * every viewer of the text display.
+ * <p>
+ * Everything these outputs show is determined by the viewer's locale, the session state,
+ * the preset name, the round counters and the displayed second. A frame is built once per
+ * distinct combination and reused by every session and viewer that needs it within the
+ * same second. The cache is cleared whenever the second changes, since displayed seconds
+ * move on anyway. It is safe to use from region threads and Netty threads alike.
+ */
+public class RenderCache {
+    private static final long NANOS_PER_SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    private record RenderKey(String locale, PomodoroState state, String presetName,
+                             int currentSession, int sessions, int displaySeconds) {}
+
+    /**
+     * The rendered outputs of one frame.
+     *
+     * @param time         The displayed time, formatted as mm:ss.
+     * @param status       The localized status text.
+     * @param bossBarTitle The boss bar title, serialized to legacy text.
+     * @param title        The title component.
+     * @param subtitle     The subtitle component.
+     * @param textDisplay  The floating text display component.
+     */
+    public record Frame(String time, String status, String bossBarTitle, Component title, Component subtitle,
+                        Component textDisplay) {}
+
+    private final Map<RenderKey, Frame> frames = new ConcurrentHashMap<>();
+    private volatile long epochSecond = System.nanoTime() / NANOS_PER_SECOND;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder builds = new LongAdder();
+    private volatile long windowStartNanos = System.nanoTime();
+
+    /**
+     * Gets the frame for a session snapshot as seen by a viewer with the given locale.
+     *
+     * @param locale   The viewer's locale.
+     * @param snapshot The session snapshot to render.
+     * @return The shared frame.
+     */
+    public Frame get(String locale, SessionSnapshot snapshot) {
+        long currentSecond = System.nanoTime() / NANOS_PER_SECOND;
+        if (currentSecond != epochSecond) {
+            epochSecond = currentSecond;
+            frames.clear();
+        }
+
+        RenderKey key = new RenderKey(locale, snapshot.state(), snapshot.preset().name(),
+                snapshot.currentSession(), snapshot.sessions(), snapshot.displaySeconds());
+        Frame frame = frames.get(key);
+        if (frame != null) {
+            hits.increment();
+            return frame;
+        }
+        return frames.computeIfAbsent(key, this::build);
+    }
+
+    private Frame build(RenderKey key) {
+        builds.increment();
+        LanguageManager languageManager = Pomodoro.getInstance().getLanguageManager();
+
+        int minutes = key.displaySeconds() / 60;
+        int seconds = key.displaySeconds() % 60;
+        String time = String.format("%02d:%02d", minutes, seconds);
+        String status = languageManager.getStatusMessage(key.state(), key.locale());
+        String currentSession = String.valueOf(key.currentSession());
+        String totalSessions = String.valueOf(key.sessions());
+
+        String bossBarTitle = LegacyComponentSerializer.legacySection().serialize(
+                languageManager.getTemplate("bossbar.title", key.locale()).render(Map.of(
+                        "preset_name", key.presetName(),
+                        "status", status,
+                        "current_session", currentSession,
+                        "total_sessions", totalSessions,
+                        "time", time)));
+        Component title = languageManager.getTemplate("title.title", key.locale()).render(Map.of(
+                "preset_name", key.presetName()));
+        Component subtitle = languageManager.getTemplate("title.subtitle", key.locale()).render(Map.of(
+                "status", status,
+                "current_session", currentSession,
+                "total_sessions", totalSessions,
+                "time", time));
+        Component textDisplay = languageManager.getTemplate("text-display.format", key.locale()).render(Map.of(
+                "preset_name", key.presetName(),
+                "status", status,
+                "time", time));
+        return new Frame(time, status, bossBarTitle, title, subtitle, textDisplay);
+    }
+
+    /**
+     * Summarizes the cache effectiveness for the metrics report and starts a new window.
+     *
+     * @return The report lines.
+     */
+    public List<MetricLine> describeAndReset() {
+        long hitCount = hits.sumThenReset();
+        long buildCount = builds.sumThenReset();
+        long now = System.nanoTime();
+        double seconds = Math.max(1e-9, (now - windowStartNanos) / 1e9);
+        windowStartNanos = now;
+
+        long lookups = hitCount + buildCount;
+        List<MetricLine> lines = new ArrayList<>();
+        lines.add(new MetricLine("render_cache", Map.of(
+                "lookups", String.valueOf(lookups),
+                "hits", String.valueOf(hitCount),
+                "builds", String.valueOf(buildCount),
+                "hit_rate", String.format("%.1f", lookups > 0 ? hitCount * 100.0 / lookups : 0.0),
+                "build_rate", String.format("%.1f", buildCount / seconds))));
+        return lines;
+    }
+}
@@ -0,0 +1,85 @@
+package org.encinet.pomodoro.service;
+
+import org.encinet.pomodoro.service.session.PomodoroSession;
+
+import java.util.Arrays;
+
+/**
+ * Maps entity IDs to the session that owns them: TextDisplay entities in entity mode, and
+ * the players carrying a virtual text display in packet mode.
+ * <p>
+ * Lookups run on Netty threads for every outgoing entity metadata packet, so they must be
+ * cheap and lock-free. The index is a sorted primitive {@code int[]} with a parallel session
+ * array, replaced wholesale on every change (copy-on-write). Sessions start and stop rarely
+ * compared to how often packets are sent, so reads never allocate and never box.
+ */
+public class TextDisplayIndex {
+    private record Snapshot(int[] entityIds, PomodoroSession[] sessions) {}
+
+    private static final Snapshot EMPTY = new Snapshot(new int[0], new PomodoroSession[0]);
+
+    private volatile Snapshot snapshot = EMPTY;
+
+    /**
+     * Checks whether any entity is indexed. Allows callers to bail out before decoding a packet.
+     *
+     * @return true if no TextDisplay is currently tracked.
+     */
+    public boolean isEmpty() {
+        return snapshot.entityIds.length == 0;
+    }
+
+    /**
+     * Finds the session owning an entity.
+     *
+     * @param entityId The entity ID from the packet.
+     * @return The owning session, or null if the entity is not a Pomodoro TextDisplay.
+     */
+    public PomodoroSession get(int entityId) {
+        Snapshot current = snapshot;
+        int index = Arrays.binarySearch(current.entityIds, entityId);
+        return index >= 0 ? current.sessions[index] : null;
+    }
+
+    public synchronized void put(int entityId, PomodoroSession session) {
+        Snapshot current = snapshot;
+        int index = Arrays.binarySearch(current.entityIds, entityId);
+        if (index >= 0) {
+            PomodoroSession[] sessions = current.sessions.clone();
+            sessions[index] = session;
+            snapshot = new Snapshot(current.entityIds, sessions);
+            return;
+        }
+        int insertAt = -index - 1;
+        int length = current.entityIds.length;
+        int[] entityIds = new int[length + 1];
+        PomodoroSession[] sessions = new PomodoroSession[length + 1];
+        System.arraycopy(current.entityIds, 0, entityIds, 0, insertAt);
+        System.arraycopy(current.sessions, 0, sessions, 0, insertAt);
+        entityIds[insertAt] = entityId;
+        sessions[insertAt] = session;
+        System.arraycopy(current.entityIds, insertAt, entityIds, insertAt + 1, length - insertAt);
+        System.arraycopy(current.sessions, insertAt, sessions, insertAt + 1, length - insertAt);
+        snapshot = new Snapshot(entityIds, sessions);
+    }
+
+    public synchronized void remove(int entityId) {
+        Snapshot current = snapshot;
+        int index = Arrays.binarySearch(current.entityIds, entityId);
+        if (index < 0) {
+            return;
+        }
+        int length = current.entityIds.length;
+        if (length == 1) {
+            snapshot = EMPTY;
+            return;
+        }
+        int[] entityIds = new int[length - 1];
+        PomodoroSession[] sessions = new PomodoroSession[length - 1];
+        System.arraycopy(current.entityIds, 0, entityIds, 0, index);
+        System.arraycopy(current.sessions, 0, sessions, 0, index);
+        System.arraycopy(current.entityIds, index + 1, entityIds, index, length - index - 1);
+        System.arraycopy(current.sessions, index + 1, sessions, index, length - index - 1);
+        snapshot = new Snapshot(entityIds, sessions);
+    }
+}
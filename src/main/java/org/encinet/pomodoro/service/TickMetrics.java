@@ -0,0 +1,79 @@
+package org.encinet.pomodoro.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.StringJoiner;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Records how much time session refreshes spend in each of 20 consecutive server ticks.
+ * <p>
+ * Slots are keyed by the server's tick counter, not by wall-clock time, so a lagging server
+ * still reports the cost of each tick rather than of each 50 ms window.
+ */
+public class TickMetrics {
+    public static final int SLOTS = 20;
+
+    private final LongAdder[] slotNanos = new LongAdder[SLOTS];
+    private final LongAdder[] slotRuns = new LongAdder[SLOTS];
+    private volatile long windowStartNanos = System.nanoTime();
+
+    public TickMetrics() {
+        for (int i = 0; i < SLOTS; i++) {
+            slotNanos[i] = new LongAdder();
+            slotRuns[i] = new LongAdder();
+        }
+    }
+
+    /**
+     * Records one session refresh.
+     *
+     * @param tick         The server tick the refresh ran in, from {@link org.bukkit.Bukkit#getCurrentTick()}.
+     * @param elapsedNanos The time the refresh took.
+     */
+    public void record(int tick, long elapsedNanos) {
+        int slot = Math.floorMod(tick, SLOTS);
+        slotNanos[slot].add(elapsedNanos);
+        slotRuns[slot].increment();
+    }
+
+    /**
+     * Summarizes the current window for the metrics report and starts a new one.
+     *
+     * @return The report lines.
+     */
+    public List<MetricLine> describeAndReset() {
+        long[] nanos = new long[SLOTS];
+        long[] runs = new long[SLOTS];
+        long total = 0;
+        long max = 0;
+        long min = Long.MAX_VALUE;
+        for (int i = 0; i < SLOTS; i++) {
+            nanos[i] = slotNanos[i].sumThenReset();
+            runs[i] = slotRuns[i].sumThenReset();
+            total += nanos[i];
+            max = Math.max(max, nanos[i]);
+            min = Math.min(min, nanos[i]);
+        }
+        long now = System.nanoTime();
+        double seconds = Math.max(1e-9, (now - windowStartNanos) / 1e9);
+        windowStartNanos = now;
+
+        double mean = total / (double) SLOTS;
+        List<MetricLine> lines = new ArrayList<>();
+        lines.add(new MetricLine("refresh", Map.of(
+                "window", String.format("%.1f", seconds),
+                "total", String.format("%.3f", total / 1e6 / seconds),
+                "min", String.format("%.3f", min / 1e6 / seconds),
+                "mean", String.format("%.3f", mean / 1e6 / seconds),
+                "max", String.format("%.3f", max / 1e6 / seconds))));
+        lines.add(new MetricLine("spread", Map.of("spread", String.format("%.2f", mean > 0 ? max / mean : 0.0))));
+        StringJoiner perSlot = new StringJoiner(" ");
+        for (int i = 0; i < SLOTS; i++) {
+            perSlot.add(String.valueOf(runs[i]));
+        }
+        lines.add(new MetricLine("slots", Map.of("runs", perSlot.toString())));
+        return lines;
+    }
+}
@@ -0,0 +1,190 @@
+package org.encinet.pomodoro.service.display;
+
+import com.github.retrooper.packetevents.PacketEvents;
+import com.github.retrooper.packetevents.protocol.entity.data.EntityData;
+import com.github.retrooper.packetevents.protocol.entity.data.EntityDataTypes;
+import com.github.retrooper.packetevents.protocol.entity.type.EntityTypes;
+import com.github.retrooper.packetevents.util.Vector3d;
+import com.github.retrooper.packetevents.util.Vector3f;
+import com.github.retrooper.packetevents.wrapper.PacketWrapper;
+import com.github.retrooper.packetevents.wrapper.play.server.WrapperPlayServerDestroyEntities;
+import com.github.retrooper.packetevents.wrapper.play.server.WrapperPlayServerEntityMetadata;
+import com.github.retrooper.packetevents.wrapper.play.server.WrapperPlayServerSetPassengers;
+import com.github.retrooper.packetevents.wrapper.play.server.WrapperPlayServerSpawnEntity;
+import net.kyori.adventure.text.Component;
+import org.bukkit.Bukkit;
+import org.bukkit.Location;
+import org.bukkit.entity.Entity;
+import org.bukkit.entity.Player;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * A floating timer text that exists only on the clients of the players who can see its owner.
+ * <p>
+ * No server-side entity is created. Each viewer is sent a spawn packet for a TextDisplay with
+ * a reserved entity ID, its metadata, and a passenger packet that mounts it on the owner, so
+ * the client moves it along with the owner without any teleports. Text is written per viewer
+ * in their own locale. Nothing is saved with the world, so a crash cannot leave holograms
+ * behind.
+ * <p>
+ * {@link #sync(Function)} runs on the owner's region thread. The packet listener may drop
+ * viewers from a Netty thread when the client forgets the owner, so the viewer map is concurrent.
+ */
+public class VirtualTextDisplay {
+    // Metadata indices of the Display/TextDisplay entity on 1.21
+    private static final int TRANSLATION_INDEX = 11;
+    private static final int BILLBOARD_INDEX = 15;
+    private static final int TEXT_INDEX = 23;
+    private static final byte BILLBOARD_CENTER = 3;
+
+    private final Player owner;
+    private final int entityId = Bukkit.getUnsafe().nextEntityId();
+    private final UUID entityUuid = UUID.randomUUID();
+    private final double offsetY;
+
+    // Viewer UUID -> the text last sent to that viewer
+    private final Map<UUID, Component> viewers = new ConcurrentHashMap<>();
+
+    public VirtualTextDisplay(Player owner, double offsetY) {
+        this.owner = owner;
+        this.offsetY = offsetY;
+    }
+
+    public int getEntityId() {
+        return entityId;
+    }
+
+    public Player getOwner() {
+        return owner;
+    }
+
+    /**
+     * Brings every player tracking the owner up to date: new viewers get the entity spawned and
+     * mounted, players who no longer track the owner get it destroyed, and viewers whose
+     * rendered text changed get a metadata update.
+     *
+     * @param textForLocale Renders the text for a viewer locale.
+     */
+    public void sync(Function<String, Component> textForLocale) {
+        Set<UUID> tracked = new HashSet<>();
+        for (Player viewer : owner.getTrackedBy()) {
+            UUID viewerId = viewer.getUniqueId();
+            tracked.add(viewerId);
+            Component text = textForLocale.apply(viewer.locale().toString());
+            Component sent = viewers.get(viewerId);
+            if (sent == null) {
+                spawn(viewer, text);
+                viewers.put(viewerId, text);
+            } else if (!sent.equals(text)) {
+                send(viewer, new WrapperPlayServerEntityMetadata(entityId, List.of(textData(text))));
+                viewers.put(viewerId, text);
+            }
+        }
+
+        viewers.keySet().removeIf(viewerId -> {
+            if (tracked.contains(viewerId)) {
+                return false;
+            }
+            Player viewer = Bukkit.getPlayer(viewerId);
+            if (viewer != null) {
+                send(viewer, new WrapperPlayServerDestroyEntities(entityId));
+            }
+            return true;
+        });
+    }
+
+    /**
+     * Checks whether the entity has been spawned for a viewer.
+     *
+     * @param viewerId The viewer's UUID.
+     * @return true if the viewer currently has the entity.
+     */
+    public boolean isViewer(UUID viewerId) {
+        return viewers.containsKey(viewerId);
+    }
+
+    /**
+     * Forgets a viewer whose client is already removing the entity, so it is spawned again the
+     * next time the viewer tracks the owner.
+     *
+     * @param viewerId The viewer's UUID.
+     * @return true if the viewer had the entity.
+     */
+    public boolean forgetViewer(UUID viewerId) {
+        return viewers.remove(viewerId) != null;
+    }
+
+    /**
+     * Removes the entity from every viewer's client.
+     */
+    public void destroy() {
+        for (UUID viewerId : viewers.keySet()) {
+            Player viewer = Bukkit.getPlayer(viewerId);
+            if (viewer != null) {
+                send(viewer, new WrapperPlayServerDestroyEntities(entityId));
+            }
+        }
+        viewers.clear();
+    }
+
+    private void spawn(Player viewer, Component text) {
+        Location location = owner.getLocation();
+        send(viewer, new WrapperPlayServerSpawnEntity(entityId, Optional.of(entityUuid), EntityTypes.TEXT_DISPLAY,
+                new Vector3d(location.getX(), location.getY() + offsetY, location.getZ()),
+                0f, 0f, 0f, 0, Optional.empty()));
+
+        List<EntityData<?>> metadata = new ArrayList<>();
+        // Passengers sit on top of the owner, so only the part of the offset above their head is left
+        metadata.add(new EntityData<>(TRANSLATION_INDEX, EntityDataTypes.VECTOR3F,
+                new Vector3f(0f, (float) (offsetY - owner.getHeight()), 0f)));
+        metadata.add(new EntityData<>(BILLBOARD_INDEX, EntityDataTypes.BYTE, BILLBOARD_CENTER));
+        metadata.add(textData(text));
+        send(viewer, new WrapperPlayServerEntityMetadata(entityId, metadata));
+
+        send(viewer, new WrapperPlayServerSetPassengers(owner.getEntityId(), withPassengers(ownerPassengerIds())));
+    }
+
+    /**
+     * Appends this entity to a passenger list sent for the owner, so the client keeps it mounted.
+     *
+     * @param passengers The passenger IDs from the packet.
+     * @return The passenger IDs including this entity.
+     */
+    public int[] withPassengers(int[] passengers) {
+        for (int passenger : passengers) {
+            if (passenger == entityId) {
+                return passengers;
+            }
+        }
+        int[] result = new int[passengers.length + 1];
+        System.arraycopy(passengers, 0, result, 0, passengers.length);
+        result[passengers.length] = entityId;
+        return result;
+    }
+
+    private int[] ownerPassengerIds() {
+        List<Entity> passengers = owner.getPassengers();
+        int[] ids = new int[passengers.size()];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = passengers.get(i).getEntityId();
+        }
+        return ids;
+    }
+
+    private EntityData<Component> textData(Component text) {
+        return new EntityData<>(TEXT_INDEX, EntityDataTypes.ADV_COMPONENT, text);
+    }
+
+    private static void send(Player viewer, PacketWrapper<?> packet) {
+        PacketEvents.getAPI().getPlayerManager().sendPacket(viewer, packet);
+    }
+}
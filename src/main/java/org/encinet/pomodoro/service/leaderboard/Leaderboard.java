@@ -0,0 +1,247 @@
+package org.encinet.pomodoro.service.leaderboard;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.UUID;
+
+/**
+ * An in-memory ranking of players by focus seconds.
+ * <p>
+ * Players are kept in a treap ordered by score, highest first, with ties broken by UUID so
+ * every player has a distinct position. Each node knows the size of its subtree, so updating a
+ * score and looking up a player's rank both take O(log n), and reading the top k entries takes
+ * O(log n + k). Players with no focus time are not ranked.
+ */
+public class Leaderboard {
+    private final Map<UUID, Integer> scores = new HashMap<>();
+    private final SplittableRandom random = new SplittableRandom();
+    private Node root;
+
+    /**
+     * Adds focus seconds to a player's score.
+     *
+     * @param uuid    The UUID of the player.
+     * @param seconds The focus seconds to add.
+     */
+    public synchronized void add(UUID uuid, int seconds) {
+        if (seconds != 0) {
+            set(uuid, scores.getOrDefault(uuid, 0) + seconds);
+        }
+    }
+
+    /**
+     * Sets a player's score, moving them to their new position.
+     *
+     * @param uuid  The UUID of the player.
+     * @param score The new score; players with a score of zero or less are removed.
+     */
+    public synchronized void set(UUID uuid, int score) {
+        Integer previous = score > 0 ? scores.put(uuid, score) : scores.remove(uuid);
+        if (previous != null) {
+            root = remove(root, previous, uuid);
+        }
+        if (score > 0) {
+            root = insert(root, new Node(uuid, score, random.nextInt()));
+        }
+    }
+
+    /**
+     * Gets a player's score.
+     *
+     * @param uuid The UUID of the player.
+     * @return The score, or 0 if the player is not ranked.
+     */
+    public synchronized int getScore(UUID uuid) {
+        return scores.getOrDefault(uuid, 0);
+    }
+
+    /**
+     * Gets a player's rank.
+     *
+     * @param uuid The UUID of the player.
+     * @return The 1-based rank, or 0 if the player is not ranked.
+     */
+    public synchronized int getRank(UUID uuid) {
+        Integer score = scores.get(uuid);
+        if (score == null) {
+            return 0;
+        }
+        int rank = 0;
+        Node node = root;
+        while (node != null) {
+            int cmp = compare(node, score, uuid);
+            if (cmp < 0) {
+                rank += size(node.left) + 1;
+                node = node.right;
+            } else if (cmp > 0) {
+                node = node.left;
+            } else {
+                return rank + size(node.left) + 1;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Gets the highest ranked players.
+     *
+     * @param limit The maximum number of entries.
+     * @return The entries, highest score first.
+     */
+    public synchronized List<Entry> getTop(int limit) {
+        List<Entry> entries = new ArrayList<>(Math.min(limit, scores.size()));
+        Deque<Node> stack = new ArrayDeque<>();
+        Node node = root;
+        while (entries.size() < limit && (node != null || !stack.isEmpty())) {
+            while (node != null) {
+                stack.push(node);
+                node = node.left;
+            }
+            node = stack.pop();
+            entries.add(new Entry(node.uuid, node.score));
+            node = node.right;
+        }
+        return entries;
+    }
+
+    /**
+     * Gets the number of ranked players.
+     *
+     * @return The number of players with a score.
+     */
+    public synchronized int size() {
+        return scores.size();
+    }
+
+    /**
+     * Removes every player from the ranking.
+     */
+    public synchronized void clear() {
+        scores.clear();
+        root = null;
+    }
+
+    /**
+     * Compares a node with a position in the ranking.
+     *
+     * @return A negative number if the node ranks before the position, positive if after.
+     */
+    private static int compare(Node node, int score, UUID uuid) {
+        int cmp = Integer.compare(score, node.score);
+        return cmp != 0 ? cmp : node.uuid.compareTo(uuid);
+    }
+
+    private static Node insert(Node node, Node inserted) {
+        if (node == null) {
+            return inserted;
+        }
+        if (inserted.priority > node.priority) {
+            Node[] parts = new Node[2];
+            split(node, inserted.score, inserted.uuid, parts);
+            inserted.left = parts[0];
+            inserted.right = parts[1];
+            inserted.update();
+            return inserted;
+        }
+        if (compare(node, inserted.score, inserted.uuid) > 0) {
+            node.left = insert(node.left, inserted);
+        } else {
+            node.right = insert(node.right, inserted);
+        }
+        node.update();
+        return node;
+    }
+
+    private static Node remove(Node node, int score, UUID uuid) {
+        if (node == null) {
+            return null;
+        }
+        int cmp = compare(node, score, uuid);
+        if (cmp == 0) {
+            return merge(node.left, node.right);
+        }
+        if (cmp > 0) {
+            node.left = remove(node.left, score, uuid);
+        } else {
+            node.right = remove(node.right, score, uuid);
+        }
+        node.update();
+        return node;
+    }
+
+    /**
+     * Splits a subtree into the nodes ranked before a position and the rest.
+     */
+    private static void split(Node node, int score, UUID uuid, Node[] parts) {
+        if (node == null) {
+            parts[0] = null;
+            parts[1] = null;
+        } else if (compare(node, score, uuid) < 0) {
+            split(node.right, score, uuid, parts);
+            node.right = parts[0];
+            node.update();
+            parts[0] = node;
+        } else {
+            split(node.left, score, uuid, parts);
+            node.left = parts[1];
+            node.update();
+            parts[1] = node;
+        }
+    }
+
+    /**
+     * Merges two subtrees where every node of the first ranks before every node of the second.
+     */
+    private static Node merge(Node first, Node second) {
+        if (first == null) {
+            return second;
+        }
+        if (second == null) {
+            return first;
+        }
+        if (first.priority > second.priority) {
+            first.right = merge(first.right, second);
+            first.update();
+            return first;
+        }
+        second.left = merge(first, second.left);
+        second.update();
+        return second;
+    }
+
+    private static int size(Node node) {
+        return node != null ? node.size : 0;
+    }
+
+    private static final class Node {
+        private final UUID uuid;
+        private final int score;
+        private final int priority;
+        private Node left;
+        private Node right;
+        private int size = 1;
+
+        private Node(UUID uuid, int score, int priority) {
+            this.uuid = uuid;
+            this.score = score;
+            this.priority = priority;
+        }
+
+        private void update() {
+            size = size(left) + size(right) + 1;
+        }
+    }
+
+    /**
+     * A ranked player.
+     *
+     * @param uuid  The UUID of the player.
+     * @param score The player's focus seconds.
+     */
+    public record Entry(UUID uuid, int score) {}
+}
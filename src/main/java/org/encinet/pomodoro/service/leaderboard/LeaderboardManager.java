@@ -0,0 +1,213 @@
+package org.encinet.pomodoro.service.leaderboard;
+
+import org.bukkit.Bukkit;
+import org.encinet.pomodoro.Pomodoro;
+import org.encinet.pomodoro.service.storage.DatabaseManager;
+import org.encinet.pomodoro.service.storage.SessionRecord;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+/**
+ * Keeps the focus time leaderboards of the current day, the current ISO week and all time.
+ * <p>
+ * The leaderboards are seeded from the database once the storage backend is open and are
+ * then updated from every completed work session, so ranking queries never touch the
+ * database. The daily and weekly leaderboards start over when the day or week changes.
+ */
+public class LeaderboardManager {
+    private final Map<Period, Leaderboard> leaderboards = new EnumMap<>(Period.class);
+    private int day;
+    private int week;
+    // Guarded by this: the sessions recorded during each reseed in flight, replayed when it lands
+    private final List<List<SessionRecord>> reseeding = new ArrayList<>();
+
+    public LeaderboardManager(Pomodoro plugin) {
+        for (Period period : Period.values()) {
+            leaderboards.put(period, new Leaderboard());
+        }
+        LocalDate today = LocalDate.now();
+        day = DatabaseManager.dayKey(today);
+        week = DatabaseManager.weekKey(today);
+
+        // Not waited for, as the storage backend may still be opening. The totals are read before
+        // any session of this run is flushed, so they are added to what was recorded meanwhile.
+        long start = System.nanoTime();
+        plugin.getDatabaseManager().loadFocusTotals().thenAccept(totals -> {
+            synchronized (this) {
+                rollOver();
+                seed(Period.ALL, totals.all());
+                if (totals.day() == day) {
+                    seed(Period.DAILY, totals.daily());
+                }
+                if (totals.week() == week) {
+                    seed(Period.WEEKLY, totals.weekly());
+                }
+            }
+            plugin.getLogger().info(String.format("Seeded leaderboards with %d players in %.1f ms",
+                    leaderboards.get(Period.ALL).size(), (System.nanoTime() - start) / 1e6));
+        });
+    }
+
+    private void seed(Period period, Map<UUID, Integer> focusSeconds) {
+        Leaderboard leaderboard = leaderboards.get(period);
+        focusSeconds.forEach(leaderboard::add);
+    }
+
+    /**
+     * Replaces the daily and weekly leaderboards with totals loaded from the database, for
+     * after their rollups were rebuilt. The all-time leaderboard is kept, as it is seeded from
+     * the player totals, which a rebuild does not touch.
+     * <p>
+     * Sessions recorded after the load is started are added to the new leaderboards once it
+     * completes. The load must therefore see every session recorded before it was started
+     * and none recorded after, which holds when starting it and recording sessions are
+     * ordered by one lock and the load flushes the queued sessions when it is started.
+     *
+     * @param load Starts loading the focus totals.
+     * @return A future completed once the leaderboards are replaced.
+     */
+    public CompletableFuture<Void> reseedPeriods(Supplier<CompletableFuture<DatabaseManager.FocusTotals>> load) {
+        List<SessionRecord> recorded = new ArrayList<>();
+        synchronized (this) {
+            reseeding.add(recorded);
+        }
+        return load.get().thenAccept(totals -> {
+            synchronized (this) {
+                reseeding.removeIf(list -> list == recorded);
+                rollOver();
+                // Swapped in whole, so rankings never see a half-seeded leaderboard
+                Leaderboard daily = new Leaderboard();
+                if (totals.day() == day) {
+                    totals.daily().forEach(daily::add);
+                }
+                Leaderboard weekly = new Leaderboard();
+                if (totals.week() == week) {
+                    totals.weekly().forEach(weekly::add);
+                }
+                leaderboards.put(Period.DAILY, daily);
+                leaderboards.put(Period.WEEKLY, weekly);
+                for (SessionRecord record : recorded) {
+                    addToPeriods(record);
+                }
+            }
+        });
+    }
+
+    /**
+     * Adds a completed work session to the leaderboards. Sessions that did not complete are
+     * ignored, matching the player statistics.
+     *
+     * @param record The history record of the work session.
+     */
+    public void recordWorkSession(SessionRecord record) {
+        if (record.outcome() != SessionRecord.Outcome.COMPLETED) {
+            return;
+        }
+        leaderboards.get(Period.ALL).add(record.uuid(), record.countedFocusSeconds());
+
+        synchronized (this) {
+            rollOver();
+            addToPeriods(record);
+            for (List<SessionRecord> recorded : reseeding) {
+                recorded.add(record);
+            }
+        }
+    }
+
+    /**
+     * Adds a completed work session to the daily and weekly leaderboards, if it ended in the
+     * current day or week. Must be called while holding this manager's lock.
+     */
+    private void addToPeriods(SessionRecord record) {
+        LocalDate date = DatabaseManager.toLocalDate(record.endedAt());
+        if (DatabaseManager.dayKey(date) == day) {
+            leaderboards.get(Period.DAILY).add(record.uuid(), record.countedFocusSeconds());
+        }
+        if (DatabaseManager.weekKey(date) == week) {
+            leaderboards.get(Period.WEEKLY).add(record.uuid(), record.countedFocusSeconds());
+        }
+    }
+
+    /**
+     * Gets the highest ranked players of a period.
+     *
+     * @param period The period.
+     * @param limit  The maximum number of entries.
+     * @return The entries, highest focus time first.
+     */
+    public List<Leaderboard.Entry> getTop(Period period, int limit) {
+        return getLeaderboard(period).getTop(limit);
+    }
+
+    /**
+     * Gets a player's rank in a period.
+     *
+     * @param period The period.
+     * @param uuid   The UUID of the player.
+     * @return The 1-based rank, or 0 if the player has no focus time in the period.
+     */
+    public int getRank(Period period, UUID uuid) {
+        return getLeaderboard(period).getRank(uuid);
+    }
+
+    /**
+     * Gets a player's focus seconds in a period.
+     *
+     * @param period The period.
+     * @param uuid   The UUID of the player.
+     * @return The focus seconds.
+     */
+    public int getScore(Period period, UUID uuid) {
+        return getLeaderboard(period).getScore(uuid);
+    }
+
+    /**
+     * Gets the name a ranked player is shown with.
+     *
+     * @param uuid The UUID of the player.
+     * @return The last known name of the player, or their UUID if the server never saw them.
+     */
+    public String getPlayerName(UUID uuid) {
+        String name = Bukkit.getOfflinePlayer(uuid).getName();
+        return name != null ? name : uuid.toString();
+    }
+
+    private Leaderboard getLeaderboard(Period period) {
+        if (period != Period.ALL) {
+            synchronized (this) {
+                rollOver();
+            }
+        }
+        return leaderboards.get(period);
+    }
+
+    /**
+     * Clears the daily and weekly leaderboards once their period is over.
+     */
+    private void rollOver() {
+        LocalDate today = LocalDate.now();
+        int currentDay = DatabaseManager.dayKey(today);
+        if (currentDay != day) {
+            day = currentDay;
+            leaderboards.get(Period.DAILY).clear();
+        }
+        int currentWeek = DatabaseManager.weekKey(today);
+        if (currentWeek != week) {
+            week = currentWeek;
+            leaderboards.get(Period.WEEKLY).clear();
+        }
+    }
+
+    public enum Period {
+        DAILY,
+        WEEKLY,
+        ALL
+    }
+}
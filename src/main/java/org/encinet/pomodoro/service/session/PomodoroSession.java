@@ -1,5 +1,6 @@
 package org.encinet.pomodoro.service.session;
 
+import io.papermc.paper.threadedregions.scheduler.ScheduledTask;
 import org.bukkit.Location;
 import org.bukkit.boss.BossBar;
 import org.bukkit.entity.Player;
@@ -7,11 +8,25 @@ import org.bukkit.entity.TextDisplay;
 import org.encinet.pomodoro.Pomodoro;
 import org.encinet.pomodoro.config.impl.PomodoroConfig;
 import org.encinet.pomodoro.config.impl.PresetConfig;
+import org.encinet.pomodoro.service.display.VirtualTextDisplay;
+import org.encinet.pomodoro.service.storage.SessionRecord;
 import org.encinet.pomodoro.ui.TimerUI;
 
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
 public class PomodoroSession {
+    /**
+     * Returned by {@link #getNextCountdownEventNanos(int)} when the session has no timed event pending.
+     */
+    public static final long NO_EVENT = Long.MAX_VALUE;
+
+    private static final long NANOS_PER_SECOND = TimeUnit.SECONDS.toNanos(1);
+    private static final long NO_DEADLINE = Long.MIN_VALUE;
+
     private PomodoroState state = PomodoroState.STOPPED;
     private PomodoroState previousState;
+    private final String presetKey;
     private final PresetConfig.Preset preset;
 
     private final int workDuration;
@@ -20,28 +35,59 @@ public class PomodoroSession {
     private final int sessions;
 
     private int currentSession = 1;
-    private int timeLeft;
-    private int extraTime = 0;
+
+    // Countdown state, based on System.nanoTime() so it never depends on server TPS
+    private long endsAtNanos;
+    private long pausedRemainingNanos = NO_DEADLINE;
+    private long overdueDeadlineNanos = NO_DEADLINE;
+    // Start of the overtime stopwatch used while the work session is completed
+    private long completedAtNanos;
+
+    // History of the current work session, appended when it completes or is stopped
+    private long workStartedAtMillis;
+    private int workPauses;
 
     private BossBar bossBar;
     private TextDisplay textDisplay;
+    private VirtualTextDisplay virtualTextDisplay;
     private Location startLocation;
+    private ScheduledTask refreshTask;
+    private ScheduledTask eventTask;
 
     private boolean bossbarEnabled;
     private boolean titleEnabled;
 
-    public PomodoroSession(PresetConfig.Preset preset) {
+    private volatile SessionSnapshot snapshot;
+    private final SentVisualState sentVisualState = new SentVisualState();
+
+    public PomodoroSession(String presetKey, PresetConfig.Preset preset) {
+        this(presetKey, preset, Pomodoro.getInstance().getConfigManager().getPomodoroConfig());
+    }
+
+    private PomodoroSession(String presetKey, PresetConfig.Preset preset, PomodoroConfig config) {
+        this(presetKey, preset, config.isBossbarDefault(), config.isTitleDefault());
+    }
+
+    /**
+     * Creates a session with the given display defaults instead of the configured ones.
+     *
+     * @param presetKey      The key of the preset to run.
+     * @param preset         The preset to run.
+     * @param bossbarEnabled Whether the bossbar starts enabled.
+     * @param titleEnabled   Whether the title starts enabled.
+     */
+    public PomodoroSession(String presetKey, PresetConfig.Preset preset, boolean bossbarEnabled, boolean titleEnabled) {
+        this.presetKey = presetKey;
         this.preset = preset;
         // Pre-calculate durations in seconds
         this.workDuration = preset.work() * 60;
         this.breakDuration = preset.breakTime() * 60;
         this.longBreakDuration = preset.longBreak() * 60;
         this.sessions = preset.sessions();
-        this.timeLeft = this.workDuration;
-
-        PomodoroConfig config = Pomodoro.getInstance().getConfigManager().getConfig(PomodoroConfig.class);
-        this.bossbarEnabled = config.isBossbarDefault();
-        this.titleEnabled = config.isTitleDefault();
+        this.endsAtNanos = System.nanoTime() + this.workDuration * NANOS_PER_SECOND;
+        this.bossbarEnabled = bossbarEnabled;
+        this.titleEnabled = titleEnabled;
+        publishSnapshot();
     }
 
     public void setState(PomodoroState newState, Player player) {
@@ -57,6 +103,10 @@ public class PomodoroSession {
 
             this.state = newState;
             this.state.getHandler().onEnter(this, player, isResuming);
+            publishSnapshot();
+
+            // The new state has its own deadline (or none), so replace the pending event
+            Pomodoro.getInstance().getPomodoroManager().scheduleNextEvent(player, this);
 
             // Update UI on state change
             TimerUI.update(player, Pomodoro.getInstance().getPomodoroManager());
@@ -64,12 +114,45 @@ public class PomodoroSession {
         }
     }
 
+    /**
+     * Switches the state and publishes it without running the state handlers or updating the
+     * player, which need a running server.
+     *
+     * @param newState The new state.
+     */
+    void switchState(PomodoroState newState) {
+        this.state = newState;
+        publishSnapshot();
+    }
+
     public void tick(Player player) {
         if (state.getHandler() != null) {
             state.getHandler().tick(this, player);
         }
     }
 
+    /**
+     * Captures the current state into a new {@link SessionSnapshot} for off-thread readers.
+     * Must be called from the thread that owns the session.
+     *
+     * @return The published snapshot.
+     */
+    public SessionSnapshot publishSnapshot() {
+        SessionSnapshot published = new SessionSnapshot(state, previousState, preset, getTimeLeft(), getExtraTime(),
+                currentSession, sessions, workDuration);
+        this.snapshot = published;
+        return published;
+    }
+
+    /**
+     * Gets the most recently published snapshot. Safe to call from any thread.
+     *
+     * @return The latest snapshot.
+     */
+    public SessionSnapshot getSnapshot() {
+        return snapshot;
+    }
+
     public boolean isPaused() {
         return this.state == PomodoroState.PAUSED;
     }
@@ -86,6 +169,10 @@ public class PomodoroSession {
         this.previousState = previousState;
     }
 
+    public String getPresetKey() {
+        return presetKey;
+    }
+
     public PresetConfig.Preset getPreset() {
         return preset;
     }
@@ -114,12 +201,138 @@ public class PomodoroSession {
         this.currentSession = currentSession;
     }
 
+    /**
+     * Gets the remaining time of the current countdown, derived from its deadline.
+     * The value is rounded up, so a fresh 25 minute countdown reads 1500 seconds.
+     *
+     * @return The remaining time in seconds, never negative.
+     */
     public int getTimeLeft() {
-        return timeLeft;
+        long remaining = getRemainingNanos();
+        if (remaining <= 0) {
+            return 0;
+        }
+        return (int) ((remaining + NANOS_PER_SECOND - 1) / NANOS_PER_SECOND);
+    }
+
+    private long getRemainingNanos() {
+        if (pausedRemainingNanos != NO_DEADLINE) {
+            return pausedRemainingNanos;
+        }
+        return endsAtNanos - System.nanoTime();
+    }
+
+    /**
+     * Starts a new countdown for the current state.
+     * If the previous countdown expired while the server was lagging, the new one is
+     * anchored at the old deadline instead of now, so chained transitions catch up
+     * rather than drift.
+     *
+     * @param durationSeconds The length of the countdown in seconds.
+     */
+    public void startCountdown(int durationSeconds) {
+        long anchor = overdueDeadlineNanos != NO_DEADLINE ? overdueDeadlineNanos : System.nanoTime();
+        overdueDeadlineNanos = NO_DEADLINE;
+        pausedRemainingNanos = NO_DEADLINE;
+        endsAtNanos = anchor + durationSeconds * NANOS_PER_SECOND;
+    }
+
+    /**
+     * Checks whether the current countdown has reached its deadline.
+     * When it has, the deadline is remembered so the next {@link #startCountdown(int)}
+     * or {@link #startOvertime()} can anchor on it.
+     *
+     * @return true if the deadline has passed, false otherwise or while paused.
+     */
+    public boolean checkDeadline() {
+        if (pausedRemainingNanos != NO_DEADLINE) {
+            return false;
+        }
+        if (System.nanoTime() - endsAtNanos >= 0) {
+            overdueDeadlineNanos = endsAtNanos;
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Gets the next instant at which a countdown state has work to do: the start of the
+     * warning window, each second inside the warning window, and finally the deadline itself.
+     *
+     * @param warningSeconds The length of the warning window before the deadline.
+     * @return A {@link System#nanoTime()} instant, or {@link #NO_EVENT} while paused.
+     */
+    public long getNextCountdownEventNanos(int warningSeconds) {
+        if (pausedRemainingNanos != NO_DEADLINE) {
+            return NO_EVENT;
+        }
+        long now = System.nanoTime();
+        long remaining = endsAtNanos - now;
+        if (remaining <= 0) {
+            return now;
+        }
+        long warningWindow = warningSeconds * NANOS_PER_SECOND;
+        if (remaining > warningWindow) {
+            return endsAtNanos - warningWindow;
+        }
+        long secondsLeft = (remaining + NANOS_PER_SECOND - 1) / NANOS_PER_SECOND;
+        return endsAtNanos - (secondsLeft - 1) * NANOS_PER_SECOND;
     }
 
-    public void setTimeLeft(int timeLeft) {
-        this.timeLeft = timeLeft;
+    /**
+     * Freezes the current countdown, keeping the remaining time until {@link #resumeCountdown()}.
+     */
+    public void pauseCountdown() {
+        if (pausedRemainingNanos == NO_DEADLINE) {
+            pausedRemainingNanos = Math.max(0, endsAtNanos - System.nanoTime());
+        }
+    }
+
+    /**
+     * Continues a countdown frozen by {@link #pauseCountdown()} from where it stopped.
+     */
+    public void resumeCountdown() {
+        if (pausedRemainingNanos != NO_DEADLINE) {
+            endsAtNanos = System.nanoTime() + pausedRemainingNanos;
+            pausedRemainingNanos = NO_DEADLINE;
+        }
+    }
+
+    /**
+     * Starts counting the extra focus time after the work countdown has finished,
+     * anchored at the work deadline when it is known.
+     */
+    public void startOvertime() {
+        completedAtNanos = overdueDeadlineNanos != NO_DEADLINE ? overdueDeadlineNanos : System.nanoTime();
+        overdueDeadlineNanos = NO_DEADLINE;
+    }
+
+    /**
+     * Starts recording a new work session for the history.
+     */
+    public void beginWorkRecord() {
+        workStartedAtMillis = System.currentTimeMillis();
+        workPauses = 0;
+    }
+
+    public void countWorkPause() {
+        workPauses++;
+    }
+
+    /**
+     * Creates the history record for the current work session.
+     * A completed session counts its full duration and any overtime so far; a stopped session
+     * counts the focus time elapsed before it was stopped.
+     *
+     * @param uuid    The UUID of the owner.
+     * @param outcome How the work session ended.
+     * @return The history record.
+     */
+    public SessionRecord createWorkRecord(UUID uuid, SessionRecord.Outcome outcome) {
+        int focusSeconds = outcome == SessionRecord.Outcome.COMPLETED ? workDuration : Math.max(0, workDuration - getTimeLeft());
+        int extraSeconds = outcome == SessionRecord.Outcome.COMPLETED ? getExtraTime() : 0;
+        return new SessionRecord(uuid, workStartedAtMillis, System.currentTimeMillis(), presetKey,
+                focusSeconds, extraSeconds, workPauses, outcome);
     }
 
     public BossBar getBossBar() {
@@ -138,6 +351,14 @@ public class PomodoroSession {
         this.textDisplay = textDisplay;
     }
 
+    public VirtualTextDisplay getVirtualTextDisplay() {
+        return virtualTextDisplay;
+    }
+
+    public void setVirtualTextDisplay(VirtualTextDisplay virtualTextDisplay) {
+        this.virtualTextDisplay = virtualTextDisplay;
+    }
+
     public Location getStartLocation() {
         return startLocation;
     }
@@ -146,6 +367,26 @@ public class PomodoroSession {
         this.startLocation = startLocation;
     }
 
+    public ScheduledTask getRefreshTask() {
+        return refreshTask;
+    }
+
+    public void setRefreshTask(ScheduledTask refreshTask) {
+        this.refreshTask = refreshTask;
+    }
+
+    public ScheduledTask getEventTask() {
+        return eventTask;
+    }
+
+    public void setEventTask(ScheduledTask eventTask) {
+        this.eventTask = eventTask;
+    }
+
+    public SentVisualState getSentVisualState() {
+        return sentVisualState;
+    }
+
     public boolean isBossbarEnabled() {
         return bossbarEnabled;
     }
@@ -162,11 +403,15 @@ public class PomodoroSession {
         this.titleEnabled = titleEnabled;
     }
 
+    /**
+     * Gets the time spent in the work completed state, derived from when overtime started.
+     *
+     * @return The extra focus time in seconds.
+     */
     public int getExtraTime() {
-        return extraTime;
-    }
-
-    public void setExtraTime(int extraTime) {
-        this.extraTime = extraTime;
+        if (state != PomodoroState.WORK_COMPLETED) {
+            return 0;
+        }
+        return (int) Math.max(0, (System.nanoTime() - completedAtNanos) / NANOS_PER_SECOND);
     }
 }
\ No newline at end of file
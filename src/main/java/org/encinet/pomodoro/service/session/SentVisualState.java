@@ -0,0 +1,111 @@
+package org.encinet.pomodoro.service.session;
+
+import net.kyori.adventure.text.Component;
+import org.bukkit.boss.BarColor;
+
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Remembers what was last sent to a session's owner for each visual output, so unchanged
+ * values never reach the client again.
+ * <p>
+ * Each {@code changed} method compares the new value with the last one sent, records the
+ * new value, and returns whether it differs. The object is only touched from the thread
+ * that owns the session.
+ */
+public class SentVisualState {
+    /**
+     * How long an unchanged title may go without being resent. Titles fade on the client after
+     * their stay time, so a paused timer has to refresh its title before then to stay visible.
+     */
+    private static final long TITLE_KEEP_ALIVE_NANOS = TimeUnit.MILLISECONDS.toNanos(1500);
+
+    private Boolean bossBarVisible;
+    private String bossBarTitle;
+    private BarColor bossBarColor;
+    private double bossBarProgress = Double.NaN;
+
+    private Component title;
+    private Component subtitle;
+    private long titleSentAtNanos;
+    private boolean titleShown;
+
+    private Component textDisplayText;
+
+    public boolean bossBarVisibleChanged(boolean visible) {
+        if (bossBarVisible != null && bossBarVisible == visible) {
+            return false;
+        }
+        bossBarVisible = visible;
+        return true;
+    }
+
+    public boolean bossBarTitleChanged(String title) {
+        if (title.equals(bossBarTitle)) {
+            return false;
+        }
+        bossBarTitle = title;
+        return true;
+    }
+
+    public boolean bossBarColorChanged(BarColor color) {
+        if (color == bossBarColor) {
+            return false;
+        }
+        bossBarColor = color;
+        return true;
+    }
+
+    public boolean bossBarProgressChanged(double progress) {
+        if (progress == bossBarProgress) {
+            return false;
+        }
+        bossBarProgress = progress;
+        return true;
+    }
+
+    /**
+     * Checks whether the title has to be sent: either its content changed, or an unchanged
+     * title is old enough that it would start fading on the client.
+     *
+     * @param title    The title component.
+     * @param subtitle The subtitle component.
+     * @return true if the title should be sent.
+     */
+    public boolean titleChanged(Component title, Component subtitle) {
+        long now = System.nanoTime();
+        if (titleShown && Objects.equals(title, this.title) && Objects.equals(subtitle, this.subtitle)
+                && now - titleSentAtNanos < TITLE_KEEP_ALIVE_NANOS) {
+            return false;
+        }
+        this.title = title;
+        this.subtitle = subtitle;
+        this.titleSentAtNanos = now;
+        this.titleShown = true;
+        return true;
+    }
+
+    /**
+     * Checks whether a title is on screen that has to be cleared, and records that it is gone.
+     *
+     * @return true if the title should be cleared.
+     */
+    public boolean titleCleared() {
+        if (!titleShown) {
+            return false;
+        }
+        titleShown = false;
+        title = null;
+        subtitle = null;
+        return true;
+    }
+
+    public boolean textDisplayTextChanged(Component text) {
+        if (Objects.equals(text, textDisplayText)) {
+            return false;
+        }
+        textDisplayText = text;
+        return true;
+    }
+}
@@ -0,0 +1,93 @@
+package org.encinet.pomodoro.service.session;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The running sessions, keyed by the UUID of their owner.
+ * <p>
+ * A session is registered and removed on its owner's thread, but looked up from any thread:
+ * Netty packet handlers and the async chat thread read the {@link SessionSnapshot} of the
+ * session they find instead of its fields. For those readers a registered session is always
+ * running, which holds as long as its owner keeps to two rules:
+ * <ul>
+ *     <li>A session is registered only after it has published a snapshot of a running state,
+ *     so it is never found with the STOPPED snapshot it is created with.</li>
+ *     <li>A session publishes its STOPPED snapshot only after it has been removed, and is
+ *     never registered again.</li>
+ * </ul>
+ * A reader that looks a session up, reads its snapshot and finds the same session still
+ * registered has therefore read a snapshot of a running session.
+ */
+public final class SessionRegistry {
+    private final Map<UUID, PomodoroSession> sessions = new ConcurrentHashMap<>();
+    private final Map<UUID, PomodoroSession> view = Collections.unmodifiableMap(sessions);
+
+    /**
+     * Registers a session, replacing any session the owner had.
+     *
+     * @param owner   The UUID of the owner.
+     * @param session The session, which must have published a running snapshot.
+     * @throws IllegalStateException If the session's latest snapshot is STOPPED.
+     */
+    public void register(UUID owner, PomodoroSession session) {
+        if (session.getSnapshot().state() == PomodoroState.STOPPED) {
+            throw new IllegalStateException("A session must enter a running state before it is registered");
+        }
+        sessions.put(owner, session);
+    }
+
+    /**
+     * Gets the session of an owner.
+     *
+     * @param owner The UUID of the owner.
+     * @return The registered session, or null if the owner has none.
+     */
+    public PomodoroSession get(UUID owner) {
+        return sessions.get(owner);
+    }
+
+    /**
+     * Checks whether a session is still the one registered for its owner, i.e. it has been
+     * neither stopped nor replaced.
+     *
+     * @param owner   The UUID of the owner.
+     * @param session The session to check.
+     * @return true if the session is registered for the owner.
+     */
+    public boolean isCurrent(UUID owner, PomodoroSession session) {
+        return sessions.get(owner) == session;
+    }
+
+    /**
+     * Removes the session of an owner.
+     *
+     * @param owner The UUID of the owner.
+     * @return The removed session, or null if the owner had none.
+     */
+    public PomodoroSession remove(UUID owner) {
+        return sessions.remove(owner);
+    }
+
+    /**
+     * Removes a session if it is still the one registered for its owner.
+     *
+     * @param owner   The UUID of the owner.
+     * @param session The session to remove.
+     * @return true if the session was removed.
+     */
+    public boolean remove(UUID owner, PomodoroSession session) {
+        return sessions.remove(owner, session);
+    }
+
+    /**
+     * Gets a read-only live view of the registered sessions.
+     *
+     * @return The sessions by owner UUID.
+     */
+    public Map<UUID, PomodoroSession> asMap() {
+        return view;
+    }
+}
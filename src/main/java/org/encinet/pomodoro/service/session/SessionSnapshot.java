@@ -0,0 +1,34 @@
+package org.encinet.pomodoro.service.session;
+
+import org.encinet.pomodoro.config.impl.PresetConfig;
+
+/**
+ * An immutable view of a session's render-relevant state.
+ * <p>
+ * Snapshots are published by the session's owning thread whenever it changes state and on
+ * every display refresh. Readers on other threads (Netty packet handlers, the async chat
+ * thread) read the latest snapshot instead of the session's mutable fields, so they always
+ * see one consistent frame without taking locks.
+ *
+ * @param state          The state of the session.
+ * @param previousState  The state before pausing, or null.
+ * @param preset         The preset the session is running.
+ * @param timeLeft       The remaining countdown in seconds.
+ * @param extraTime      The overtime in seconds while the work session is completed.
+ * @param currentSession The current round.
+ * @param sessions       The number of rounds before a long break.
+ * @param workDuration   The work duration in seconds.
+ */
+public record SessionSnapshot(PomodoroState state, PomodoroState previousState, PresetConfig.Preset preset,
+                              int timeLeft, int extraTime, int currentSession, int sessions, int workDuration) {
+
+    /**
+     * Gets the number of seconds shown on the timer: the remaining countdown, or the total
+     * focus time once the work session is completed.
+     *
+     * @return The displayed time in seconds.
+     */
+    public int displaySeconds() {
+        return state == PomodoroState.WORK_COMPLETED ? workDuration + extraTime : timeLeft;
+    }
+}
@@ -9,24 +9,27 @@ import org.encinet.pomodoro.service.session.PomodoroState;
 public class BreakStateHandler implements PomodoroStateHandler {
     @Override
     public void tick(PomodoroSession session, Player player) {
-        session.setTimeLeft(session.getTimeLeft() - 1);
-
-        if (session.getTimeLeft() <= 0) {
+        if (session.checkDeadline()) {
             PomodoroManager pomodoroManager = Pomodoro.getInstance().getPomodoroManager();
             if (pomodoroManager.isLocationTooFar(session, player.getLocation())) {
                 player.teleport(session.getStartLocation());
                 Pomodoro.getInstance().getLanguageManager().sendActionBar(player, "moved_too_far");
             }
             session.setState(PomodoroState.WORK, player);
-        } else if (session.getTimeLeft() <= 5) {
+        } else if (session.getTimeLeft() <= WARNING_SECONDS) {
             Pomodoro.getInstance().getSoundManager().playTimerEndWarningSound(player);
         }
     }
 
+    @Override
+    public long getNextEventNanos(PomodoroSession session) {
+        return session.getNextCountdownEventNanos(WARNING_SECONDS);
+    }
+
     @Override
     public void onEnter(PomodoroSession session, Player player, boolean isResuming) {
         if (!isResuming) {
-            session.setTimeLeft(session.getBreakDuration());
+            session.startCountdown(session.getBreakDuration());
             Pomodoro.getInstance().getLanguageManager().sendMessage(player, "messages.break_start");
         }
     }
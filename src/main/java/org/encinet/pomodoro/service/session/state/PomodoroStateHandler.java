@@ -11,14 +11,32 @@ import org.encinet.pomodoro.service.session.PomodoroState;
 public interface PomodoroStateHandler {
 
     /**
-     * Called every second when the session is in this state.
-     * This method is responsible for updating the timer and checking for state transitions.
+     * The number of seconds before a countdown ends during which a warning sound is played every second.
+     */
+    int WARNING_SECONDS = 5;
+
+    /**
+     * Called when a timed event of this state is due, as reported by {@link #getNextEventNanos(PomodoroSession)}.
+     * This method is responsible for checking the session's deadline and triggering state transitions.
+     * Remaining time is derived from the deadline, so a late call never slows the timer down.
      *
      * @param session The current Pomodoro session context.
      * @param player  The player associated with the session.
      */
     void tick(PomodoroSession session, Player player);
 
+    /**
+     * Gets the instant at which {@link #tick(PomodoroSession, Player)} next needs to run.
+     * Sessions are only visited when an event is due, so states without timed behaviour
+     * can keep the default.
+     *
+     * @param session The current Pomodoro session context.
+     * @return A {@link System#nanoTime()} instant, or {@link PomodoroSession#NO_EVENT} if nothing is scheduled.
+     */
+    default long getNextEventNanos(PomodoroSession session) {
+        return PomodoroSession.NO_EVENT;
+    }
+
     /**
      * Called when the session enters this state.
      * Use this to set up initial conditions for the state, like resetting the timer
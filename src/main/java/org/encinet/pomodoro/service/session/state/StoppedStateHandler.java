@@ -26,6 +26,9 @@ public class StoppedStateHandler implements PomodoroStateHandler {
         if (session.getTextDisplay() != null) {
             session.getTextDisplay().remove();
         }
+        if (session.getVirtualTextDisplay() != null) {
+            session.getVirtualTextDisplay().destroy();
+        }
     }
 
     @Override
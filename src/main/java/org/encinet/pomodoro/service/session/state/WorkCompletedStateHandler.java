@@ -4,20 +4,19 @@ import org.bukkit.entity.Player;
 import org.encinet.pomodoro.Pomodoro;
 import org.encinet.pomodoro.service.session.PomodoroSession;
 import org.encinet.pomodoro.service.session.PomodoroState;
+import org.encinet.pomodoro.service.storage.SessionRecord;
 import org.encinet.pomodoro.ui.WorkCompletedUI;
 
 public class WorkCompletedStateHandler implements PomodoroStateHandler {
     @Override
     public void tick(PomodoroSession session, Player player) {
-        session.setExtraTime(session.getExtraTime() + 1);
-        Pomodoro.getInstance().getPomodoroManager().getVisuals().update(player);
-        WorkCompletedUI.update(player);
+        // Overtime is derived from the completion time and shown by the regular display refresh
     }
 
     @Override
     public void onEnter(PomodoroSession session, Player player, boolean isResuming) {
         if (!isResuming) {
-            session.setExtraTime(0);
+            session.startOvertime();
             // Open the UI for the player to start the break
             WorkCompletedUI.open(player);
             Pomodoro.getInstance().getLanguageManager().sendMessage(player, "messages.work_completed");
@@ -31,7 +30,7 @@ public class WorkCompletedStateHandler implements PomodoroStateHandler {
 
     @Override
     public void onExit(PomodoroSession session, Player player) {
-        int totalFocusTime = session.getWorkDuration() + session.getExtraTime();
-        Pomodoro.getInstance().getDatabaseManager().addWorkSession(player.getUniqueId(), totalFocusTime);
+        Pomodoro.getInstance().getPlayerStatsManager().recordWorkSession(
+                session.createWorkRecord(player.getUniqueId(), SessionRecord.Outcome.COMPLETED));
     }
 }
\ No newline at end of file
@@ -8,21 +8,25 @@ import org.encinet.pomodoro.service.session.PomodoroState;
 public class WorkStateHandler implements PomodoroStateHandler {
     @Override
     public void tick(PomodoroSession session, Player player) {
-        session.setTimeLeft(session.getTimeLeft() - 1);
-
-        if (session.getTimeLeft() <= 0) {
+        if (session.checkDeadline()) {
             Pomodoro.getInstance().getSoundManager().playNextCycleSound(player);
 
             session.setState(PomodoroState.WORK_COMPLETED, player);
-        } else if (session.getTimeLeft() <= 5) {
+        } else if (session.getTimeLeft() <= WARNING_SECONDS) {
             Pomodoro.getInstance().getSoundManager().playTimerEndWarningSound(player);
         }
     }
 
+    @Override
+    public long getNextEventNanos(PomodoroSession session) {
+        return session.getNextCountdownEventNanos(WARNING_SECONDS);
+    }
+
     @Override
     public void onEnter(PomodoroSession session, Player player, boolean isResuming) {
         if (!isResuming) {
-            session.setTimeLeft(session.getWorkDuration());
+            session.startCountdown(session.getWorkDuration());
+            session.beginWorkRecord();
             Pomodoro.getInstance().getLanguageManager().sendMessage(player, "messages.work_start");
             Pomodoro.getInstance().getSoundManager().playNewRoundStartSound(player);
         }
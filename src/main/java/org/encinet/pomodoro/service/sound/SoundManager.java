@@ -2,12 +2,14 @@ package org.encinet.pomodoro.service.sound;
 
 import org.bukkit.entity.Player;
 import org.encinet.pomodoro.Pomodoro;
+import org.encinet.pomodoro.config.ConfigManager;
 import org.encinet.pomodoro.config.impl.PomodoroConfig;
 
 public class SoundManager {
+    private final ConfigManager configManager = Pomodoro.getInstance().getConfigManager();
 
     private PomodoroConfig getConfig() {
-        return Pomodoro.getInstance().getConfigManager().getConfig(PomodoroConfig.class);
+        return configManager.getPomodoroConfig();
     }
 
     private void playSound(Player player, PomodoroConfig.Sound sound) {
@@ -1,214 +1,561 @@
 package org.encinet.pomodoro.service.storage;
 
+import io.papermc.paper.threadedregions.scheduler.ScheduledTask;
+import org.bukkit.entity.Player;
 import org.encinet.pomodoro.Pomodoro;
+import org.encinet.pomodoro.config.impl.PomodoroConfig;
 import org.encinet.pomodoro.config.impl.PresetConfig;
+import org.encinet.pomodoro.service.MetricLine;
+import org.encinet.pomodoro.service.storage.backend.H2StorageBackend;
+import org.encinet.pomodoro.service.storage.backend.MemoryStorageBackend;
+import org.encinet.pomodoro.service.storage.backend.SqliteStorageBackend;
+import org.encinet.pomodoro.service.storage.backend.StorageBackend;
 
-import java.io.File;
-import java.sql.*;
-import java.util.Arrays;
+import java.sql.SQLException;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.temporal.IsoFields;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 import java.util.logging.Level;
 
+/**
+ * Stores player presets and statistics in the {@link StorageBackend} selected in the config.
+ * <p>
+ * All backend calls run on one dedicated storage thread, never on the caller's thread, so a
+ * slow disk cannot stall a server tick. Every public operation returns a {@link CompletableFuture}.
+ * Because there is a single writer, operations run in submission order, so the writes for
+ * one player are never reordered. Use {@link #thenOnPlayer} to continue with a result on the
+ * player's own scheduler.
+ * <p>
+ * Writes are not run one by one: they go through a {@link WriteBehindQueue} that coalesces
+ * them and is flushed as one transaction on a short interval, before reads, on quit and on
+ * shutdown.
+ * <p>
+ * If the backend cannot be opened, for example because a migration failed, storage is
+ * disabled until the next start: writes are rejected and reads answer with their fallback, so
+ * nothing is ever written to a database in an unknown state.
+ */
 public class DatabaseManager {
+    private static final long SHUTDOWN_TIMEOUT_SECONDS = 30;
+    // Pauses before the second and third attempt at writing a batch
+    private static final long[] WRITE_RETRY_DELAYS_MILLIS = {250, 1000};
+
     private final Pomodoro plugin;
-    private Connection connection;
+    private final StorageBackend backend;
+
+    private final ThreadPoolExecutor executor = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+            new LinkedBlockingQueue<>(), runnable -> {
+                Thread thread = new Thread(runnable, "Pomodoro-Storage");
+                thread.setDaemon(true);
+                return thread;
+            });
+
+    private final WriteBehindQueue writeQueue = new WriteBehindQueue();
+    private ScheduledTask flushTask;
+    private final List<Runnable> flushHooks = new CopyOnWriteArrayList<>();
+    private final AtomicBoolean flushRequested = new AtomicBoolean();
+    private volatile boolean closing;
+    // Set if the backend could not be opened; never cleared
+    private volatile boolean disabled;
+    // A batch whose every attempt failed, written again in front of the next flush.
+    // Only touched on the storage thread; the flag lets an otherwise empty flush retry it.
+    private WriteBehindQueue.Batch unwritten;
+    private volatile boolean hasUnwritten;
+
+    // Players known to own rows. Added to as soon as a write is queued and never removed, so a
+    // miss always means there are no rows and the query can be skipped.
+    private final Set<UUID> presetOwners = ConcurrentHashMap.newKeySet();
+    private final Set<UUID> statsOwners = ConcurrentHashMap.newKeySet();
+    private volatile boolean lookupFilterEnabled = true;
+    // Set once the owners are loaded; until then every lookup queries, queued behind the open
+    private volatile boolean knownPlayersLoaded;
+
+    private final LongAdder completedTasks = new LongAdder();
+    private final LongAdder skippedLookups = new LongAdder();
+    private final LongAdder flushedOperations = new LongAdder();
+    private final LongAdder flushedStatements = new LongAdder();
+    private final LongAdder flushedTransactions = new LongAdder();
+    private final LongAdder totalLatencyNanos = new LongAdder();
+    private final LongAccumulator maxLatencyNanos = new LongAccumulator(Math::max, 0L);
 
     public DatabaseManager(Pomodoro plugin) {
         this.plugin = plugin;
-        connect();
-        initializeDatabase();
+        PomodoroConfig config = plugin.getConfigManager().getPomodoroConfig();
+        backend = createBackend(config.getStorageBackend());
+        // Not waited for: opening may migrate the file, and every later task queues behind it
+        execute(this::openBackend);
+
+        long flushInterval = config.getFlushInterval();
+        flushTask = plugin.getServer().getAsyncScheduler().runAtFixedRate(plugin, task -> flush(),
+                flushInterval, flushInterval, TimeUnit.MILLISECONDS);
     }
 
-    private void connect() {
-        File dataFolder = plugin.getDataFolder();
-        if (!dataFolder.exists()) {
-            dataFolder.mkdirs();
+    private StorageBackend createBackend(String name) {
+        if (!plugin.getDataFolder().exists()) {
+            plugin.getDataFolder().mkdirs();
         }
-        File dbFile = new File(dataFolder, "playerdata.db");
-        try {
-            connection = DriverManager.getConnection("jdbc:sqlite:" + dbFile.getAbsolutePath());
-        } catch (SQLException e) {
-            plugin.getLogger().log(Level.SEVERE, "Could not connect to the database.", e);
-        }
-    }
-
-    private void initializeDatabase() {
-        String presetsTable = "CREATE TABLE IF NOT EXISTS presets (" +
-                "uuid TEXT NOT NULL," +
-                "key TEXT NOT NULL," +
-                "name TEXT NOT NULL," +
-                "icon TEXT NOT NULL," +
-                "enchanted BOOLEAN NOT NULL DEFAULT FALSE," +
-                "work INTEGER NOT NULL," +
-                "break INTEGER NOT NULL," +
-                "long_break INTEGER NOT NULL," +
-                "sessions INTEGER NOT NULL," +
-                "PRIMARY KEY (uuid, key)" +
-                ")";
-        String statsTable = "CREATE TABLE IF NOT EXISTS player_stats (" +
-                "uuid TEXT PRIMARY KEY," +
-                "total_focus_seconds INTEGER NOT NULL DEFAULT 0," +
-                "total_work_sessions INTEGER NOT NULL DEFAULT 0" +
-                ")";
-
-        try (Statement statement = connection.createStatement()) {
-            statement.execute(presetsTable);
-            statement.execute(statsTable);
-
-            if (!columnExists("presets", "enchanted")) {
-                statement.execute("ALTER TABLE presets ADD COLUMN enchanted BOOLEAN NOT NULL DEFAULT FALSE");
+        return switch (name) {
+            case "sqlite" -> new SqliteStorageBackend(plugin.getDataFolder(), plugin.getLogger());
+            case "h2" -> new H2StorageBackend(plugin.getDataFolder());
+            case "memory" -> {
+                plugin.getLogger().warning("Using the memory storage backend; presets and statistics are lost on restart.");
+                yield new MemoryStorageBackend();
             }
-        } catch (SQLException e) {
-            plugin.getLogger().log(Level.SEVERE, "Could not initialize database tables.", e);
-        }
+            default -> {
+                plugin.getLogger().warning("Unknown storage backend '" + name + "'; using sqlite.");
+                yield new SqliteStorageBackend(plugin.getDataFolder(), plugin.getLogger());
+            }
+        };
     }
 
-    private boolean columnExists(String tableName, String columnName) throws SQLException {
-        DatabaseMetaData md = connection.getMetaData();
-        try (ResultSet rs = md.getColumns(null, null, tableName, columnName)) {
-            return rs.next();
+    private void openBackend() {
+        try {
+            backend.open();
+        } catch (SQLException | RuntimeException e) {
+            disabled = true;
+            plugin.getLogger().log(Level.SEVERE, "Could not open the " + backend.getName() + " storage backend; "
+                    + "presets and statistics will not be loaded or saved until it opens on a later start.", e);
+            return;
         }
+        loadKnownPlayers();
+    }
+
+    /**
+     * Gets the future of a write made while storage is disabled.
+     */
+    private CompletableFuture<Void> rejectWrite() {
+        return CompletableFuture.failedFuture(disabledException());
+    }
+
+    private IllegalStateException disabledException() {
+        return new IllegalStateException("The " + backend.getName() + " storage backend could not be opened.");
     }
 
-    public Map<String, PresetConfig.Preset> getPlayerPresets(UUID uuid) {
-        Map<String, PresetConfig.Preset> presets = new HashMap<>();
-        String sql = "SELECT key, name, icon, enchanted, work, break, long_break, sessions FROM presets WHERE uuid = ?";
-        try (PreparedStatement ps = connection.prepareStatement(sql)) {
-            ps.setString(1, uuid.toString());
-            ResultSet rs = ps.executeQuery();
-            while (rs.next()) {
-                presets.put(rs.getString("key"), new PresetConfig.Preset(
-                        rs.getString("name"),
-                        rs.getString("icon"),
-                        rs.getBoolean("enchanted"),
-                        rs.getInt("work"),
-                        rs.getInt("break"),
-                        rs.getInt("long_break"),
-                        rs.getInt("sessions")
-                ));
+    /**
+     * Runs a storage task on the storage thread.
+     *
+     * @param task The task to run.
+     * @return A future completed with the task's result.
+     */
+    private <T> CompletableFuture<T> submit(Supplier<T> task) {
+        long queuedAt = System.nanoTime();
+        CompletableFuture<T> future = CompletableFuture.supplyAsync(() -> {
+            try {
+                return task.get();
+            } finally {
+                long latency = System.nanoTime() - queuedAt;
+                completedTasks.increment();
+                totalLatencyNanos.add(latency);
+                maxLatencyNanos.accumulate(latency);
             }
-        } catch (SQLException e) {
-            plugin.getLogger().log(Level.SEVERE, "Could not get player presets for " + uuid, e);
-        }
-        return presets;
-    }
-    public void savePlayerPresets(UUID uuid, Map<String, PresetConfig.Preset> presets) {
-        String sql = "INSERT INTO presets (uuid, key, name, icon, enchanted, work, break, long_break, sessions) " +
-                "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?) " +
-                "ON CONFLICT(uuid, key) DO UPDATE SET " +
-                "name = excluded.name, " +
-                "icon = excluded.icon, " +
-                "enchanted = excluded.enchanted, " +
-                "work = excluded.work, " +
-                "break = excluded.break, " +
-                "long_break = excluded.long_break, " +
-                "sessions = excluded.sessions";
+        }, executor);
+        future.whenComplete((result, throwable) -> {
+            if (throwable != null) {
+                plugin.getLogger().log(Level.SEVERE, "A storage task failed.", throwable);
+            }
+        });
+        return future;
+    }
+
+    private CompletableFuture<Void> execute(Runnable task) {
+        return submit(() -> {
+            task.run();
+            return null;
+        });
+    }
+
+    /**
+     * Continues with the result of a storage operation on the player's own scheduler, so the
+     * callback may touch the player and anything owned by their thread. The callback is
+     * dropped if the player has left by then.
+     *
+     * @param future   The storage operation.
+     * @param player   The player to continue on.
+     * @param callback The callback receiving the result.
+     */
+    public <T> void thenOnPlayer(CompletableFuture<T> future, Player player, Consumer<T> callback) {
+        future.thenAccept(result -> player.getScheduler().run(plugin, task -> callback.accept(result), null));
+    }
 
+    /**
+     * Streams the UUIDs that own preset or statistics rows into memory, so lookups for
+     * players without rows can be answered without a query.
+     */
+    private void loadKnownPlayers() {
         try {
-            connection.setAutoCommit(false);
-            try (PreparedStatement ps = connection.prepareStatement(sql)) {
-                for (Map.Entry<String, PresetConfig.Preset> entry : presets.entrySet()) {
-                    String key = entry.getKey();
-                    String name = entry.getValue().name();
-
-
-                    ps.setString(1, uuid.toString());
-                    ps.setString(2, key);
-                    ps.setString(3, name);
-                    ps.setString(4, entry.getValue().icon());
-                    ps.setBoolean(5, entry.getValue().enchanted());
-                    ps.setInt(6, entry.getValue().work());
-                    ps.setInt(7, entry.getValue().breakTime());
-                    ps.setInt(8, entry.getValue().longBreak());
-                    ps.setInt(9, entry.getValue().sessions());
-                    ps.addBatch();
+            backend.loadKnownPlayers(presetOwners, statsOwners);
+            knownPlayersLoaded = true;
+        } catch (SQLException | IllegalArgumentException e) {
+            plugin.getLogger().log(Level.SEVERE, "Could not load known players; lookups will always query.", e);
+            lookupFilterEnabled = false;
+        }
+    }
+
+    /**
+     * Checks whether a player is known to own no rows, so a lookup can be answered without a
+     * query.
+     */
+    private boolean canSkipLookup(Set<UUID> owners, UUID uuid) {
+        return lookupFilterEnabled && knownPlayersLoaded && !owners.contains(uuid);
+    }
+
+    /**
+     * Reads from the backend on the storage thread, after flushing queued writes so the read
+     * sees them. Failures are logged and answered with the fallback.
+     *
+     * @param read     The read to run.
+     * @param fallback The result if the read fails.
+     * @param failure  The message logged if the read fails.
+     * @return A future completed with the result.
+     */
+    private <T> CompletableFuture<T> read(StorageRead<T> read, T fallback, String failure) {
+        flush();
+        return submit(() -> {
+            if (disabled) {
+                return fallback;
+            }
+            try {
+                return read.run();
+            } catch (SQLException | IllegalArgumentException e) {
+                plugin.getLogger().log(Level.SEVERE, failure, e);
+                return fallback;
+            }
+        });
+    }
+
+    @FunctionalInterface
+    private interface StorageRead<T> {
+        T run() throws SQLException;
+    }
+
+    public CompletableFuture<Map<String, PresetConfig.Preset>> getPlayerPresets(UUID uuid) {
+        if (canSkipLookup(presetOwners, uuid)) {
+            skippedLookups.increment();
+            return CompletableFuture.completedFuture(new HashMap<>());
+        }
+        return read(() -> backend.loadPresets(uuid), new HashMap<>(), "Could not get player presets for " + uuid);
+    }
+
+    public CompletableFuture<Void> savePlayerPreset(UUID uuid, String key, PresetConfig.Preset preset) {
+        if (disabled) {
+            return rejectWrite();
+        }
+        presetOwners.add(uuid);
+        return writeQueue.upsert(uuid, key, preset);
+    }
+
+    public CompletableFuture<Void> deletePlayerPreset(UUID uuid, String key) {
+        if (disabled) {
+            return rejectWrite();
+        }
+        return writeQueue.delete(uuid, key);
+    }
+
+    /**
+     * Registers a task that runs before every flush, so callers that buffer changes of their
+     * own can queue them in time.
+     *
+     * @param hook The task to run.
+     */
+    public void addFlushHook(Runnable hook) {
+        flushHooks.add(hook);
+    }
+
+    /**
+     * Requests a flush on the next tick. Requests made within the same tick, such as many
+     * players quitting at once, share one flush and one transaction.
+     */
+    public void requestFlush() {
+        if (flushRequested.compareAndSet(false, true)) {
+            plugin.getServer().getGlobalRegionScheduler().run(plugin, task -> {
+                flushRequested.set(false);
+                flush();
+            });
+        }
+    }
+
+    /**
+     * Hands everything buffered in the write-behind queue to the storage thread as one
+     * transaction. Safe to call from any thread; does nothing if no writes are pending.
+     *
+     * @return A future completed once the flushed writes are committed, or completed
+     *         exceptionally if they could not be written.
+     */
+    public CompletableFuture<Void> flush() {
+        for (Runnable hook : flushHooks) {
+            hook.run();
+        }
+        // Drain and submit under one lock, so batches reach the storage thread in drain order
+        synchronized (writeQueue) {
+            WriteBehindQueue.Batch drained = writeQueue.drain();
+            if (drained == null) {
+                if (!hasUnwritten) {
+                    return CompletableFuture.completedFuture(null);
                 }
-                ps.executeBatch();
-                connection.commit();
-            } catch (SQLException e) {
-                connection.rollback();
-                plugin.getLogger().log(Level.SEVERE, "Could not save player presets for " + uuid, e);
-            } finally {
-                connection.setAutoCommit(true);
+                drained = WriteBehindQueue.Batch.empty();
             }
-        } catch (SQLException e) {
-            plugin.getLogger().log(Level.SEVERE, "Could not manage transaction for saving presets.", e);
+            WriteBehindQueue.Batch batch = drained;
+            execute(() -> writeBatch(batch)).whenComplete((result, throwable) -> {
+                if (throwable != null) {
+                    batch.committed().completeExceptionally(throwable);
+                }
+            });
+            return batch.committed();
         }
     }
 
-    public void updatePresetField(UUID uuid, String key, String field, Object value) {
-        List<String> allowedFields = Arrays.asList("name", "icon", "enchanted", "work", "break", "long_break", "sessions");
-        if (!allowedFields.contains(field)) {
-            plugin.getLogger().warning("Attempted to update an invalid or restricted preset field: " + field);
+    /**
+     * Writes a drained batch, retrying a failed transaction with a short backoff. The storage
+     * thread waits during the backoff, so later batches still commit after this one.
+     * <p>
+     * If every attempt fails, its future completes exceptionally and the batch is kept to be
+     * written in front of the next flush. Keeping it on the storage thread rather than back in
+     * the write-behind queue means batches drained in the meantime can never be overwritten by
+     * its older rows. During shutdown there is no next flush, so the changes are lost and
+     * reported as such.
+     *
+     * @param drained The batch drained by the flush.
+     */
+    private void writeBatch(WriteBehindQueue.Batch drained) {
+        WriteBehindQueue.Batch batch = unwritten != null ? WriteBehindQueue.Batch.merge(unwritten, drained) : drained;
+        unwritten = null;
+        hasUnwritten = false;
+        if (batch.operations() == 0) {
+            batch.committed().complete(null);
+            return;
+        }
+        if (disabled) {
+            // Queued before the open failed; there is nowhere safe to write them
+            batch.committed().completeExceptionally(disabledException());
             return;
         }
 
-        String sql = "UPDATE presets SET " + field + " = ? WHERE uuid = ? AND key = ?";
-        try (PreparedStatement ps = connection.prepareStatement(sql)) {
-            ps.setObject(1, value);
-            ps.setString(2, uuid.toString());
-            ps.setString(3, key);
-            ps.executeUpdate();
-        } catch (SQLException e) {
-            plugin.getLogger().log(Level.SEVERE, "Could not update preset field for " + uuid + " with key " + key, e);
+        Exception failure = null;
+        for (int attempt = 0; attempt <= WRITE_RETRY_DELAYS_MILLIS.length; attempt++) {
+            if (attempt > 0 && !sleep(WRITE_RETRY_DELAYS_MILLIS[attempt - 1])) {
+                break;
+            }
+            try {
+                int statements = backend.writeBatch(batch);
+                flushedOperations.add(batch.operations());
+                flushedStatements.add(statements);
+                flushedTransactions.increment();
+                batch.committed().complete(null);
+                return;
+            } catch (SQLException | RuntimeException e) {
+                failure = e;
+            }
+        }
+
+        if (closing) {
+            plugin.getLogger().log(Level.SEVERE, "Could not write " + batch.operations()
+                    + " queued changes during shutdown; they are lost.", failure);
+        } else {
+            unwritten = batch;
+            hasUnwritten = true;
+            plugin.getLogger().log(Level.SEVERE, "Could not write " + batch.operations()
+                    + " queued changes; they will be retried on the next flush.", failure);
         }
+        batch.committed().completeExceptionally(failure);
     }
 
-    public void deletePlayerPreset(UUID uuid, String key) {
-        String sql = "DELETE FROM presets WHERE uuid = ? AND key = ?";
-        try (PreparedStatement ps = connection.prepareStatement(sql)) {
-            ps.setString(1, uuid.toString());
-            ps.setString(2, key);
-            ps.executeUpdate();
-        } catch (SQLException e) {
-            plugin.getLogger().log(Level.SEVERE, "Could not delete player preset for " + uuid + " with key " + key, e);
+    private static boolean sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    /**
+     * Gets the date of a timestamp in the server's time zone, which the rollups are keyed by.
+     */
+    public static LocalDate toLocalDate(long epochMillis) {
+        return Instant.ofEpochMilli(epochMillis).atZone(ZoneId.systemDefault()).toLocalDate();
+    }
+
+    /**
+     * Gets the key of a day in the daily rollup: the day number counted from 1970-01-01.
+     */
+    public static int dayKey(LocalDate date) {
+        return (int) date.toEpochDay();
+    }
+
+    /**
+     * Gets the key of an ISO week in the weekly rollup, e.g. 202542 for week 42 of 2025.
+     */
+    public static int weekKey(LocalDate date) {
+        return date.get(IsoFields.WEEK_BASED_YEAR) * 100 + date.get(IsoFields.WEEK_OF_WEEK_BASED_YEAR);
+    }
+
+    /**
+     * Gets a player's focus time for the current day and ISO week, with one primary key
+     * lookup per rollup.
+     *
+     * @param uuid The UUID of the player.
+     * @return A future completed with the period statistics.
+     */
+    public CompletableFuture<PeriodStats> getPeriodStats(UUID uuid) {
+        if (canSkipLookup(statsOwners, uuid)) {
+            skippedLookups.increment();
+            return CompletableFuture.completedFuture(new PeriodStats(0, 0, 0, 0));
         }
+        LocalDate today = LocalDate.now();
+        return read(() -> backend.loadPeriodStats(uuid, dayKey(today), weekKey(today)), new PeriodStats(0, 0, 0, 0),
+                "Could not get period stats for " + uuid);
     }
 
+    /**
+     * Loads every player's focus seconds in total, today and this ISO week, for seeding the
+     * leaderboards.
+     *
+     * @return A future completed with the focus totals.
+     */
+    public CompletableFuture<FocusTotals> loadFocusTotals() {
+        LocalDate today = LocalDate.now();
+        int day = dayKey(today);
+        int week = weekKey(today);
+        return read(() -> backend.loadFocusTotals(day, week), new FocusTotals(day, week, Map.of(), Map.of(), Map.of()),
+                "Could not load focus totals.");
+    }
+
+    /**
+     * Recomputes the daily and weekly rollups from the session history.
+     *
+     * @return A future completed with the number of history rows processed.
+     */
+    public CompletableFuture<Integer> rebuildRollups() {
+        return read(backend::rebuildRollups, -1, "Could not rebuild stats rollups.");
+    }
+
+    /**
+     * Flushes the write-behind queue and drains the storage queue, then closes the backend.
+     * Called on shutdown, so pending writes are not lost.
+     */
     public void closeConnection() {
+        if (flushTask != null) {
+            flushTask.cancel();
+        }
+        closing = true;
+        CompletableFuture<Void> lastFlush = flush();
+        executor.shutdown();
         try {
-            if (connection != null && !connection.isClosed()) {
-                connection.close();
+            if (!executor.awaitTermination(SHUTDOWN_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                plugin.getLogger().warning("Storage queue did not drain in time; " + executor.getQueue().size() + " tasks were dropped.");
+                executor.shutdownNow();
             }
+        } catch (InterruptedException e) {
+            executor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+        if (!lastFlush.isDone()) {
+            plugin.getLogger().severe("The final flush did not finish; queued changes may be lost.");
+        } else if (lastFlush.isCompletedExceptionally()) {
+            plugin.getLogger().severe("The final flush failed; changes made since the last successful flush are lost.");
+        }
+        try {
+            backend.close();
         } catch (SQLException e) {
-            plugin.getLogger().log(Level.SEVERE, "Could not close database connection.", e);
+            plugin.getLogger().log(Level.SEVERE, "Could not close the " + backend.getName() + " storage backend.", e);
         }
     }
 
-    public PlayerStats getPlayerStats(UUID uuid) {
-        String sql = "SELECT total_focus_seconds, total_work_sessions FROM player_stats WHERE uuid = ?";
-        try (PreparedStatement ps = connection.prepareStatement(sql)) {
-            ps.setString(1, uuid.toString());
-            ResultSet rs = ps.executeQuery();
-            if (rs.next()) {
-                return new PlayerStats(
-                        rs.getInt("total_focus_seconds"),
-                        rs.getInt("total_work_sessions")
-                );
-            }
-        } catch (SQLException e) {
-            plugin.getLogger().log(Level.SEVERE, "Could not get player stats for " + uuid, e);
+    public CompletableFuture<PlayerStats> getPlayerStats(UUID uuid) {
+        if (canSkipLookup(statsOwners, uuid)) {
+            skippedLookups.increment();
+            return CompletableFuture.completedFuture(new PlayerStats(0, 0));
         }
-        return new PlayerStats(0, 0);
+        return read(() -> backend.loadStats(uuid), new PlayerStats(0, 0), "Could not get player stats for " + uuid);
     }
 
-    public void addWorkSession(UUID uuid, int focusSeconds) {
-        String sql = "INSERT INTO player_stats (uuid, total_focus_seconds, total_work_sessions) VALUES (?, ?, 1) " +
-                "ON CONFLICT(uuid) DO UPDATE SET " +
-                "total_focus_seconds = total_focus_seconds + excluded.total_focus_seconds, " +
-                "total_work_sessions = total_work_sessions + 1";
-        try (PreparedStatement ps = connection.prepareStatement(sql)) {
-            ps.setString(1, uuid.toString());
-            ps.setInt(2, focusSeconds);
-            ps.executeUpdate();
-        } catch (SQLException e) {
-            plugin.getLogger().log(Level.SEVERE, "Could not add work session for " + uuid, e);
+    /**
+     * Queues a finished work session for the session history. Completed sessions also add to
+     * the player's totals, in the same transaction as the history row.
+     *
+     * @param record The history record.
+     * @return A future completed once the record is committed.
+     */
+    public CompletableFuture<Void> appendSession(SessionRecord record) {
+        if (disabled) {
+            return rejectWrite();
         }
+        if (record.outcome() == SessionRecord.Outcome.COMPLETED) {
+            statsOwners.add(record.uuid());
+        }
+        return writeQueue.appendSession(record);
+    }
+
+    /**
+     * Summarizes the storage queue for the metrics report and starts a new window.
+     *
+     * @return The report lines.
+     */
+    public List<MetricLine> describeAndReset() {
+        long tasks = completedTasks.sumThenReset();
+        long latency = totalLatencyNanos.sumThenReset();
+        long max = maxLatencyNanos.getThenReset();
+        List<MetricLine> lines = new ArrayList<>();
+        lines.add(new MetricLine("storage", Map.of(
+                "backend", backend.getName(),
+                "queue", String.valueOf(executor.getQueue().size()),
+                "tasks", String.valueOf(tasks),
+                "mean", String.format("%.3f", tasks > 0 ? latency / 1e6 / tasks : 0.0),
+                "max", String.format("%.3f", max / 1e6))));
+        long operations = flushedOperations.sumThenReset();
+        long statements = flushedStatements.sumThenReset();
+        long transactions = flushedTransactions.sumThenReset();
+        lines.add(new MetricLine("skipped_lookups", Map.of(
+                "skipped", String.valueOf(skippedLookups.sumThenReset()),
+                "preset_owners", String.valueOf(presetOwners.size()),
+                "stats_owners", String.valueOf(statsOwners.size()))));
+        lines.add(new MetricLine("write_behind", Map.of(
+                "writes", String.valueOf(operations),
+                "statements", String.valueOf(statements),
+                "transactions", String.valueOf(transactions))));
+        return lines;
     }
 
+    /**
+     * A player's focus time in the current day and ISO week.
+     *
+     * @param todayFocusSeconds The focus seconds of completed sessions today.
+     * @param todayWorkSessions The number of work sessions completed today.
+     * @param weekFocusSeconds  The focus seconds of completed sessions this week.
+     * @param weekWorkSessions  The number of work sessions completed this week.
+     */
+    public record PeriodStats(int todayFocusSeconds, int todayWorkSessions, int weekFocusSeconds, int weekWorkSessions) {}
+
+    /**
+     * Every player's focus seconds, by the period they count towards.
+     *
+     * @param day    The key of the day the daily totals belong to.
+     * @param week   The key of the ISO week the weekly totals belong to.
+     * @param all    The all-time focus seconds by player.
+     * @param daily  The focus seconds of the day by player.
+     * @param weekly The focus seconds of the week by player.
+     */
+    public record FocusTotals(int day, int week, Map<UUID, Integer> all, Map<UUID, Integer> daily,
+                              Map<UUID, Integer> weekly) {}
+
     public static class PlayerStats {
         private final int totalFocusSeconds;
         private final int totalWorkSessions;
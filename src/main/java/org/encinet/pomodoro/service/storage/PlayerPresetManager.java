@@ -3,43 +3,135 @@ package org.encinet.pomodoro.service.storage;
 import org.bukkit.Material;
 import org.bukkit.entity.Player;
 import org.encinet.pomodoro.Pomodoro;
+import org.encinet.pomodoro.config.ConfigManager;
 import org.encinet.pomodoro.config.impl.PresetConfig;
 
-import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.ToIntFunction;
 
+/**
+ * Caches each online player's personal presets and tracks which of them changed.
+ * <p>
+ * Edits only update the cache and mark the preset key dirty. Dirty keys are turned into
+ * database writes just before every storage flush, and for a single player when they quit,
+ * so only presets that actually changed are written. Global presets from presets.yml are
+ * never copied into a player's rows unless the player edits them.
+ * <p>
+ * The combined view of global and personal presets is built once and cached per player.
+ * An edit updates the one changed preset in the cached view; it is only rebuilt after the
+ * player's presets are loaded or presets.yml is reloaded.
+ */
 public class PlayerPresetManager {
 
     private static final int MAX_PRESET_NAME_LENGTH = 32;
 
-    private final Map<UUID, Map<String, PresetConfig.Preset>> playerPresets = new HashMap<>();
+    private final Map<UUID, Map<String, PresetConfig.Preset>> playerPresets = new ConcurrentHashMap<>();
+    // Player -> keys of personal presets changed since they were last persisted
+    private final Map<UUID, Set<String>> dirtyPresets = new ConcurrentHashMap<>();
+    private final PreloadCache<Map<String, PresetConfig.Preset>> preloaded = new PreloadCache<>();
+    private final PresetViews views = new PresetViews();
     private final DatabaseManager databaseManager;
+    private final ConfigManager configManager;
 
     public PlayerPresetManager(Pomodoro plugin) {
         this.databaseManager = plugin.getDatabaseManager();
+        this.configManager = plugin.getConfigManager();
+        databaseManager.addFlushHook(this::persistAllDirty);
     }
 
     /**
-     * Loads a player's presets from the database into the cache.
+     * Starts loading a player's presets before they join. Called from the pre-login thread.
+     *
+     * @param uuid The UUID of the player.
+     * @return A future completed once the presets are held for the join.
+     */
+    public CompletableFuture<Void> preload(UUID uuid) {
+        return databaseManager.getPlayerPresets(uuid).thenAccept(presets -> preloaded.put(uuid, presets));
+    }
+
+    /**
+     * Loads a player's presets into the cache.
+     * Presets preloaded during pre-login are used directly. Otherwise the query runs on the
+     * storage thread and the cache is filled on the player's thread, and presets the player
+     * created while the load was pending win over the loaded rows.
      *
      * @param player The player whose presets are to be loaded.
      */
     public void loadPlayerPresets(Player player) {
-        Map<String, PresetConfig.Preset> presets = databaseManager.getPlayerPresets(player.getUniqueId());
-        playerPresets.put(player.getUniqueId(), presets);
+        UUID uuid = player.getUniqueId();
+        Map<String, PresetConfig.Preset> presets = preloaded.take(uuid);
+        if (presets != null) {
+            playerPresets.put(uuid, new ConcurrentHashMap<>(presets));
+            invalidateView(uuid);
+            return;
+        }
+        databaseManager.thenOnPlayer(databaseManager.getPlayerPresets(uuid), player, loaded -> {
+            playerPresets.merge(uuid, new ConcurrentHashMap<>(loaded), (pending, fromDatabase) -> {
+                fromDatabase.putAll(pending);
+                return fromDatabase;
+            });
+            invalidateView(uuid);
+        });
+    }
+
+    /**
+     * Drops a player's cached combined view, so the next lookup rebuilds it.
+     * Must be called after the personal presets have changed.
+     *
+     * @param uuid The UUID of the player.
+     */
+    private void invalidateView(UUID uuid) {
+        views.invalidate(uuid);
     }
 
     /**
-     * Saves all of a player's presets to the database.
-     * This method uses an "upsert" operation to efficiently insert or update presets.
+     * Marks a personal preset as changed, so it is written on the next persist, and applies
+     * the change to the player's cached view.
      *
-     * @param uuid    The UUID of the player.
-     * @param presets A map of the player's presets to save.
+     * @param uuid The UUID of the player.
+     * @param key  The key of the changed preset.
      */
-    public void savePlayerPresets(UUID uuid, Map<String, PresetConfig.Preset> presets) {
-        databaseManager.savePlayerPresets(uuid, presets);
+    private void markDirty(UUID uuid, String key) {
+        views.update(uuid, key, playerPresets::get);
+        dirtyPresets.compute(uuid, (k, keys) -> {
+            Set<String> result = keys != null ? keys : new HashSet<>();
+            result.add(key);
+            return result;
+        });
+    }
+
+    /**
+     * Queues writes for a player's changed presets: an upsert for each preset that still
+     * exists and a delete for each one that was removed.
+     * The writes are queued while the player's dirty set is locked, so a concurrent flush
+     * and quit can never both see the set, and the cache is read before it can be cleared.
+     *
+     * @param uuid The UUID of the player.
+     */
+    public void persistDirty(UUID uuid) {
+        dirtyPresets.computeIfPresent(uuid, (k, keys) -> {
+            Map<String, PresetConfig.Preset> presets = playerPresets.getOrDefault(uuid, Map.of());
+            for (String key : keys) {
+                PresetConfig.Preset preset = presets.get(key);
+                if (preset != null) {
+                    databaseManager.savePlayerPreset(uuid, key, preset);
+                } else {
+                    databaseManager.deletePlayerPreset(uuid, key);
+                }
+            }
+            return null;
+        });
+    }
+
+    private void persistAllDirty() {
+        for (UUID uuid : dirtyPresets.keySet()) {
+            persistDirty(uuid);
+        }
     }
 
     /**
@@ -50,28 +142,37 @@ public class PlayerPresetManager {
      */
     public void clearPlayerCache(UUID playerUUID) {
         playerPresets.remove(playerUUID);
+        invalidateView(playerUUID);
     }
 
     /**
      * Gets a combined view of a player's presets, including global presets.
      * Player-specific presets will overwrite global presets with the same key.
+     * <p>
+     * The view is cached, so repeated lookups allocate nothing. It is immutable and reflects
+     * the presets at the time it was built; call this again after an edit to see the change.
      *
      * @param player The player to get presets for.
-     * @return A map of combined presets.
+     * @return An unmodifiable map of combined presets.
      */
     public Map<String, PresetConfig.Preset> getPlayerPresets(Player player) {
-        Map<String, PresetConfig.Preset> combinedPresets = new HashMap<>();
-
-        // Add global presets first
-        PresetConfig globalPresets = Pomodoro.getInstance().getConfigManager().getConfig(PresetConfig.class);
-        if (globalPresets != null) {
-            combinedPresets.putAll(globalPresets.getPresets());
-        }
+        return getView(player).presets();
+    }
 
-        // Add player-specific presets, overwriting global ones if keys match
-        combinedPresets.putAll(playerPresets.getOrDefault(player.getUniqueId(), new HashMap<>()));
+    /**
+     * Gets the prefix index over a player's combined presets, used for command suggestions.
+     * Like the combined view, it is cached and kept up to date with each edit, and can be
+     * fetched from any thread.
+     *
+     * @param player The player to get the index for.
+     * @return The player's preset index.
+     */
+    public PresetIndex getPresetIndex(Player player) {
+        return getView(player).index();
+    }
 
-        return combinedPresets;
+    private PresetViews.PresetView getView(Player player) {
+        return views.get(player.getUniqueId(), configManager.getPresetConfig(), playerPresets::get);
     }
 
     /**
@@ -84,18 +185,19 @@ public class PlayerPresetManager {
      * @return The player's own preset instance. Returns null if the preset key is invalid.
      */
     public PresetConfig.Preset ensurePlayerOwnsPreset(Player player, String key) {
-        if (playerPresets.getOrDefault(player.getUniqueId(), new HashMap<>()).containsKey(key)) {
-            return getPlayerPresets(player).get(key);
+        PresetConfig.Preset owned = playerPresets.getOrDefault(player.getUniqueId(), Map.of()).get(key);
+        if (owned != null) {
+            return owned;
         }
 
         // If not owned, it must be a global preset. Let's copy it.
-        PresetConfig globalPresets = Pomodoro.getInstance().getConfigManager().getConfig(PresetConfig.class);
+        PresetConfig globalPresets = configManager.getPresetConfig();
         if (globalPresets != null && globalPresets.getPresets().containsKey(key)) {
             PresetConfig.Preset presetToCopy = globalPresets.getPresets().get(key);
 
-            Map<String, PresetConfig.Preset> presets = playerPresets.computeIfAbsent(player.getUniqueId(), k -> new HashMap<>());
+            Map<String, PresetConfig.Preset> presets = playerPresets.computeIfAbsent(player.getUniqueId(), k -> new ConcurrentHashMap<>());
             presets.put(key, presetToCopy);
-            savePlayerPresets(player.getUniqueId(), presets); // Save the whole map as we are adding a new preset
+            markDirty(player.getUniqueId(), key);
 
             return presetToCopy;
         }
@@ -115,9 +217,9 @@ public class PlayerPresetManager {
      * @param sessions  The number of sessions before a long break.
      */
     public void addPlayerPreset(Player player, String key, String name, String icon, int work, int breakTime, int longBreak, int sessions) {
-        Map<String, PresetConfig.Preset> presets = playerPresets.computeIfAbsent(player.getUniqueId(), k -> new HashMap<>());
+        Map<String, PresetConfig.Preset> presets = playerPresets.computeIfAbsent(player.getUniqueId(), k -> new ConcurrentHashMap<>());
         presets.put(key, new PresetConfig.Preset(name, icon, false, work, breakTime, longBreak, sessions));
-        savePlayerPresets(player.getUniqueId(), presets);
+        markDirty(player.getUniqueId(), key);
     }
 
     /**
@@ -128,9 +230,8 @@ public class PlayerPresetManager {
      */
     public void removePlayerPreset(Player player, String key) {
         Map<String, PresetConfig.Preset> presets = playerPresets.get(player.getUniqueId());
-        if (presets != null && presets.containsKey(key)) {
-            presets.remove(key);
-            databaseManager.deletePlayerPreset(player.getUniqueId(), key);
+        if (presets != null && presets.remove(key) != null) {
+            markDirty(player.getUniqueId(), key);
         }
     }
 
@@ -146,7 +247,7 @@ public class PlayerPresetManager {
         if (presets != null && presets.containsKey(key)) {
             PresetConfig.Preset oldPreset = presets.get(key);
             presets.put(key, new PresetConfig.Preset(newName, oldPreset.icon(), oldPreset.enchanted(), oldPreset.work(), oldPreset.breakTime(), oldPreset.longBreak(), oldPreset.sessions()));
-            databaseManager.updatePresetField(player.getUniqueId(), key, "name", newName);
+            markDirty(player.getUniqueId(), key);
         }
     }
 
@@ -169,8 +270,7 @@ public class PlayerPresetManager {
         if (presets != null && presets.containsKey(key)) {
             PresetConfig.Preset oldPreset = presets.get(key);
             presets.put(key, new PresetConfig.Preset(oldPreset.name(), newIcon, enchanted, oldPreset.work(), oldPreset.breakTime(), oldPreset.longBreak(), oldPreset.sessions()));
-            databaseManager.updatePresetField(player.getUniqueId(), key, "icon", newIcon);
-            databaseManager.updatePresetField(player.getUniqueId(), key, "enchanted", enchanted);
+            markDirty(player.getUniqueId(), key);
             return true;
         }
         return false;
@@ -191,11 +291,10 @@ public class PlayerPresetManager {
      * @param player       The player whose preset is being updated.
      * @param key          The key of the preset to update.
      * @param changeAmount The amount to change the value by (can be negative).
-     * @param dbField      The name of the database column to update.
      * @param getter       A function to get the current value of the field from a Preset object.
      * @param updater      A function to create a new Preset object with the updated value.
      */
-    private void updatePresetIntegerField(Player player, String key, int changeAmount, String dbField, ToIntFunction<PresetConfig.Preset> getter, PresetFieldUpdater updater) {
+    private void updatePresetIntegerField(Player player, String key, int changeAmount, ToIntFunction<PresetConfig.Preset> getter, PresetFieldUpdater updater) {
         Map<String, PresetConfig.Preset> presets = playerPresets.get(player.getUniqueId());
         if (presets != null && presets.containsKey(key)) {
             PresetConfig.Preset oldPreset = presets.get(key);
@@ -203,8 +302,7 @@ public class PlayerPresetManager {
             int newValue = Math.max(1, getter.applyAsInt(oldPreset) + changeAmount);
             // Update the preset in the local cache
             presets.put(key, updater.apply(oldPreset, newValue));
-            // Update the specific field in the database
-            databaseManager.updatePresetField(player.getUniqueId(), key, dbField, newValue);
+            markDirty(player.getUniqueId(), key);
         }
     }
 
@@ -216,7 +314,7 @@ public class PlayerPresetManager {
      * @param changeAmount The amount to add to the work duration (in minutes).
      */
     public void updateWorkDuration(Player player, String key, int changeAmount) {
-        updatePresetIntegerField(player, key, changeAmount, "work", PresetConfig.Preset::work,
+        updatePresetIntegerField(player, key, changeAmount, PresetConfig.Preset::work,
                 (old, val) -> new PresetConfig.Preset(old.name(), old.icon(), old.enchanted(), val, old.breakTime(), old.longBreak(), old.sessions()));
     }
 
@@ -228,7 +326,7 @@ public class PlayerPresetManager {
      * @param changeAmount The amount to add to the break duration (in minutes).
      */
     public void updateBreakDuration(Player player, String key, int changeAmount) {
-        updatePresetIntegerField(player, key, changeAmount, "break", PresetConfig.Preset::breakTime,
+        updatePresetIntegerField(player, key, changeAmount, PresetConfig.Preset::breakTime,
                 (old, val) -> new PresetConfig.Preset(old.name(), old.icon(), old.enchanted(), old.work(), val, old.longBreak(), old.sessions()));
     }
 
@@ -240,7 +338,7 @@ public class PlayerPresetManager {
      * @param changeAmount The amount to add to the long break duration (in minutes).
      */
     public void updateLongBreakDuration(Player player, String key, int changeAmount) {
-        updatePresetIntegerField(player, key, changeAmount, "long_break", PresetConfig.Preset::longBreak,
+        updatePresetIntegerField(player, key, changeAmount, PresetConfig.Preset::longBreak,
                 (old, val) -> new PresetConfig.Preset(old.name(), old.icon(), old.enchanted(), old.work(), old.breakTime(), val, old.sessions()));
     }
 
@@ -252,7 +350,7 @@ public class PlayerPresetManager {
      * @param changeAmount The amount to add to the number of sessions.
      */
     public void updateSessions(Player player, String key, int changeAmount) {
-        updatePresetIntegerField(player, key, changeAmount, "sessions", PresetConfig.Preset::sessions,
+        updatePresetIntegerField(player, key, changeAmount, PresetConfig.Preset::sessions,
                 (old, val) -> new PresetConfig.Preset(old.name(), old.icon(), old.enchanted(), old.work(), old.breakTime(), old.longBreak(), val));
     }
 
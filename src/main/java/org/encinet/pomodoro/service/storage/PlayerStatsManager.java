@@ -0,0 +1,173 @@
+package org.encinet.pomodoro.service.storage;
+
+import org.bukkit.Bukkit;
+import org.bukkit.entity.Player;
+import org.encinet.pomodoro.Pomodoro;
+import org.encinet.pomodoro.service.leaderboard.LeaderboardManager;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Caches the statistics of online players.
+ * <p>
+ * Statistics are preloaded during pre-login where possible, so opening the main menu does not
+ * wait for the database. Completed work sessions update the cached totals directly, alongside
+ * the queued database write.
+ * <p>
+ * A load only sees sessions that were queued before its read flushed the write-behind queue.
+ * While a player's load is in flight, sessions they complete are collected and added to the
+ * loaded totals before they are cached. Queuing a session and starting a load are ordered by
+ * one lock, so every session is counted exactly once.
+ */
+public class PlayerStatsManager {
+    private final Map<UUID, DatabaseManager.PlayerStats> playerStats = new ConcurrentHashMap<>();
+    private final PreloadCache<CompletableFuture<DatabaseManager.PlayerStats>> preloaded = new PreloadCache<>();
+    private final DatabaseManager databaseManager;
+    private final LeaderboardManager leaderboardManager;
+
+    // Guarded by loadOrder: loads in flight, and the sessions completed while each was in flight
+    private final Object loadOrder = new Object();
+    private final Map<UUID, CompletableFuture<DatabaseManager.PlayerStats>> loading = new HashMap<>();
+    private final Map<UUID, DatabaseManager.PlayerStats> missedSessions = new HashMap<>();
+
+    public PlayerStatsManager(Pomodoro plugin) {
+        this.databaseManager = plugin.getDatabaseManager();
+        this.leaderboardManager = plugin.getLeaderboardManager();
+    }
+
+    /**
+     * Starts loading a player's statistics before they join. Called from the pre-login thread.
+     * The load is held for the join even if it finishes after the pre-login gave up waiting.
+     *
+     * @param uuid The UUID of the player.
+     * @return A future completed once the statistics are loaded.
+     */
+    public CompletableFuture<Void> preload(UUID uuid) {
+        CompletableFuture<DatabaseManager.PlayerStats> load = databaseManager.getPlayerStats(uuid);
+        preloaded.put(uuid, load);
+        return load.thenAccept(stats -> {
+        });
+    }
+
+    /**
+     * Puts a joining player's statistics into the cache from the preload, as soon as it has
+     * finished. Without a preload they are loaded lazily the first time they are requested.
+     *
+     * @param player The joining player.
+     */
+    public void loadPlayerStats(Player player) {
+        CompletableFuture<DatabaseManager.PlayerStats> preload = preloaded.take(player.getUniqueId());
+        if (preload != null) {
+            synchronized (loadOrder) {
+                track(player.getUniqueId(), preload);
+            }
+        }
+    }
+
+    /**
+     * Gets a player's statistics, from the cache if possible. A load already in flight for
+     * the player is shared rather than started again.
+     *
+     * @param uuid The UUID of the player.
+     * @return A future completed with the statistics.
+     */
+    public CompletableFuture<DatabaseManager.PlayerStats> getPlayerStats(UUID uuid) {
+        DatabaseManager.PlayerStats stats = playerStats.get(uuid);
+        if (stats != null) {
+            return CompletableFuture.completedFuture(stats);
+        }
+        synchronized (loadOrder) {
+            CompletableFuture<DatabaseManager.PlayerStats> inFlight = loading.get(uuid);
+            if (inFlight != null) {
+                return inFlight;
+            }
+            // The read flushes the queued sessions while the lock is held
+            return track(uuid, databaseManager.getPlayerStats(uuid));
+        }
+    }
+
+    /**
+     * Caches the result of a load once it finishes, with the sessions completed while it was in
+     * flight added. Must be called while holding {@link #loadOrder}.
+     *
+     * @param uuid The UUID of the player.
+     * @param load The load.
+     * @return A future completed with the statistics that were cached.
+     */
+    private CompletableFuture<DatabaseManager.PlayerStats> track(UUID uuid, CompletableFuture<DatabaseManager.PlayerStats> load) {
+        missedSessions.putIfAbsent(uuid, new DatabaseManager.PlayerStats(0, 0));
+        CompletableFuture<DatabaseManager.PlayerStats> tracked = load.thenApply(loaded -> {
+            synchronized (loadOrder) {
+                loading.remove(uuid);
+                DatabaseManager.PlayerStats missed = missedSessions.remove(uuid);
+                DatabaseManager.PlayerStats total = missed != null
+                        ? add(loaded, missed.getTotalFocusSeconds(), missed.getTotalWorkSessions())
+                        : loaded;
+                // Only online players are cached; they are cleared again when they quit
+                if (Bukkit.getPlayer(uuid) == null) {
+                    return total;
+                }
+                DatabaseManager.PlayerStats cached = playerStats.putIfAbsent(uuid, total);
+                return cached != null ? cached : total;
+            }
+        });
+        // An already finished load was cached above, on this thread
+        if (!tracked.isDone()) {
+            loading.put(uuid, tracked);
+        }
+        return tracked;
+    }
+
+    private static DatabaseManager.PlayerStats add(DatabaseManager.PlayerStats stats, int focusSeconds, int workSessions) {
+        return new DatabaseManager.PlayerStats(stats.getTotalFocusSeconds() + focusSeconds,
+                stats.getTotalWorkSessions() + workSessions);
+    }
+
+    /**
+     * Records a finished work session: completed sessions update the cached totals, or the
+     * totals of a load in flight, and the leaderboards. Every session is queued for the
+     * session history.
+     *
+     * @param record The history record of the work session.
+     */
+    public void recordWorkSession(SessionRecord record) {
+        synchronized (loadOrder) {
+            if (record.outcome() == SessionRecord.Outcome.COMPLETED) {
+                int focusSeconds = record.countedFocusSeconds();
+                if (playerStats.computeIfPresent(record.uuid(), (k, stats) -> add(stats, focusSeconds, 1)) == null) {
+                    missedSessions.computeIfPresent(record.uuid(), (k, missed) -> add(missed, focusSeconds, 1));
+                }
+            }
+            databaseManager.appendSession(record);
+            // Under the same lock, so a leaderboard reseed counts each session exactly once
+            leaderboardManager.recordWorkSession(record);
+        }
+    }
+
+    /**
+     * Reloads the daily and weekly leaderboards from the database after their rollups were
+     * rebuilt. The cached totals are kept: they come from the player totals, which a rebuild
+     * does not change.
+     *
+     * @return A future completed once the leaderboards are replaced.
+     */
+    public CompletableFuture<Void> reseedLeaderboards() {
+        synchronized (loadOrder) {
+            // The load flushes the queued sessions while the lock is held
+            return leaderboardManager.reseedPeriods(databaseManager::loadFocusTotals);
+        }
+    }
+
+    /**
+     * Clears a player's statistics from the cache when they leave.
+     *
+     * @param uuid The UUID of the player.
+     */
+    public void clearPlayerCache(UUID uuid) {
+        playerStats.remove(uuid);
+    }
+}
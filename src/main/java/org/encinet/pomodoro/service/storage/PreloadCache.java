@@ -0,0 +1,43 @@
+package org.encinet.pomodoro.service.storage;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Holds data loaded during pre-login until the player actually joins.
+ * <p>
+ * A login can still fail after the pre-login event (another plugin denies it, the client
+ * disconnects), in which case nobody ever takes the entry. Entries therefore expire, and
+ * expired entries are purged whenever a new one is stored.
+ *
+ * @param <T> The type of preloaded data.
+ */
+public class PreloadCache<T> {
+    private static final long EXPIRY_NANOS = TimeUnit.SECONDS.toNanos(60);
+
+    private record Entry<T>(T value, long loadedAtNanos) {}
+
+    private final Map<UUID, Entry<T>> entries = new ConcurrentHashMap<>();
+
+    public void put(UUID uuid, T value) {
+        long now = System.nanoTime();
+        entries.values().removeIf(entry -> now - entry.loadedAtNanos() > EXPIRY_NANOS);
+        entries.put(uuid, new Entry<>(value, now));
+    }
+
+    /**
+     * Removes and returns the preloaded data for a player.
+     *
+     * @param uuid The UUID of the player.
+     * @return The data, or null if nothing was preloaded or the entry has expired.
+     */
+    public T take(UUID uuid) {
+        Entry<T> entry = entries.remove(uuid);
+        if (entry == null || System.nanoTime() - entry.loadedAtNanos() > EXPIRY_NANOS) {
+            return null;
+        }
+        return entry.value();
+    }
+}
@@ -0,0 +1,191 @@
+package org.encinet.pomodoro.service.storage;
+
+import net.kyori.adventure.text.minimessage.MiniMessage;
+import org.encinet.pomodoro.config.impl.PresetConfig;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * An immutable prefix index over a player's preset keys and display names.
+ * <p>
+ * Every key and name is stored lowercased, names with their MiniMessage tags stripped,
+ * in one sorted array, so the presets matching a prefix sit next to each other and are
+ * found with a binary search. The index is built together with the player's combined
+ * preset view and replaced with it, so it can be read from any thread. When a single preset
+ * changes, the next index is derived from the previous one by removing and inserting that
+ * preset's terms, instead of being built again.
+ */
+public final class PresetIndex {
+    public static final PresetIndex EMPTY = new PresetIndex(new String[0], new String[0], Map.of(), Map.of());
+
+    // Sorted lowercase terms, and the preset key each term belongs to
+    private final String[] terms;
+    private final String[] keys;
+    private final Map<String, PresetConfig.Preset> presets;
+    // Display names with their MiniMessage tags stripped, by preset key
+    private final Map<String, String> names;
+
+    private PresetIndex(String[] terms, String[] keys, Map<String, PresetConfig.Preset> presets, Map<String, String> names) {
+        this.terms = terms;
+        this.keys = keys;
+        this.presets = presets;
+        this.names = names;
+    }
+
+    /**
+     * Builds an index over the given presets.
+     *
+     * @param presets The presets to index, by key. The map must not change afterwards.
+     * @return The index.
+     */
+    static PresetIndex of(Map<String, PresetConfig.Preset> presets) {
+        if (presets.isEmpty()) {
+            return EMPTY;
+        }
+        List<String[]> entries = new ArrayList<>(presets.size() * 2);
+        Map<String, String> names = new HashMap<>();
+        presets.forEach((key, preset) -> {
+            String name = stripName(preset);
+            if (name != null) {
+                names.put(key, name);
+            }
+            for (String term : termsOf(key, name)) {
+                entries.add(new String[]{term, key});
+            }
+        });
+        entries.sort(Comparator.comparing(entry -> entry[0]));
+
+        String[] terms = new String[entries.size()];
+        String[] keys = new String[entries.size()];
+        for (int i = 0; i < entries.size(); i++) {
+            terms[i] = entries.get(i)[0];
+            keys[i] = entries.get(i)[1];
+        }
+        return new PresetIndex(terms, keys, presets, names);
+    }
+
+    /**
+     * Derives the index after one preset was added, changed or removed. The preset's old terms
+     * are removed and its new ones inserted at their sorted positions, so only its own name is
+     * stripped of tags.
+     *
+     * @param presets The presets after the change, by key. The map must not change afterwards.
+     * @param key     The key of the changed preset, which is absent from {@code presets} if it
+     *                was removed.
+     * @return The updated index.
+     */
+    PresetIndex with(Map<String, PresetConfig.Preset> presets, String key) {
+        if (presets.isEmpty()) {
+            return EMPTY;
+        }
+        List<String> newTerms = new ArrayList<>(Arrays.asList(terms));
+        List<String> newKeys = new ArrayList<>(Arrays.asList(keys));
+        Map<String, String> newNames = new HashMap<>(names);
+        if (this.presets.containsKey(key)) {
+            for (String term : termsOf(key, newNames.remove(key))) {
+                int i = lowerBound(newTerms, term);
+                while (!newKeys.get(i).equals(key)) {
+                    i++;
+                }
+                newTerms.remove(i);
+                newKeys.remove(i);
+            }
+        }
+        PresetConfig.Preset preset = presets.get(key);
+        if (preset != null) {
+            String name = stripName(preset);
+            if (name != null) {
+                newNames.put(key, name);
+            }
+            for (String term : termsOf(key, name)) {
+                int i = lowerBound(newTerms, term);
+                newTerms.add(i, term);
+                newKeys.add(i, key);
+            }
+        }
+        return new PresetIndex(newTerms.toArray(new String[0]), newKeys.toArray(new String[0]), presets, newNames);
+    }
+
+    /**
+     * Gets the text a player sees for a preset's name.
+     *
+     * @return The name with its MiniMessage tags stripped, or null if the preset has none.
+     */
+    private static String stripName(PresetConfig.Preset preset) {
+        // Names are MiniMessage strings; match on the text the player actually sees
+        return preset.name() != null ? MiniMessage.miniMessage().stripTags(preset.name()) : null;
+    }
+
+    /**
+     * Gets the lowercase terms a preset is found by: its key, and its display name unless
+     * that is empty or the same as the key.
+     */
+    private static List<String> termsOf(String key, String name) {
+        String keyTerm = key.toLowerCase(Locale.ROOT);
+        if (name == null || name.isEmpty() || name.equalsIgnoreCase(key)) {
+            return List.of(keyTerm);
+        }
+        return List.of(keyTerm, name.toLowerCase(Locale.ROOT));
+    }
+
+    /**
+     * Finds the presets whose key or display name starts with a prefix, ignoring case.
+     *
+     * @param prefix The prefix to match.
+     * @return The keys of the matching presets, each listed once.
+     */
+    public List<String> find(String prefix) {
+        String lowerPrefix = prefix.toLowerCase(Locale.ROOT);
+        Set<String> matches = new LinkedHashSet<>();
+        for (int i = lowerBound(Arrays.asList(terms), lowerPrefix); i < terms.length && terms[i].startsWith(lowerPrefix); i++) {
+            matches.add(keys[i]);
+        }
+        return new ArrayList<>(matches);
+    }
+
+    /**
+     * Gets an indexed preset by its key.
+     *
+     * @param key The preset key.
+     * @return The preset, or null if it is not in the index.
+     */
+    public PresetConfig.Preset get(String key) {
+        return presets.get(key);
+    }
+
+    /**
+     * Gets the display name of an indexed preset, as shown in suggestion tooltips.
+     *
+     * @param key The preset key.
+     * @return The name with its MiniMessage tags stripped, or null if the preset has no name
+     * or is not in the index.
+     */
+    public String displayName(String key) {
+        return names.get(key);
+    }
+
+    /**
+     * Finds the first of the sorted terms that is not less than the given one.
+     */
+    private static int lowerBound(List<String> terms, String term) {
+        int low = 0;
+        int high = terms.size();
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (terms.get(mid).compareTo(term) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+}
@@ -0,0 +1,113 @@
+package org.encinet.pomodoro.service.storage;
+
+import org.encinet.pomodoro.config.impl.PresetConfig;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Caches each player's global and personal presets merged into one view.
+ * <p>
+ * A view is built on first use and reused until it is invalidated or presets.yml is
+ * reloaded, which replaces the {@link PresetConfig} instance it was built from. A change to
+ * a single personal preset is applied to the cached view instead of rebuilding it.
+ */
+class PresetViews {
+    private final Map<UUID, PresetView> views = new ConcurrentHashMap<>();
+
+    /**
+     * Gets a player's view, building it if none is cached for the current global presets.
+     *
+     * @param uuid     The UUID of the player.
+     * @param globals  The current global presets.
+     * @param personal Looks up the player's personal presets, or null if they have none.
+     * @return The player's view.
+     */
+    PresetView get(UUID uuid, PresetConfig globals, Function<UUID, Map<String, PresetConfig.Preset>> personal) {
+        PresetView view = views.get(uuid);
+        if (view == null || view.globals() != globals) {
+            // presets.yml is loaded into a new PresetConfig on reload, so a view built from
+            // another instance is stale
+            view = views.compute(uuid, (k, cached) -> cached != null && cached.globals() == globals
+                    ? cached
+                    : PresetView.of(globals, personal.apply(uuid)));
+        }
+        return view;
+    }
+
+    /**
+     * Drops a player's cached view, so the next lookup rebuilds it.
+     * Must be called after the personal presets have changed: removing blocks while a
+     * rebuild is in progress, so a view built from the old presets is never left behind.
+     *
+     * @param uuid The UUID of the player.
+     */
+    void invalidate(UUID uuid) {
+        views.remove(uuid);
+    }
+
+    /**
+     * Applies a change to one of a player's personal presets to their cached view, if one is
+     * cached. Must be called after the personal presets have changed: like
+     * {@link #invalidate(UUID)}, it blocks while a rebuild is in progress, so the change is
+     * never lost.
+     *
+     * @param uuid     The UUID of the player.
+     * @param key      The key of the added, changed or removed preset.
+     * @param personal Looks up the player's personal presets, or null if they have none.
+     */
+    void update(UUID uuid, String key, Function<UUID, Map<String, PresetConfig.Preset>> personal) {
+        views.computeIfPresent(uuid, (k, view) -> view.with(key, personal.apply(uuid)));
+    }
+
+    /**
+     * A player's global and personal presets merged into one unmodifiable map.
+     *
+     * @param globals The global presets the view was built from, used to detect a reload.
+     * @param presets The combined presets.
+     * @param index   The prefix index over the combined presets.
+     */
+    record PresetView(PresetConfig globals, Map<String, PresetConfig.Preset> presets, PresetIndex index) {
+        static PresetView of(PresetConfig globals, Map<String, PresetConfig.Preset> personal) {
+            Map<String, PresetConfig.Preset> combined = new HashMap<>();
+            if (globals != null) {
+                combined.putAll(globals.getPresets());
+            }
+            if (personal != null) {
+                combined.putAll(personal);
+            }
+            Map<String, PresetConfig.Preset> presets = Collections.unmodifiableMap(combined);
+            return new PresetView(globals, presets, PresetIndex.of(presets));
+        }
+
+        /**
+         * Derives the view after one personal preset was added, changed or removed. A removed
+         * personal preset uncovers the global preset with the same key, if there is one.
+         *
+         * @param key      The key of the changed preset.
+         * @param personal The player's personal presets after the change, or null if they have none.
+         * @return The updated view.
+         */
+        PresetView with(String key, Map<String, PresetConfig.Preset> personal) {
+            PresetConfig.Preset preset = personal != null ? personal.get(key) : null;
+            if (preset == null && globals != null) {
+                preset = globals.getPresets().get(key);
+            }
+            if (preset == presets.get(key)) {
+                return this;
+            }
+            Map<String, PresetConfig.Preset> combined = new HashMap<>(presets);
+            if (preset != null) {
+                combined.put(key, preset);
+            } else {
+                combined.remove(key);
+            }
+            Map<String, PresetConfig.Preset> updated = Collections.unmodifiableMap(combined);
+            return new PresetView(globals, updated, index.with(updated, key));
+        }
+    }
+}
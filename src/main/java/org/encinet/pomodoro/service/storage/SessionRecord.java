@@ -0,0 +1,42 @@
+package org.encinet.pomodoro.service.storage;
+
+import java.util.UUID;
+
+/**
+ * One finished work session, as appended to the session history.
+ *
+ * @param uuid         The UUID of the player.
+ * @param startedAt    When the work session started, in epoch milliseconds.
+ * @param endedAt      When the work session ended, in epoch milliseconds.
+ * @param presetKey    The key of the preset that was running.
+ * @param focusSeconds The focus time in seconds, excluding overtime.
+ * @param extraSeconds The overtime in seconds spent before starting the break.
+ * @param pauses       How many times the work session was paused.
+ * @param outcome      How the work session ended.
+ */
+public record SessionRecord(UUID uuid, long startedAt, long endedAt, String presetKey, int focusSeconds,
+                            int extraSeconds, int pauses, Outcome outcome) {
+
+    public enum Outcome {
+        COMPLETED,
+        STOPPED;
+
+        /**
+         * Gets the value stored in the outcome column.
+         *
+         * @return The lowercase outcome name.
+         */
+        public String getColumnValue() {
+            return name().toLowerCase();
+        }
+    }
+
+    /**
+     * Gets the focus time counted towards the player's totals. Only completed sessions count.
+     *
+     * @return The focus and overtime seconds of a completed session, or 0.
+     */
+    public int countedFocusSeconds() {
+        return outcome == Outcome.COMPLETED ? focusSeconds + extraSeconds : 0;
+    }
+}
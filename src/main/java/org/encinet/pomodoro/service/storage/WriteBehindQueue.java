@@ -0,0 +1,162 @@
+package org.encinet.pomodoro.service.storage;
+
+import org.encinet.pomodoro.config.impl.PresetConfig;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Buffers preset and statistics writes until the next flush, folding repeated writes to the
+ * same row into one.
+ * <p>
+ * Pending preset changes are kept per (uuid, key) row, and a later upsert or delete replaces
+ * whatever was queued for the row before it. Session history records are appended in order,
+ * and the totals of completed sessions are summed per player. A flush drains
+ * everything into one {@link Batch} that is written in a single transaction.
+ */
+public class WriteBehindQueue {
+    public record RowKey(UUID uuid, String key) {}
+
+    /**
+     * The pending change for one preset row: an upsert or a delete.
+     */
+    public static final class PendingRow {
+        PresetConfig.Preset upsert;
+        boolean delete;
+
+        /**
+         * Gets the preset to write.
+         *
+         * @return The preset, or null if the row is deleted.
+         */
+        public PresetConfig.Preset getUpsert() {
+            return upsert;
+        }
+
+        public boolean isDelete() {
+            return delete;
+        }
+    }
+
+    public static final class StatsDelta {
+        int focusSeconds;
+        int workSessions;
+
+        public int getFocusSeconds() {
+            return focusSeconds;
+        }
+
+        public int getWorkSessions() {
+            return workSessions;
+        }
+    }
+
+    /**
+     * Everything drained by one flush.
+     *
+     * @param rows       The pending preset rows.
+     * @param history    The session history records to append.
+     * @param stats      The pending statistics increments per player.
+     * @param operations The number of writes that were queued.
+     * @param committed  Completed once the batch is committed.
+     */
+    public record Batch(Map<RowKey, PendingRow> rows, List<SessionRecord> history, Map<UUID, StatsDelta> stats, int operations,
+                 CompletableFuture<Void> committed) {
+
+        /**
+         * Creates a batch with no writes.
+         *
+         * @return The empty batch.
+         */
+        public static Batch empty() {
+            return new Batch(Map.of(), List.of(), Map.of(), 0, new CompletableFuture<>());
+        }
+
+        /**
+         * Combines a batch that could not be written with the batch drained after it, so both
+         * are written in one transaction. Preset rows changed again in the later batch keep the
+         * newer value, history stays in order and statistics increments are added together.
+         * Neither batch is modified.
+         *
+         * @param older The batch that could not be written.
+         * @param newer The batch drained after it.
+         * @return The combined batch, completing the newer batch's future when committed.
+         */
+        public static Batch merge(Batch older, Batch newer) {
+            Map<RowKey, PendingRow> rows = new LinkedHashMap<>(older.rows());
+            rows.putAll(newer.rows());
+            List<SessionRecord> history = new ArrayList<>(older.history());
+            history.addAll(newer.history());
+            Map<UUID, StatsDelta> stats = new LinkedHashMap<>();
+            addStats(stats, older.stats());
+            addStats(stats, newer.stats());
+            return new Batch(rows, history, stats, older.operations() + newer.operations(), newer.committed());
+        }
+
+        private static void addStats(Map<UUID, StatsDelta> target, Map<UUID, StatsDelta> increments) {
+            increments.forEach((uuid, increment) -> {
+                StatsDelta delta = target.computeIfAbsent(uuid, k -> new StatsDelta());
+                delta.focusSeconds += increment.focusSeconds;
+                delta.workSessions += increment.workSessions;
+            });
+        }
+    }
+
+    private Map<RowKey, PendingRow> rows = new LinkedHashMap<>();
+    private List<SessionRecord> history = new ArrayList<>();
+    private Map<UUID, StatsDelta> stats = new LinkedHashMap<>();
+    private int operations;
+    private CompletableFuture<Void> committed = new CompletableFuture<>();
+
+    synchronized CompletableFuture<Void> upsert(UUID uuid, String key, PresetConfig.Preset preset) {
+        PendingRow row = row(uuid, key);
+        row.delete = false;
+        row.upsert = preset;
+        return committed;
+    }
+
+    synchronized CompletableFuture<Void> delete(UUID uuid, String key) {
+        PendingRow row = row(uuid, key);
+        row.upsert = null;
+        row.delete = true;
+        return committed;
+    }
+
+    synchronized CompletableFuture<Void> appendSession(SessionRecord record) {
+        operations++;
+        history.add(record);
+        if (record.outcome() == SessionRecord.Outcome.COMPLETED) {
+            StatsDelta delta = stats.computeIfAbsent(record.uuid(), k -> new StatsDelta());
+            delta.focusSeconds += record.countedFocusSeconds();
+            delta.workSessions++;
+        }
+        return committed;
+    }
+
+    private PendingRow row(UUID uuid, String key) {
+        operations++;
+        return rows.computeIfAbsent(new RowKey(uuid, key), k -> new PendingRow());
+    }
+
+    /**
+     * Takes everything queued so far and starts a new buffer.
+     *
+     * @return The drained batch, or null if nothing is pending.
+     */
+    synchronized Batch drain() {
+        if (operations == 0) {
+            return null;
+        }
+        Batch batch = new Batch(rows, history, stats, operations, committed);
+        rows = new LinkedHashMap<>();
+        history = new ArrayList<>();
+        stats = new LinkedHashMap<>();
+        operations = 0;
+        committed = new CompletableFuture<>();
+        return batch;
+    }
+}
@@ -0,0 +1,130 @@
+package org.encinet.pomodoro.service.storage.backend;
+
+import java.io.File;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.util.List;
+
+/**
+ * Stores everything in an embedded H2 file database in the plugin folder.
+ * <p>
+ * H2 is not bundled with the server; the plugin loader downloads it at startup when this
+ * backend is selected. {@code key} and {@code day} are reserved words in H2, so they are
+ * declared as plain identifiers to keep the column names shared with SQLite.
+ */
+public class H2StorageBackend extends JdbcStorageBackend {
+    private static final String DRIVER = "org.h2.Driver";
+
+    private final File file;
+
+    public H2StorageBackend(File dataFolder) {
+        this.file = new File(dataFolder, "playerdata");
+    }
+
+    @Override
+    public String getName() {
+        return "h2";
+    }
+
+    @Override
+    protected Connection connect() throws SQLException {
+        try {
+            Class.forName(DRIVER);
+        } catch (ClassNotFoundException e) {
+            throw new SQLException("The H2 driver is not available; restart the server after selecting the h2 backend.", e);
+        }
+        // The plugin closes the database itself on disable, after the last flush
+        return DriverManager.getConnection("jdbc:h2:file:" + file.getAbsolutePath()
+                + ";NON_KEYWORDS=KEY,DAY;DB_CLOSE_ON_EXIT=FALSE");
+    }
+
+    @Override
+    protected List<String> getSchema() {
+        return List.of(
+                "CREATE TABLE IF NOT EXISTS presets (" +
+                        "uuid VARCHAR(36) NOT NULL," +
+                        "key VARCHAR NOT NULL," +
+                        "name VARCHAR NOT NULL," +
+                        "icon VARCHAR NOT NULL," +
+                        "enchanted BOOLEAN NOT NULL DEFAULT FALSE," +
+                        "work INTEGER NOT NULL," +
+                        "break INTEGER NOT NULL," +
+                        "long_break INTEGER NOT NULL," +
+                        "sessions INTEGER NOT NULL," +
+                        "PRIMARY KEY (uuid, key)" +
+                        ")",
+                "CREATE TABLE IF NOT EXISTS player_stats (" +
+                        "uuid VARCHAR(36) PRIMARY KEY," +
+                        "total_focus_seconds INTEGER NOT NULL DEFAULT 0," +
+                        "total_work_sessions INTEGER NOT NULL DEFAULT 0" +
+                        ")",
+                "CREATE TABLE IF NOT EXISTS session_history (" +
+                        "id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY," +
+                        "uuid VARCHAR(36) NOT NULL," +
+                        "started_at BIGINT NOT NULL," +
+                        "ended_at BIGINT NOT NULL," +
+                        "preset_key VARCHAR NOT NULL," +
+                        "focus_seconds INTEGER NOT NULL," +
+                        "extra_seconds INTEGER NOT NULL," +
+                        "pauses INTEGER NOT NULL," +
+                        "outcome VARCHAR(16) NOT NULL" +
+                        ")",
+                "CREATE INDEX IF NOT EXISTS idx_session_history_uuid_started_at " +
+                        "ON session_history (uuid, started_at)",
+                "CREATE TABLE IF NOT EXISTS stats_daily (" +
+                        "uuid VARCHAR(36) NOT NULL," +
+                        "day INTEGER NOT NULL," +
+                        "focus_seconds INTEGER NOT NULL DEFAULT 0," +
+                        "work_sessions INTEGER NOT NULL DEFAULT 0," +
+                        "PRIMARY KEY (uuid, day)" +
+                        ")",
+                "CREATE TABLE IF NOT EXISTS stats_weekly (" +
+                        "uuid VARCHAR(36) NOT NULL," +
+                        "week INTEGER NOT NULL," +
+                        "focus_seconds INTEGER NOT NULL DEFAULT 0," +
+                        "work_sessions INTEGER NOT NULL DEFAULT 0," +
+                        "PRIMARY KEY (uuid, week)" +
+                        ")"
+        );
+    }
+
+    // H2 cannot infer the types of bare parameters in a VALUES list, hence the casts
+
+    @Override
+    protected String getPresetUpsert() {
+        return "MERGE INTO presets t USING (VALUES (CAST(? AS VARCHAR(36)), CAST(? AS VARCHAR), CAST(? AS VARCHAR), " +
+                "CAST(? AS VARCHAR), CAST(? AS BOOLEAN), CAST(? AS INTEGER), CAST(? AS INTEGER), CAST(? AS INTEGER), " +
+                "CAST(? AS INTEGER))) AS s (uuid, key, name, icon, enchanted, work, break, long_break, sessions) " +
+                "ON t.uuid = s.uuid AND t.key = s.key " +
+                "WHEN MATCHED THEN UPDATE SET " +
+                "name = s.name, icon = s.icon, enchanted = s.enchanted, work = s.work, " +
+                "break = s.break, long_break = s.long_break, sessions = s.sessions " +
+                "WHEN NOT MATCHED THEN INSERT (uuid, key, name, icon, enchanted, work, break, long_break, sessions) " +
+                "VALUES (s.uuid, s.key, s.name, s.icon, s.enchanted, s.work, s.break, s.long_break, s.sessions)";
+    }
+
+    @Override
+    protected String getStatsUpsert() {
+        return "MERGE INTO player_stats t USING (VALUES (CAST(? AS VARCHAR(36)), CAST(? AS INTEGER), CAST(? AS INTEGER))) " +
+                "AS s (uuid, focus_seconds, work_sessions) " +
+                "ON t.uuid = s.uuid " +
+                "WHEN MATCHED THEN UPDATE SET " +
+                "total_focus_seconds = t.total_focus_seconds + s.focus_seconds, " +
+                "total_work_sessions = t.total_work_sessions + s.work_sessions " +
+                "WHEN NOT MATCHED THEN INSERT (uuid, total_focus_seconds, total_work_sessions) " +
+                "VALUES (s.uuid, s.focus_seconds, s.work_sessions)";
+    }
+
+    @Override
+    protected String getRollupUpsert(String table, String periodColumn) {
+        return "MERGE INTO " + table + " t USING (VALUES (CAST(? AS VARCHAR(36)), CAST(? AS INTEGER), " +
+                "CAST(? AS INTEGER), CAST(? AS INTEGER))) AS s (uuid, period, focus_seconds, work_sessions) " +
+                "ON t.uuid = s.uuid AND t." + periodColumn + " = s.period " +
+                "WHEN MATCHED THEN UPDATE SET " +
+                "focus_seconds = t.focus_seconds + s.focus_seconds, " +
+                "work_sessions = t.work_sessions + s.work_sessions " +
+                "WHEN NOT MATCHED THEN INSERT (uuid, " + periodColumn + ", focus_seconds, work_sessions) " +
+                "VALUES (s.uuid, s.period, s.focus_seconds, s.work_sessions)";
+    }
+}
@@ -0,0 +1,396 @@
+package org.encinet.pomodoro.service.storage.backend;
+
+import org.encinet.pomodoro.config.impl.PresetConfig;
+import org.encinet.pomodoro.service.storage.DatabaseManager;
+import org.encinet.pomodoro.service.storage.SessionRecord;
+import org.encinet.pomodoro.service.storage.WriteBehindQueue;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * The shared part of the SQL backends: every query and write, against one connection.
+ * <p>
+ * Subclasses supply the connection, the schema and the upsert statements, which differ
+ * between SQL dialects. Prepared statements are cached for the life of the connection, so
+ * the hot queries are compiled once.
+ */
+public abstract class JdbcStorageBackend implements StorageBackend {
+    private static final String SELECT_PRESETS =
+            "SELECT key, name, icon, enchanted, work, break, long_break, sessions FROM presets WHERE uuid = ?";
+    private static final String DELETE_PRESET = "DELETE FROM presets WHERE uuid = ? AND key = ?";
+    private static final String SELECT_STATS =
+            "SELECT total_focus_seconds, total_work_sessions FROM player_stats WHERE uuid = ?";
+    private static final String SELECT_DAILY =
+            "SELECT focus_seconds, work_sessions FROM stats_daily WHERE uuid = ? AND day = ?";
+    private static final String SELECT_WEEKLY =
+            "SELECT focus_seconds, work_sessions FROM stats_weekly WHERE uuid = ? AND week = ?";
+    private static final String INSERT_HISTORY = "INSERT INTO session_history " +
+            "(uuid, started_at, ended_at, preset_key, focus_seconds, extra_seconds, pauses, outcome) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+
+    protected Connection connection;
+    private final Map<String, PreparedStatement> statements = new HashMap<>();
+
+    /**
+     * Opens the connection to the database.
+     *
+     * @return The connection.
+     */
+    protected abstract Connection connect() throws SQLException;
+
+    /**
+     * Gets the statements that create the schema. They must do nothing if the schema exists.
+     *
+     * @return The DDL statements, in order.
+     */
+    protected abstract List<String> getSchema();
+
+
+    /**
+     * Gets the statement that inserts or replaces a preset. Parameters: uuid, key, name, icon,
+     * enchanted, work, break, long_break, sessions.
+     */
+    protected abstract String getPresetUpsert();
+
+    /**
+     * Gets the statement that adds to a player's totals. Parameters: uuid, focus seconds,
+     * work sessions.
+     */
+    protected abstract String getStatsUpsert();
+
+    /**
+     * Gets the statement that adds to a rollup row. Parameters: uuid, period, focus seconds,
+     * work sessions.
+     *
+     * @param table        The rollup table.
+     * @param periodColumn The period column of the table.
+     */
+    protected abstract String getRollupUpsert(String table, String periodColumn);
+
+    /**
+     * Opens the connection and brings the schema up to date. If that fails, the connection is
+     * closed again, so every later read and write fails instead of running against a database
+     * whose migration was rolled back.
+     */
+    @Override
+    public void open() throws SQLException {
+        connection = connect();
+        try {
+            createSchema();
+        } catch (SQLException | RuntimeException e) {
+            try {
+                close();
+            } catch (SQLException closeFailure) {
+                e.addSuppressed(closeFailure);
+            }
+            if (e instanceof SQLException sqlException) {
+                throw sqlException;
+            }
+            throw new SQLException("Could not create the schema of the " + getName() + " database.", e);
+        }
+    }
+
+    /**
+     * Creates whatever part of the schema is missing. Subclasses that version their schema
+     * migrate older layouts here.
+     */
+    protected void createSchema() throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            for (String sql : getSchema()) {
+                statement.execute(sql);
+            }
+        }
+    }
+
+    @Override
+    public void close() throws SQLException {
+        if (connection == null || connection.isClosed()) {
+            return;
+        }
+        for (PreparedStatement statement : statements.values()) {
+            statement.close();
+        }
+        statements.clear();
+        connection.close();
+    }
+
+    /**
+     * Gets a prepared statement from the cache, preparing it on first use. Cached statements
+     * are closed with the connection and must not be closed by the caller.
+     *
+     * @param sql The SQL of the statement.
+     * @return The prepared statement.
+     */
+    protected PreparedStatement prepare(String sql) throws SQLException {
+        PreparedStatement statement = statements.get(sql);
+        if (statement == null) {
+            statement = connection.prepareStatement(sql);
+            statements.put(sql, statement);
+        }
+        return statement;
+    }
+
+    /**
+     * Rolls back the current transaction and discards anything still batched on the cached
+     * statements, so a failed write is not replayed by the next one.
+     */
+    private void rollback() throws SQLException {
+        for (PreparedStatement statement : statements.values()) {
+            statement.clearBatch();
+        }
+        connection.rollback();
+    }
+
+    protected void setUuid(PreparedStatement statement, int index, UUID uuid) throws SQLException {
+        statement.setString(index, uuid.toString());
+    }
+
+    protected UUID getUuid(ResultSet rs, int index) throws SQLException {
+        return UUID.fromString(rs.getString(index));
+    }
+
+    @Override
+    public void loadKnownPlayers(Set<UUID> presetOwners, Set<UUID> statsOwners) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            try (ResultSet rs = statement.executeQuery("SELECT DISTINCT uuid FROM presets")) {
+                while (rs.next()) {
+                    presetOwners.add(getUuid(rs, 1));
+                }
+            }
+            try (ResultSet rs = statement.executeQuery("SELECT uuid FROM player_stats")) {
+                while (rs.next()) {
+                    statsOwners.add(getUuid(rs, 1));
+                }
+            }
+        }
+    }
+
+    @Override
+    public Map<String, PresetConfig.Preset> loadPresets(UUID uuid) throws SQLException {
+        Map<String, PresetConfig.Preset> presets = new HashMap<>();
+        PreparedStatement ps = prepare(SELECT_PRESETS);
+        setUuid(ps, 1, uuid);
+        try (ResultSet rs = ps.executeQuery()) {
+            while (rs.next()) {
+                presets.put(rs.getString("key"), new PresetConfig.Preset(
+                        rs.getString("name"),
+                        rs.getString("icon"),
+                        rs.getBoolean("enchanted"),
+                        rs.getInt("work"),
+                        rs.getInt("break"),
+                        rs.getInt("long_break"),
+                        rs.getInt("sessions")
+                ));
+            }
+        }
+        return presets;
+    }
+
+    @Override
+    public DatabaseManager.PlayerStats loadStats(UUID uuid) throws SQLException {
+        PreparedStatement ps = prepare(SELECT_STATS);
+        setUuid(ps, 1, uuid);
+        try (ResultSet rs = ps.executeQuery()) {
+            if (rs.next()) {
+                return new DatabaseManager.PlayerStats(rs.getInt(1), rs.getInt(2));
+            }
+        }
+        return new DatabaseManager.PlayerStats(0, 0);
+    }
+
+    @Override
+    public DatabaseManager.PeriodStats loadPeriodStats(UUID uuid, int day, int week) throws SQLException {
+        int[] daily = loadRollup(SELECT_DAILY, uuid, day);
+        int[] weekly = loadRollup(SELECT_WEEKLY, uuid, week);
+        return new DatabaseManager.PeriodStats(daily[0], daily[1], weekly[0], weekly[1]);
+    }
+
+    private int[] loadRollup(String sql, UUID uuid, int period) throws SQLException {
+        PreparedStatement ps = prepare(sql);
+        setUuid(ps, 1, uuid);
+        ps.setInt(2, period);
+        try (ResultSet rs = ps.executeQuery()) {
+            if (rs.next()) {
+                return new int[]{rs.getInt(1), rs.getInt(2)};
+            }
+        }
+        return new int[2];
+    }
+
+    @Override
+    public DatabaseManager.FocusTotals loadFocusTotals(int day, int week) throws SQLException {
+        return new DatabaseManager.FocusTotals(day, week,
+                loadFocusSeconds("SELECT uuid, total_focus_seconds FROM player_stats", null),
+                loadFocusSeconds("SELECT uuid, focus_seconds FROM stats_daily WHERE day = ?", day),
+                loadFocusSeconds("SELECT uuid, focus_seconds FROM stats_weekly WHERE week = ?", week));
+    }
+
+    private Map<UUID, Integer> loadFocusSeconds(String sql, Integer period) throws SQLException {
+        Map<UUID, Integer> focusSeconds = new HashMap<>();
+        try (PreparedStatement ps = connection.prepareStatement(sql)) {
+            if (period != null) {
+                ps.setInt(1, period);
+            }
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    focusSeconds.put(getUuid(rs, 1), rs.getInt(2));
+                }
+            }
+        }
+        return focusSeconds;
+    }
+
+    @Override
+    public int writeBatch(WriteBehindQueue.Batch batch) throws SQLException {
+        connection.setAutoCommit(false);
+        try {
+            int statements = writePresets(batch.rows()) + writeHistory(batch.history())
+                    + writeRollups(Rollups.of(batch.history())) + writeStats(batch.stats());
+            connection.commit();
+            return statements;
+        } catch (SQLException | RuntimeException e) {
+            rollback();
+            throw e;
+        } finally {
+            connection.setAutoCommit(true);
+        }
+    }
+
+    private int writePresets(Map<WriteBehindQueue.RowKey, WriteBehindQueue.PendingRow> rows) throws SQLException {
+        PreparedStatement upsert = prepare(getPresetUpsert());
+        PreparedStatement delete = prepare(DELETE_PRESET);
+        int statements = 0;
+        for (Map.Entry<WriteBehindQueue.RowKey, WriteBehindQueue.PendingRow> entry : rows.entrySet()) {
+            WriteBehindQueue.RowKey row = entry.getKey();
+            WriteBehindQueue.PendingRow pending = entry.getValue();
+            if (pending.isDelete()) {
+                setUuid(delete, 1, row.uuid());
+                delete.setString(2, row.key());
+                delete.addBatch();
+                statements++;
+            } else if (pending.getUpsert() != null) {
+                PresetConfig.Preset preset = pending.getUpsert();
+                setUuid(upsert, 1, row.uuid());
+                upsert.setString(2, row.key());
+                upsert.setString(3, preset.name());
+                upsert.setString(4, preset.icon());
+                upsert.setBoolean(5, preset.enchanted());
+                upsert.setInt(6, preset.work());
+                upsert.setInt(7, preset.breakTime());
+                upsert.setInt(8, preset.longBreak());
+                upsert.setInt(9, preset.sessions());
+                upsert.addBatch();
+                statements++;
+            }
+        }
+        delete.executeBatch();
+        upsert.executeBatch();
+        return statements;
+    }
+
+    private int writeHistory(List<SessionRecord> history) throws SQLException {
+        if (history.isEmpty()) {
+            return 0;
+        }
+        PreparedStatement insert = prepare(INSERT_HISTORY);
+        for (SessionRecord record : history) {
+            setUuid(insert, 1, record.uuid());
+            insert.setLong(2, record.startedAt());
+            insert.setLong(3, record.endedAt());
+            insert.setString(4, record.presetKey());
+            insert.setInt(5, record.focusSeconds());
+            insert.setInt(6, record.extraSeconds());
+            insert.setInt(7, record.pauses());
+            insert.setString(8, record.outcome().getColumnValue());
+            insert.addBatch();
+        }
+        insert.executeBatch();
+        return history.size();
+    }
+
+    private int writeRollups(Rollups rollups) throws SQLException {
+        return upsertRollups("stats_daily", "day", rollups.getDaily())
+                + upsertRollups("stats_weekly", "week", rollups.getWeekly());
+    }
+
+    private int upsertRollups(String table, String periodColumn, Map<Rollups.Key, int[]> rollups) throws SQLException {
+        if (rollups.isEmpty()) {
+            return 0;
+        }
+        PreparedStatement ps = prepare(getRollupUpsert(table, periodColumn));
+        for (Map.Entry<Rollups.Key, int[]> entry : rollups.entrySet()) {
+            setUuid(ps, 1, entry.getKey().uuid());
+            ps.setInt(2, entry.getKey().period());
+            ps.setInt(3, entry.getValue()[0]);
+            ps.setInt(4, entry.getValue()[1]);
+            ps.addBatch();
+        }
+        ps.executeBatch();
+        return rollups.size();
+    }
+
+    private int writeStats(Map<UUID, WriteBehindQueue.StatsDelta> stats) throws SQLException {
+        if (stats.isEmpty()) {
+            return 0;
+        }
+        PreparedStatement ps = prepare(getStatsUpsert());
+        for (Map.Entry<UUID, WriteBehindQueue.StatsDelta> entry : stats.entrySet()) {
+            setUuid(ps, 1, entry.getKey());
+            ps.setInt(2, entry.getValue().getFocusSeconds());
+            ps.setInt(3, entry.getValue().getWorkSessions());
+            ps.addBatch();
+        }
+        ps.executeBatch();
+        return stats.size();
+    }
+
+    /**
+     * Streams the completed history in player order and writes each player's rollups as soon
+     * as the next player starts, so memory use is bounded by one player's history.
+     */
+    @Override
+    public int rebuildRollups() throws SQLException {
+        String sql = "SELECT uuid, ended_at, focus_seconds, extra_seconds FROM session_history " +
+                "WHERE outcome = ? ORDER BY uuid";
+        int rows = 0;
+        connection.setAutoCommit(false);
+        try (Statement statement = connection.createStatement();
+             PreparedStatement ps = connection.prepareStatement(sql)) {
+            statement.execute("DELETE FROM stats_daily");
+            statement.execute("DELETE FROM stats_weekly");
+
+            ps.setString(1, SessionRecord.Outcome.COMPLETED.getColumnValue());
+            Rollups rollups = new Rollups();
+            UUID current = null;
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    UUID uuid = getUuid(rs, 1);
+                    if (!uuid.equals(current)) {
+                        writeRollups(rollups);
+                        rollups.clear();
+                        current = uuid;
+                    }
+                    rollups.add(uuid, rs.getLong(2), rs.getInt(3) + rs.getInt(4));
+                    rows++;
+                }
+            }
+            writeRollups(rollups);
+            connection.commit();
+        } catch (SQLException | RuntimeException e) {
+            rollback();
+            throw e;
+        } finally {
+            connection.setAutoCommit(true);
+        }
+        return rows;
+    }
+}
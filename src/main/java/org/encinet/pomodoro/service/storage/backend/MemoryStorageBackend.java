@@ -0,0 +1,133 @@
+package org.encinet.pomodoro.service.storage.backend;
+
+import org.encinet.pomodoro.config.impl.PresetConfig;
+import org.encinet.pomodoro.service.storage.DatabaseManager;
+import org.encinet.pomodoro.service.storage.SessionRecord;
+import org.encinet.pomodoro.service.storage.WriteBehindQueue;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Keeps everything in memory and nothing on disk, so all data is lost when the server stops.
+ * Meant for test servers and for measuring the plugin without storage costs.
+ */
+public class MemoryStorageBackend implements StorageBackend {
+    private final Map<UUID, Map<String, PresetConfig.Preset>> presets = new HashMap<>();
+    private final Map<UUID, int[]> stats = new HashMap<>();
+    private final List<SessionRecord> history = new ArrayList<>();
+    private final Map<Rollups.Key, int[]> daily = new HashMap<>();
+    private final Map<Rollups.Key, int[]> weekly = new HashMap<>();
+
+    @Override
+    public String getName() {
+        return "memory";
+    }
+
+    @Override
+    public void open() {
+    }
+
+    @Override
+    public void close() {
+    }
+
+    @Override
+    public void loadKnownPlayers(Set<UUID> presetOwners, Set<UUID> statsOwners) {
+        presetOwners.addAll(presets.keySet());
+        statsOwners.addAll(stats.keySet());
+    }
+
+    @Override
+    public Map<String, PresetConfig.Preset> loadPresets(UUID uuid) {
+        return new HashMap<>(presets.getOrDefault(uuid, Map.of()));
+    }
+
+    @Override
+    public DatabaseManager.PlayerStats loadStats(UUID uuid) {
+        int[] totals = stats.getOrDefault(uuid, new int[2]);
+        return new DatabaseManager.PlayerStats(totals[0], totals[1]);
+    }
+
+    @Override
+    public DatabaseManager.PeriodStats loadPeriodStats(UUID uuid, int day, int week) {
+        int[] today = daily.getOrDefault(new Rollups.Key(uuid, day), new int[2]);
+        int[] thisWeek = weekly.getOrDefault(new Rollups.Key(uuid, week), new int[2]);
+        return new DatabaseManager.PeriodStats(today[0], today[1], thisWeek[0], thisWeek[1]);
+    }
+
+    @Override
+    public DatabaseManager.FocusTotals loadFocusTotals(int day, int week) {
+        Map<UUID, Integer> all = new HashMap<>();
+        stats.forEach((uuid, totals) -> all.put(uuid, totals[0]));
+        return new DatabaseManager.FocusTotals(day, week, all, focusSeconds(daily, day), focusSeconds(weekly, week));
+    }
+
+    private static Map<UUID, Integer> focusSeconds(Map<Rollups.Key, int[]> rollups, int period) {
+        Map<UUID, Integer> focusSeconds = new HashMap<>();
+        rollups.forEach((key, totals) -> {
+            if (key.period() == period) {
+                focusSeconds.put(key.uuid(), totals[0]);
+            }
+        });
+        return focusSeconds;
+    }
+
+    @Override
+    public int writeBatch(WriteBehindQueue.Batch batch) {
+        int statements = 0;
+        for (Map.Entry<WriteBehindQueue.RowKey, WriteBehindQueue.PendingRow> entry : batch.rows().entrySet()) {
+            WriteBehindQueue.RowKey row = entry.getKey();
+            WriteBehindQueue.PendingRow pending = entry.getValue();
+            if (pending.isDelete()) {
+                Map<String, PresetConfig.Preset> owned = presets.get(row.uuid());
+                if (owned != null) {
+                    owned.remove(row.key());
+                }
+                statements++;
+            } else if (pending.getUpsert() != null) {
+                presets.computeIfAbsent(row.uuid(), k -> new HashMap<>()).put(row.key(), pending.getUpsert());
+                statements++;
+            }
+        }
+
+        history.addAll(batch.history());
+        statements += batch.history().size();
+        statements += addRollups(Rollups.of(batch.history()));
+
+        for (Map.Entry<UUID, WriteBehindQueue.StatsDelta> entry : batch.stats().entrySet()) {
+            int[] totals = stats.computeIfAbsent(entry.getKey(), k -> new int[2]);
+            totals[0] += entry.getValue().getFocusSeconds();
+            totals[1] += entry.getValue().getWorkSessions();
+            statements++;
+        }
+        return statements;
+    }
+
+    private int addRollups(Rollups rollups) {
+        merge(daily, rollups.getDaily());
+        merge(weekly, rollups.getWeekly());
+        return rollups.getDaily().size() + rollups.getWeekly().size();
+    }
+
+    private static void merge(Map<Rollups.Key, int[]> target, Map<Rollups.Key, int[]> increments) {
+        increments.forEach((key, increment) -> {
+            int[] totals = target.computeIfAbsent(key, k -> new int[2]);
+            totals[0] += increment[0];
+            totals[1] += increment[1];
+        });
+    }
+
+    @Override
+    public int rebuildRollups() {
+        daily.clear();
+        weekly.clear();
+        Rollups rollups = Rollups.of(history);
+        addRollups(rollups);
+        return (int) history.stream().filter(record -> record.outcome() == SessionRecord.Outcome.COMPLETED).count();
+    }
+}
@@ -0,0 +1,69 @@
+package org.encinet.pomodoro.service.storage.backend;
+
+import org.encinet.pomodoro.service.storage.DatabaseManager;
+import org.encinet.pomodoro.service.storage.SessionRecord;
+
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Daily and weekly rollup increments, folded per player and period first so each touched
+ * rollup row is written once. Each value holds the focus seconds and the number of sessions.
+ */
+public class Rollups {
+    private final Map<Key, int[]> daily = new HashMap<>();
+    private final Map<Key, int[]> weekly = new HashMap<>();
+
+    /**
+     * Folds the completed sessions among a list of history records.
+     *
+     * @param records The history records.
+     * @return The rollup increments.
+     */
+    public static Rollups of(List<SessionRecord> records) {
+        Rollups rollups = new Rollups();
+        for (SessionRecord record : records) {
+            if (record.outcome() == SessionRecord.Outcome.COMPLETED) {
+                rollups.add(record.uuid(), record.endedAt(), record.countedFocusSeconds());
+            }
+        }
+        return rollups;
+    }
+
+    /**
+     * Adds one completed session.
+     *
+     * @param uuid         The UUID of the player.
+     * @param endedAt      When the session ended, in epoch milliseconds.
+     * @param focusSeconds The focus seconds counted for the session.
+     */
+    public void add(UUID uuid, long endedAt, int focusSeconds) {
+        LocalDate date = DatabaseManager.toLocalDate(endedAt);
+        fold(daily, new Key(uuid, DatabaseManager.dayKey(date)), focusSeconds);
+        fold(weekly, new Key(uuid, DatabaseManager.weekKey(date)), focusSeconds);
+    }
+
+    private static void fold(Map<Key, int[]> rollups, Key key, int focusSeconds) {
+        int[] totals = rollups.computeIfAbsent(key, k -> new int[2]);
+        totals[0] += focusSeconds;
+        totals[1]++;
+    }
+
+    public Map<Key, int[]> getDaily() {
+        return daily;
+    }
+
+    public Map<Key, int[]> getWeekly() {
+        return weekly;
+    }
+
+    public void clear() {
+        daily.clear();
+        weekly.clear();
+    }
+
+    public record Key(UUID uuid, int period) {}
+}
@@ -0,0 +1,385 @@
+package org.encinet.pomodoro.service.storage.backend;
+
+import java.io.File;
+import java.nio.ByteBuffer;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.logging.Logger;
+
+/**
+ * Stores everything in a SQLite file in the plugin folder, using the driver bundled with the
+ * server.
+ * <p>
+ * The database runs in WAL mode with {@code synchronous=NORMAL}: a commit appends to the
+ * write-ahead log without waiting for a checkpoint, and a crash can only lose the last
+ * commits, never corrupt the file.
+ * <p>
+ * UUIDs are stored as 16-byte big-endian blobs, and the keyed tables are {@code WITHOUT ROWID},
+ * so each row lives once in its primary key b-tree. The layout is versioned in
+ * {@code schema_version}; files from before versioning are migrated in place when the backend
+ * is opened.
+ */
+public class SqliteStorageBackend extends JdbcStorageBackend {
+    private static final int SCHEMA_VERSION = 2;
+    private static final List<String> PRAGMAS = List.of(
+            "PRAGMA journal_mode=WAL",
+            "PRAGMA synchronous=NORMAL",
+            "PRAGMA temp_store=MEMORY",
+            // Negative sizes are in KiB
+            "PRAGMA cache_size=-8192"
+    );
+    private static final List<String> KEYED_TABLES =
+            List.of("presets", "player_stats", "session_history", "stats_daily", "stats_weekly");
+    private static final int MIGRATION_BATCH_SIZE = 1000;
+    private static final int LATENCY_SAMPLE_SIZE = 1000;
+
+    private final File file;
+    private final Logger logger;
+
+    public SqliteStorageBackend(File dataFolder, Logger logger) {
+        this.file = new File(dataFolder, "playerdata.db");
+        this.logger = logger;
+    }
+
+    @Override
+    public String getName() {
+        return "sqlite";
+    }
+
+    @Override
+    protected Connection connect() throws SQLException {
+        Connection connection = DriverManager.getConnection("jdbc:sqlite:" + file.getAbsolutePath());
+        try (Statement statement = connection.createStatement()) {
+            for (String pragma : PRAGMAS) {
+                statement.execute(pragma);
+            }
+        }
+        return connection;
+    }
+
+    @Override
+    protected List<String> getSchema() {
+        return List.of(
+                "CREATE TABLE IF NOT EXISTS schema_version (version INTEGER NOT NULL)",
+                "CREATE TABLE IF NOT EXISTS presets (" +
+                        "uuid BLOB NOT NULL," +
+                        "key TEXT NOT NULL," +
+                        "name TEXT NOT NULL," +
+                        "icon TEXT NOT NULL," +
+                        "enchanted BOOLEAN NOT NULL DEFAULT FALSE," +
+                        "work INTEGER NOT NULL," +
+                        "break INTEGER NOT NULL," +
+                        "long_break INTEGER NOT NULL," +
+                        "sessions INTEGER NOT NULL," +
+                        "PRIMARY KEY (uuid, key)" +
+                        ") WITHOUT ROWID",
+                "CREATE TABLE IF NOT EXISTS player_stats (" +
+                        "uuid BLOB PRIMARY KEY," +
+                        "total_focus_seconds INTEGER NOT NULL DEFAULT 0," +
+                        "total_work_sessions INTEGER NOT NULL DEFAULT 0" +
+                        ") WITHOUT ROWID",
+                // Append-only; player_stats holds the running totals derived from completed rows.
+                // Keeps its rowid, so appends go to the end of the table.
+                "CREATE TABLE IF NOT EXISTS session_history (" +
+                        "id INTEGER PRIMARY KEY," +
+                        "uuid BLOB NOT NULL," +
+                        "started_at INTEGER NOT NULL," +
+                        "ended_at INTEGER NOT NULL," +
+                        "preset_key TEXT NOT NULL," +
+                        "focus_seconds INTEGER NOT NULL," +
+                        "extra_seconds INTEGER NOT NULL," +
+                        "pauses INTEGER NOT NULL," +
+                        "outcome TEXT NOT NULL" +
+                        ")",
+                "CREATE INDEX IF NOT EXISTS idx_session_history_uuid_started_at " +
+                        "ON session_history (uuid, started_at)",
+                // Rollups of completed sessions, kept in step with session_history
+                "CREATE TABLE IF NOT EXISTS stats_daily (" +
+                        "uuid BLOB NOT NULL," +
+                        "day INTEGER NOT NULL," +
+                        "focus_seconds INTEGER NOT NULL DEFAULT 0," +
+                        "work_sessions INTEGER NOT NULL DEFAULT 0," +
+                        "PRIMARY KEY (uuid, day)" +
+                        ") WITHOUT ROWID",
+                "CREATE TABLE IF NOT EXISTS stats_weekly (" +
+                        "uuid BLOB NOT NULL," +
+                        "week INTEGER NOT NULL," +
+                        "focus_seconds INTEGER NOT NULL DEFAULT 0," +
+                        "work_sessions INTEGER NOT NULL DEFAULT 0," +
+                        "PRIMARY KEY (uuid, week)" +
+                        ") WITHOUT ROWID"
+        );
+    }
+
+    @Override
+    protected void createSchema() throws SQLException {
+        int version = getSchemaVersion();
+        if (version == 0 && tableExists("presets")) {
+            // A file from before schema versioning, keyed by UUID strings
+            migrateToBinaryKeys();
+            return;
+        }
+        if (version > SCHEMA_VERSION) {
+            throw new SQLException("playerdata.db has schema version " + version
+                    + ", which is newer than this version of the plugin supports (" + SCHEMA_VERSION + ").");
+        }
+        super.createSchema();
+        if (version == 0) {
+            setSchemaVersion();
+        }
+    }
+
+    private int getSchemaVersion() throws SQLException {
+        if (!tableExists("schema_version")) {
+            return 0;
+        }
+        try (Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery("SELECT MAX(version) FROM schema_version")) {
+            return rs.next() ? rs.getInt(1) : 0;
+        }
+    }
+
+    private void setSchemaVersion() throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("DELETE FROM schema_version");
+            statement.execute("INSERT INTO schema_version (version) VALUES (" + SCHEMA_VERSION + ")");
+        }
+    }
+
+    private boolean tableExists(String table) throws SQLException {
+        try (PreparedStatement ps = connection.prepareStatement(
+                "SELECT 1 FROM sqlite_master WHERE type = 'table' AND name = ?")) {
+            ps.setString(1, table);
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next();
+            }
+        }
+    }
+
+    /**
+     * Rebuilds every table of a pre-versioning file with binary UUID keys, in one transaction,
+     * then compacts the file. The old tables are renamed aside, copied row by row and dropped,
+     * so an interrupted migration leaves the file as it was.
+     * <p>
+     * This runs on the storage thread while the server keeps going; every storage task queues
+     * behind it until it is done.
+     */
+    private void migrateToBinaryKeys() throws SQLException {
+        logger.info("Migrating playerdata.db to binary UUID keys; presets and statistics load once it is done.");
+        checkpoint();
+        long sizeBefore = file.length();
+        List<UUID> sample = sampleStatsKeys();
+        double latencyBefore = measureLookups(sample, false);
+
+        // Files from before presets could be enchanted lack the column
+        boolean hasEnchanted = columnExists("presets", "enchanted");
+        connection.setAutoCommit(false);
+        try (Statement statement = connection.createStatement()) {
+            for (String table : KEYED_TABLES) {
+                if (tableExists(table)) {
+                    statement.execute("ALTER TABLE " + table + " RENAME TO " + table + "_legacy");
+                }
+            }
+            statement.execute("DROP INDEX IF EXISTS idx_session_history_uuid_started_at");
+            if (!hasEnchanted) {
+                statement.execute("ALTER TABLE presets_legacy ADD COLUMN enchanted BOOLEAN NOT NULL DEFAULT FALSE");
+            }
+            super.createSchema();
+
+            copyTable(statement, "presets", "uuid, key, name, icon, enchanted, work, break, long_break, sessions");
+            copyTable(statement, "player_stats", "uuid, total_focus_seconds, total_work_sessions");
+            copyTable(statement, "session_history",
+                    "uuid, id, started_at, ended_at, preset_key, focus_seconds, extra_seconds, pauses, outcome");
+            copyTable(statement, "stats_daily", "uuid, day, focus_seconds, work_sessions");
+            copyTable(statement, "stats_weekly", "uuid, week, focus_seconds, work_sessions");
+            setSchemaVersion();
+            connection.commit();
+        } catch (SQLException | RuntimeException e) {
+            connection.rollback();
+            throw e;
+        } finally {
+            connection.setAutoCommit(true);
+        }
+
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("VACUUM");
+        }
+        checkpoint();
+        logger.info(String.format("Migrated playerdata.db: %.1f KiB -> %.1f KiB", sizeBefore / 1024.0, file.length() / 1024.0));
+        if (!sample.isEmpty()) {
+            logger.info(String.format("Statistics lookup latency over %d players: %.1f us -> %.1f us",
+                    sample.size(), latencyBefore, measureLookups(sample, true)));
+        }
+    }
+
+    /**
+     * Copies the rows of a renamed legacy table into its new table, converting the UUID in the
+     * first column, then drops the legacy table.
+     */
+    private void copyTable(Statement statement, String table, String columns) throws SQLException {
+        String legacy = table + "_legacy";
+        if (!tableExists(legacy)) {
+            return;
+        }
+        long total;
+        try (ResultSet rs = statement.executeQuery("SELECT COUNT(*) FROM " + legacy)) {
+            total = rs.next() ? rs.getLong(1) : 0;
+        }
+        int columnCount = columns.split(",").length;
+        String placeholders = "?" + ", ?".repeat(columnCount - 1);
+        long progressStep = Math.max(10_000, total / 10);
+        long copied = 0;
+        try (PreparedStatement select = connection.prepareStatement("SELECT " + columns + " FROM " + legacy);
+             PreparedStatement insert = connection.prepareStatement(
+                     "INSERT INTO " + table + " (" + columns + ") VALUES (" + placeholders + ")");
+             ResultSet rs = select.executeQuery()) {
+            while (rs.next()) {
+                insert.setBytes(1, toBytes(parseLegacyUuid(rs.getString(1), legacy)));
+                for (int i = 2; i <= columnCount; i++) {
+                    insert.setObject(i, rs.getObject(i));
+                }
+                insert.addBatch();
+                if (++copied % MIGRATION_BATCH_SIZE == 0) {
+                    insert.executeBatch();
+                }
+                if (copied % progressStep == 0) {
+                    logger.info(String.format("Migrating %s: %d/%d rows (%d%%)", table, copied, total, copied * 100 / total));
+                }
+            }
+            insert.executeBatch();
+        }
+        statement.execute("DROP TABLE " + legacy);
+        logger.info("Migrated " + table + ": " + copied + " rows");
+    }
+
+    /**
+     * Parses a UUID string from a pre-versioning table. A malformed one fails the migration,
+     * which is rolled back, rather than silently dropping the row.
+     */
+    private static UUID parseLegacyUuid(String value, String table) throws SQLException {
+        try {
+            return UUID.fromString(value);
+        } catch (IllegalArgumentException | NullPointerException e) {
+            throw new SQLException("Malformed UUID '" + value + "' in " + table
+                    + "; fix or delete the row, then restart the server to retry the migration.", e);
+        }
+    }
+
+    private boolean columnExists(String tableName, String columnName) throws SQLException {
+        DatabaseMetaData md = connection.getMetaData();
+        try (ResultSet rs = md.getColumns(null, null, tableName, columnName)) {
+            return rs.next();
+        }
+    }
+
+    private void checkpoint() throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("PRAGMA wal_checkpoint(TRUNCATE)");
+        }
+    }
+
+    private List<UUID> sampleStatsKeys() throws SQLException {
+        List<UUID> sample = new ArrayList<>();
+        if (!tableExists("player_stats")) {
+            return sample;
+        }
+        try (Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery("SELECT uuid FROM player_stats LIMIT " + LATENCY_SAMPLE_SIZE)) {
+            while (rs.next()) {
+                sample.add(parseLegacyUuid(rs.getString(1), "player_stats"));
+            }
+        }
+        return sample;
+    }
+
+    /**
+     * Times primary key lookups of player statistics. The sample is read once untimed first,
+     * so the pages it touches are cached and the lookups before and after the migration are
+     * compared on equal terms.
+     *
+     * @param sample The players to look up.
+     * @param binary Whether the table is keyed by binary UUIDs.
+     * @return The mean lookup time in microseconds.
+     */
+    private double measureLookups(List<UUID> sample, boolean binary) throws SQLException {
+        if (sample.isEmpty()) {
+            return 0;
+        }
+        try (PreparedStatement ps = connection.prepareStatement(
+                "SELECT total_focus_seconds, total_work_sessions FROM player_stats WHERE uuid = ?")) {
+            lookUp(ps, sample, binary);
+            long start = System.nanoTime();
+            lookUp(ps, sample, binary);
+            return (System.nanoTime() - start) / 1e3 / sample.size();
+        }
+    }
+
+    private static void lookUp(PreparedStatement ps, List<UUID> sample, boolean binary) throws SQLException {
+        for (UUID uuid : sample) {
+            if (binary) {
+                ps.setBytes(1, toBytes(uuid));
+            } else {
+                ps.setString(1, uuid.toString());
+            }
+            try (ResultSet rs = ps.executeQuery()) {
+                rs.next();
+            }
+        }
+    }
+
+    @Override
+    protected void setUuid(PreparedStatement statement, int index, UUID uuid) throws SQLException {
+        statement.setBytes(index, toBytes(uuid));
+    }
+
+    @Override
+    protected UUID getUuid(ResultSet rs, int index) throws SQLException {
+        ByteBuffer buffer = ByteBuffer.wrap(rs.getBytes(index));
+        return new UUID(buffer.getLong(), buffer.getLong());
+    }
+
+    private static byte[] toBytes(UUID uuid) {
+        return ByteBuffer.allocate(16)
+                .putLong(uuid.getMostSignificantBits())
+                .putLong(uuid.getLeastSignificantBits())
+                .array();
+    }
+
+    @Override
+    protected String getPresetUpsert() {
+        return "INSERT INTO presets (uuid, key, name, icon, enchanted, work, break, long_break, sessions) " +
+                "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?) " +
+                "ON CONFLICT(uuid, key) DO UPDATE SET " +
+                "name = excluded.name, " +
+                "icon = excluded.icon, " +
+                "enchanted = excluded.enchanted, " +
+                "work = excluded.work, " +
+                "break = excluded.break, " +
+                "long_break = excluded.long_break, " +
+                "sessions = excluded.sessions";
+    }
+
+    @Override
+    protected String getStatsUpsert() {
+        return "INSERT INTO player_stats (uuid, total_focus_seconds, total_work_sessions) VALUES (?, ?, ?) " +
+                "ON CONFLICT(uuid) DO UPDATE SET " +
+                "total_focus_seconds = total_focus_seconds + excluded.total_focus_seconds, " +
+                "total_work_sessions = total_work_sessions + excluded.total_work_sessions";
+    }
+
+    @Override
+    protected String getRollupUpsert(String table, String periodColumn) {
+        return "INSERT INTO " + table + " (uuid, " + periodColumn + ", focus_seconds, work_sessions) VALUES (?, ?, ?, ?) " +
+                "ON CONFLICT(uuid, " + periodColumn + ") DO UPDATE SET " +
+                "focus_seconds = focus_seconds + excluded.focus_seconds, " +
+                "work_sessions = work_sessions + excluded.work_sessions";
+    }
+}
@@ -0,0 +1,96 @@
+package org.encinet.pomodoro.service.storage.backend;
+
+import org.encinet.pomodoro.config.impl.PresetConfig;
+import org.encinet.pomodoro.service.storage.DatabaseManager;
+import org.encinet.pomodoro.service.storage.WriteBehindQueue;
+
+import java.sql.SQLException;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Where player presets, statistics, session history and their rollups are kept.
+ * <p>
+ * A backend is only ever called from the storage thread of {@link DatabaseManager}, one call
+ * at a time, so implementations need not be thread-safe. Failures are thrown and logged by
+ * the caller.
+ */
+public interface StorageBackend {
+    /**
+     * Gets the name of the backend, as selected in the config.
+     *
+     * @return The backend name.
+     */
+    String getName();
+
+    /**
+     * Opens the backend and creates or upgrades its schema. If this throws, the backend is
+     * left closed and must not be used.
+     */
+    void open() throws SQLException;
+
+    /**
+     * Closes the backend. Everything written so far must be durable once this returns.
+     */
+    void close() throws SQLException;
+
+    /**
+     * Adds every player that owns preset or statistics rows to the given sets.
+     *
+     * @param presetOwners The players with presets.
+     * @param statsOwners  The players with statistics.
+     */
+    void loadKnownPlayers(Set<UUID> presetOwners, Set<UUID> statsOwners) throws SQLException;
+
+    /**
+     * Loads a player's presets.
+     *
+     * @param uuid The UUID of the player.
+     * @return The presets by key; empty if the player has none.
+     */
+    Map<String, PresetConfig.Preset> loadPresets(UUID uuid) throws SQLException;
+
+    /**
+     * Loads a player's all-time statistics.
+     *
+     * @param uuid The UUID of the player.
+     * @return The statistics; zero if the player has none.
+     */
+    DatabaseManager.PlayerStats loadStats(UUID uuid) throws SQLException;
+
+    /**
+     * Loads a player's rollups for one day and one ISO week.
+     *
+     * @param uuid The UUID of the player.
+     * @param day  The day key, see {@link DatabaseManager#dayKey}.
+     * @param week The week key, see {@link DatabaseManager#weekKey}.
+     * @return The period statistics.
+     */
+    DatabaseManager.PeriodStats loadPeriodStats(UUID uuid, int day, int week) throws SQLException;
+
+    /**
+     * Loads every player's focus seconds in total, on one day and in one ISO week.
+     *
+     * @param day  The day key.
+     * @param week The week key.
+     * @return The focus totals.
+     */
+    DatabaseManager.FocusTotals loadFocusTotals(int day, int week) throws SQLException;
+
+    /**
+     * Writes a drained batch atomically: preset changes, history records, their rollups and
+     * the statistics increments either all apply or none do.
+     *
+     * @param batch The batch to write.
+     * @return The number of statements executed.
+     */
+    int writeBatch(WriteBehindQueue.Batch batch) throws SQLException;
+
+    /**
+     * Recomputes the daily and weekly rollups from the session history.
+     *
+     * @return The number of history records processed.
+     */
+    int rebuildRollups() throws SQLException;
+}
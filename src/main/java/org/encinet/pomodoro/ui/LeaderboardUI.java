@@ -0,0 +1,101 @@
+package org.encinet.pomodoro.ui;
+
+import org.bukkit.Bukkit;
+import org.bukkit.Material;
+import org.bukkit.NamespacedKey;
+import org.bukkit.entity.Player;
+import org.bukkit.inventory.Inventory;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.inventory.meta.SkullMeta;
+import org.encinet.pomodoro.Pomodoro;
+import org.encinet.pomodoro.config.LanguageManager;
+import org.encinet.pomodoro.service.leaderboard.Leaderboard;
+import org.encinet.pomodoro.service.leaderboard.LeaderboardManager;
+import org.encinet.pomodoro.ui.util.ItemBuilder;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+public class LeaderboardUI {
+    private static final int[] ENTRY_SLOTS = {
+            10, 11, 12, 13, 14, 15, 16,
+            19, 20, 21, 22, 23, 24, 25,
+            28, 29, 30, 31, 32, 33, 34,
+            37, 38, 39, 40, 41, 42, 43
+    };
+
+    public static Inventory create(Player player, LeaderboardManager.Period period) {
+        LanguageManager languageManager = Pomodoro.getInstance().getLanguageManager();
+        LeaderboardManager leaderboardManager = Pomodoro.getInstance().getLeaderboardManager();
+        String locale = player.locale().toString();
+        Inventory inventory = Bukkit.createInventory(null, 54, languageManager.getMessage(player, "ui.leaderboard.title",
+                Map.of("period", languageManager.getPeriodName(period, locale))));
+
+        // Fill the border with glass panes
+        ItemStack filler = ItemBuilder.createFiller();
+        int rows = inventory.getSize() / 9;
+        for (int i = 0; i < inventory.getSize(); i++) {
+            int row = i / 9;
+            int col = i % 9;
+            if (row == 0 || row == rows - 1 || col == 0 || col == 8) {
+                inventory.setItem(i, filler);
+            }
+        }
+
+        // Ranked players
+        List<Leaderboard.Entry> entries = leaderboardManager.getTop(period, ENTRY_SLOTS.length);
+        for (int i = 0; i < entries.size(); i++) {
+            Leaderboard.Entry entry = entries.get(i);
+            ItemStack head = new ItemBuilder(Material.PLAYER_HEAD)
+                    .displayName(languageManager.getMessage(player, "ui.leaderboard.entry.name", Map.of(
+                            "rank", String.valueOf(i + 1),
+                            "player", leaderboardManager.getPlayerName(entry.uuid()))))
+                    .lore(languageManager.getMessageList(player, "ui.leaderboard.entry.lore",
+                            Map.of("time", languageManager.formatTime(entry.score(), locale))))
+                    .build();
+            setOwner(head, entry.uuid());
+            inventory.setItem(ENTRY_SLOTS[i], head);
+        }
+
+        NamespacedKey actionKey = new NamespacedKey(Pomodoro.getInstance(), "pomodoro_action");
+
+        // Back Button
+        inventory.setItem(45, new ItemBuilder(Material.ARROW)
+                .displayName(languageManager.getMessage(player, "ui.back_button"))
+                .persistentData(actionKey, "back")
+                .build());
+
+        // Own Rank
+        int rank = leaderboardManager.getRank(period, player.getUniqueId());
+        ItemStack self = new ItemBuilder(Material.PLAYER_HEAD)
+                .displayName(languageManager.getMessage(player, "ui.leaderboard.self.name",
+                        Map.of("rank", rank > 0 ? "#" + rank : "-")))
+                .lore(languageManager.getMessageList(player, "ui.leaderboard.self.lore", Map.of(
+                        "time", languageManager.formatTime(leaderboardManager.getScore(period, player.getUniqueId()), locale))))
+                .build();
+        setOwner(self, player.getUniqueId());
+        inventory.setItem(49, self);
+
+        // Period Switch
+        LeaderboardManager.Period next = LeaderboardManager.Period.values()[
+                (period.ordinal() + 1) % LeaderboardManager.Period.values().length];
+        inventory.setItem(53, new ItemBuilder(Material.CLOCK)
+                .displayName(languageManager.getMessage(player, "ui.leaderboard.period.name",
+                        Map.of("period", languageManager.getPeriodName(period, locale))))
+                .lore(languageManager.getMessageList(player, "ui.leaderboard.period.lore",
+                        Map.of("next_period", languageManager.getPeriodName(next, locale))))
+                .persistentData(actionKey, "period:" + next.toString().toLowerCase())
+                .build());
+
+        return inventory;
+    }
+
+    private static void setOwner(ItemStack head, UUID uuid) {
+        SkullMeta skullMeta = (SkullMeta) head.getItemMeta();
+        if (skullMeta != null) {
+            skullMeta.setOwningPlayer(Bukkit.getOfflinePlayer(uuid));
+            head.setItemMeta(skullMeta);
+        }
+    }
+}
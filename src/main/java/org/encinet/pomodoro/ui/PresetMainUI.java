@@ -20,7 +20,7 @@ import org.encinet.pomodoro.ui.util.ItemBuilder;
 import java.util.Map;
 
 public class PresetMainUI {
-    public static Inventory create(Player player) {
+    public static Inventory create(Player player, DatabaseManager.PlayerStats stats, DatabaseManager.PeriodStats period) {
         LanguageManager languageManager = Pomodoro.getInstance().getLanguageManager();
         Inventory inventory = Bukkit.createInventory(null, 54, languageManager.getMessage(player, "ui.main.title"));
         MiniMessage miniMessage = MiniMessage.miniMessage();
@@ -37,19 +37,15 @@ public class PresetMainUI {
         }
 
         // Player Stats Head
-        DatabaseManager dbManager = Pomodoro.getInstance().getDatabaseManager();
-        DatabaseManager.PlayerStats stats = dbManager.getPlayerStats(player.getUniqueId());
-
-        long hours = stats.getTotalFocusSeconds() / 3600;
-        long minutes = (stats.getTotalFocusSeconds() % 3600) / 60;
-        long seconds = stats.getTotalFocusSeconds() % 60;
-        String formattedTime = String.format("%d h %d m %d s", hours, minutes, seconds);
-
         ItemStack playerHead = new ItemBuilder(Material.PLAYER_HEAD)
                 .displayName(miniMessage.deserialize("<italic:false><green>" + player.getName()))
                 .lore(languageManager.getMessageList(player, "ui.player_stats.lore", Map.of(
-                        "total_focus_time", formattedTime,
-                        "total_work_sessions", String.valueOf(stats.getTotalWorkSessions()))))
+                        "total_focus_time", formatFocusTime(stats.getTotalFocusSeconds()),
+                        "total_work_sessions", String.valueOf(stats.getTotalWorkSessions()),
+                        "today_focus_time", formatFocusTime(period.todayFocusSeconds()),
+                        "today_work_sessions", String.valueOf(period.todayWorkSessions()),
+                        "week_focus_time", formatFocusTime(period.weekFocusSeconds()),
+                        "week_work_sessions", String.valueOf(period.weekWorkSessions()))))
                 .build();
         SkullMeta skullMeta = (SkullMeta) playerHead.getItemMeta();
         if (skullMeta != null) {
@@ -108,6 +104,21 @@ public class PresetMainUI {
                 .build();
         inventory.setItem(48, introItem);
 
+        // Add 'Leaderboard' button
+        ItemStack leaderboardItem = new ItemBuilder(Material.GOLDEN_HELMET)
+                .displayName(languageManager.getMessage(player, "ui.leaderboard.button.name"))
+                .lore(languageManager.getMessageList(player, "ui.leaderboard.button.lore"))
+                .itemFlags(org.bukkit.inventory.ItemFlag.HIDE_ATTRIBUTES)
+                .build();
+        inventory.setItem(50, leaderboardItem);
+
         return inventory;
     }
+
+    private static String formatFocusTime(int totalSeconds) {
+        long hours = totalSeconds / 3600;
+        long minutes = (totalSeconds % 3600) / 60;
+        long seconds = totalSeconds % 60;
+        return String.format("%d h %d m %d s", hours, minutes, seconds);
+    }
 }
\ No newline at end of file
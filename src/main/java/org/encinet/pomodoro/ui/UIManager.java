@@ -2,11 +2,21 @@ package org.encinet.pomodoro.ui;
 import org.bukkit.entity.Player;
 import org.bukkit.inventory.Inventory;
 import org.encinet.pomodoro.Pomodoro;
+import org.encinet.pomodoro.service.leaderboard.LeaderboardManager;
+import org.encinet.pomodoro.service.storage.DatabaseManager;
+
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 
 public class UIManager {
     public void openPresetMainUI(Player player) {
-        Inventory inventory = PresetMainUI.create(player);
-        player.getScheduler().run(Pomodoro.getInstance(), (task) -> player.openInventory(inventory), null);
+        // Stats come from the cache, or are read off-thread; the menu is built and opened once they arrive
+        DatabaseManager databaseManager = Pomodoro.getInstance().getDatabaseManager();
+        UUID uuid = player.getUniqueId();
+        CompletableFuture<DatabaseManager.PlayerStats> stats = Pomodoro.getInstance().getPlayerStatsManager().getPlayerStats(uuid);
+        CompletableFuture<DatabaseManager.PeriodStats> period = databaseManager.getPeriodStats(uuid);
+        databaseManager.thenOnPlayer(CompletableFuture.allOf(stats, period), player,
+                loaded -> player.openInventory(PresetMainUI.create(player, stats.join(), period.join())));
     }
 
     public void openTimerUI(Player player) {
@@ -29,4 +39,9 @@ public class UIManager {
             player.getScheduler().run(Pomodoro.getInstance(), (task) -> player.openInventory(inventory), null);
         }
     }
+
+    public void openLeaderboardUI(Player player, LeaderboardManager.Period period) {
+        Inventory inventory = LeaderboardUI.create(player, period);
+        player.getScheduler().run(Pomodoro.getInstance(), (task) -> player.openInventory(inventory), null);
+    }
 }
@@ -0,0 +1,126 @@
+package org.encinet.pomodoro.config;
+
+import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.minimessage.MiniMessage;
+import net.kyori.adventure.text.minimessage.tag.resolver.Placeholder;
+import net.kyori.adventure.text.minimessage.tag.resolver.TagResolver;
+import net.kyori.adventure.text.serializer.plain.PlainTextComponentSerializer;
+import org.bukkit.configuration.file.YamlConfiguration;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+class MessageTemplateTest {
+    // The messages rendered for every running timer, all of which use a gradient
+    private static final List<String> TIMER_KEYS = List.of("bossbar.title", "title.title", "text-display.format");
+
+    private final MiniMessage miniMessage = MiniMessage.miniMessage();
+
+    private static List<Path> languageFiles() throws IOException, URISyntaxException {
+        URL folder = MessageTemplateTest.class.getResource("/message");
+        assertNotNull(folder, "message/ is not on the classpath");
+        try (Stream<Path> files = Files.list(Path.of(folder.toURI()))) {
+            return files.filter(path -> path.toString().endsWith(".yml")).sorted().toList();
+        }
+    }
+
+    private static Map<String, String> frame(String presetName, int second) {
+        return Map.of(
+                "preset_name", presetName,
+                "status", "Working",
+                "current_session", "2",
+                "total_sessions", "4",
+                "time", String.format("%02d:%02d", second / 60, second % 60));
+    }
+
+    /**
+     * Renders a format the way messages were rendered before templates: a full parse with an
+     * unparsed placeholder per value.
+     */
+    private Component parse(String format, Map<String, String> values) {
+        TagResolver[] resolvers = values.entrySet().stream()
+                .map(entry -> Placeholder.unparsed(entry.getKey(), entry.getValue()))
+                .toArray(TagResolver[]::new);
+        return miniMessage.deserialize(format, resolvers);
+    }
+
+    @Test
+    void timerMessagesAreParsedOncePerPreset() throws IOException, URISyntaxException {
+        for (Path file : languageFiles()) {
+            YamlConfiguration config;
+            try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+                config = YamlConfiguration.loadConfiguration(reader);
+            }
+            for (String key : TIMER_KEYS) {
+                String format = config.getString(key);
+                assertNotNull(format, key + " is missing from " + file.getFileName());
+                MessageTemplate template = MessageTemplate.compile(miniMessage, format);
+                long parsesAfterCompile = template.parses();
+
+                for (int second = 0; second < 120; second++) {
+                    Map<String, String> values = frame(second < 60 ? "Classic" : "<red>Deep Work", second);
+                    assertEquals(parse(format, values).compact(), template.render(values).compact(),
+                            key + " in " + file.getFileName() + " at second " + second);
+                }
+                // One parse per preset name, however many seconds are rendered
+                assertEquals(parsesAfterCompile + 2, template.parses(), key + " in " + file.getFileName());
+            }
+        }
+    }
+
+    @Test
+    void templatesWithoutStyledSlotsNeverParseOnRender() {
+        MessageTemplate template = MessageTemplate.compile(miniMessage,
+                "<gradient:#e65100:#f57c00><bold>Running</bold></gradient><gray>:</gray> <red><preset_name></red> <time>");
+        long parsesAfterCompile = template.parses();
+
+        for (int second = 0; second < 60; second++) {
+            Map<String, String> values = frame("Preset " + second, second);
+            assertEquals(parse(template.format(), values).compact(), template.render(values).compact());
+        }
+        assertEquals(parsesAfterCompile, template.parses());
+    }
+
+    @Test
+    void missingValuesStayLiteralTags() {
+        MessageTemplate template = MessageTemplate.compile(miniMessage,
+                "<gradient:#e65100:#f57c00><preset_name></gradient> <time>");
+
+        assertEquals("<preset_name> <time>", PlainTextComponentSerializer.plainText().serialize(template.render()));
+    }
+
+    @Test
+    void privateUseGlyphsAreKept() {
+        // Resource packs map private-use characters to icons
+        String format = "<white>\uE000 <time> \uE001</white> <gradient:red:blue>\uE002<preset_name></gradient>";
+        MessageTemplate template = MessageTemplate.compile(miniMessage, format);
+        Map<String, String> values = Map.of("time", "12:34", "preset_name", "\uE003Classic");
+
+        Component rendered = template.render(values);
+        assertEquals("\uE000 12:34 \uE001 \uE002\uE003Classic", PlainTextComponentSerializer.plainText().serialize(rendered));
+        assertEquals(parse(format, values).compact(), rendered.compact());
+    }
+
+    @Test
+    void escapedTagsAreNotSlots() {
+        MessageTemplate template = MessageTemplate.compile(miniMessage, "<gradient:red:blue>\\<time></gradient> <time>");
+
+        assertEquals(-1, template.slot("preset_name"));
+        assertFalse(template.slot("time") < 0);
+        assertEquals("<time> 01:00",
+                PlainTextComponentSerializer.plainText().serialize(template.render(Map.of("time", "01:00"))));
+    }
+}
@@ -0,0 +1,138 @@
+package org.encinet.pomodoro.listeners;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * Races chat threads answering prompts against the player threads that set and clear them.
+ * Each player's thread is a single-thread executor standing in for the player's scheduler,
+ * which accepted answers hop to.
+ */
+class ChatPromptsStressTest {
+    private static final int PLAYERS = 32;
+    private static final int ROUNDS = 500;
+    private static final int CHAT_THREADS = 8;
+
+    private static boolean accepts(String message) {
+        return !message.isEmpty();
+    }
+
+    @Test
+    @Timeout(60)
+    void everyPromptIsAnsweredOnceAndInOrder() throws Exception {
+        ChatPrompts prompts = new ChatPrompts();
+        UUID[] players = new UUID[PLAYERS];
+        ExecutorService[] playerThreads = new ExecutorService[PLAYERS];
+        List<List<String>> applied = new ArrayList<>();
+        for (int i = 0; i < PLAYERS; i++) {
+            players[i] = UUID.randomUUID();
+            playerThreads[i] = Executors.newSingleThreadExecutor();
+            applied.add(new ArrayList<>());
+        }
+        CountDownLatch finished = new CountDownLatch(PLAYERS);
+        ExecutorService chat = Executors.newFixedThreadPool(CHAT_THREADS);
+        try {
+            for (int i = 0; i < PLAYERS; i++) {
+                prompts.prompt(players[i], PlayerListener.PendingInput.rename("round-0"));
+            }
+
+            List<Future<?>> senders = new ArrayList<>();
+            for (int t = 0; t < CHAT_THREADS; t++) {
+                senders.add(chat.submit(() -> {
+                    ThreadLocalRandom random = ThreadLocalRandom.current();
+                    while (finished.getCount() > 0) {
+                        int player = random.nextInt(PLAYERS);
+                        // Two in three messages are invalid and must leave the prompt in place
+                        String message = random.nextInt(3) == 0 ? "name" : "";
+                        ChatPrompts.Answer answer = prompts.answer(players[player], pending -> accepts(message));
+                        if (answer == null || !answer.accepted()) {
+                            continue;
+                        }
+                        // The one hop to the player's thread, where the answer is applied and the
+                        // menu that sets the next prompt is reopened
+                        playerThreads[player].execute(() -> {
+                            List<String> rounds = applied.get(player);
+                            rounds.add(answer.prompt().presetKey());
+                            if (rounds.size() < ROUNDS) {
+                                prompts.prompt(players[player], PlayerListener.PendingInput.rename("round-" + rounds.size()));
+                            } else {
+                                finished.countDown();
+                            }
+                        });
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> sender : senders) {
+                sender.get();
+            }
+        } finally {
+            chat.shutdownNow();
+            for (ExecutorService playerThread : playerThreads) {
+                playerThread.shutdown();
+                playerThread.awaitTermination(10, TimeUnit.SECONDS);
+            }
+        }
+
+        for (int i = 0; i < PLAYERS; i++) {
+            List<String> expected = new ArrayList<>();
+            for (int round = 0; round < ROUNDS; round++) {
+                expected.add("round-" + round);
+            }
+            assertEquals(expected, applied.get(i), "Rounds applied for player " + i);
+            assertNull(prompts.answer(players[i], pending -> true), "A prompt outlived its last round");
+        }
+    }
+
+    @Test
+    @Timeout(60)
+    void rejectedAnswersNeverBringBackAClearedPrompt() throws Exception {
+        ChatPrompts prompts = new ChatPrompts();
+        UUID player = UUID.randomUUID();
+        ExecutorService threads = Executors.newFixedThreadPool(2);
+        AtomicInteger resurrected = new AtomicInteger();
+        try {
+            for (int i = 0; i < 10_000; i++) {
+                prompts.prompt(player, PlayerListener.PendingInput.create());
+                CountDownLatch start = new CountDownLatch(1);
+                // Invalid messages keep arriving while the player quits
+                Future<?> sender = threads.submit(() -> {
+                    start.await();
+                    for (int j = 0; j < 20; j++) {
+                        prompts.answer(player, pending -> false);
+                    }
+                    return null;
+                });
+                Future<?> quit = threads.submit(() -> {
+                    start.await();
+                    prompts.clear(player);
+                    return null;
+                });
+                start.countDown();
+                sender.get();
+                quit.get();
+                if (prompts.answer(player, pending -> false) != null) {
+                    resurrected.incrementAndGet();
+                    prompts.clear(player);
+                }
+            }
+        } finally {
+            threads.shutdownNow();
+        }
+        assertEquals(0, resurrected.get(), "Prompts brought back after the player quit");
+    }
+}
@@ -0,0 +1,188 @@
+package org.encinet.pomodoro.service.session;
+
+import org.encinet.pomodoro.config.impl.PresetConfig;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Hammers a {@link SessionRegistry} and the published snapshots from many reader threads while
+ * owner threads start, update, replace and stop sessions the way PomodoroManager does, the way
+ * Netty and the async chat thread read them while region threads drive the sessions.
+ */
+class SessionSnapshotStressTest {
+    private static final int PLAYERS = 64;
+    private static final int OWNERS = 4;
+    private static final int READERS = 8;
+    private static final int OPERATIONS_PER_OWNER = 50_000;
+    private static final List<PresetConfig.Preset> PRESETS = List.of(
+            new PresetConfig.Preset("Short", "CLOCK", false, 1, 1, 2, 2),
+            new PresetConfig.Preset("Classic", "TOMATO", false, 25, 5, 15, 4),
+            new PresetConfig.Preset("Long", "BOOK", true, 50, 10, 30, 3));
+
+    private final SessionRegistry registry = new SessionRegistry();
+
+    @Test
+    @Timeout(60)
+    void registeredSessionsAlwaysShowARunningSnapshot() throws Exception {
+        UUID[] players = new UUID[PLAYERS];
+        for (int i = 0; i < PLAYERS; i++) {
+            players[i] = UUID.randomUUID();
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(OWNERS + READERS);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicBoolean ownersDone = new AtomicBoolean();
+        LongAdder reads = new LongAdder();
+        try {
+            List<Future<?>> owners = new ArrayList<>();
+            for (int owner = 0; owner < OWNERS; owner++) {
+                int ownerIndex = owner;
+                // Each player belongs to one owner thread, like a player belongs to one region
+                owners.add(executor.submit(() -> {
+                    start.await();
+                    ThreadLocalRandom random = ThreadLocalRandom.current();
+                    for (int i = 0; i < OPERATIONS_PER_OWNER; i++) {
+                        int player = ownerIndex + OWNERS * random.nextInt(PLAYERS / OWNERS);
+                        drive(players[player], random);
+                    }
+                    return null;
+                }));
+            }
+            List<Future<?>> readers = new ArrayList<>();
+            for (int reader = 0; reader < READERS; reader++) {
+                readers.add(executor.submit(() -> {
+                    start.await();
+                    ThreadLocalRandom random = ThreadLocalRandom.current();
+                    while (!ownersDone.get()) {
+                        registry.asMap().forEach((player, session) -> {
+                            if (read(player, session)) {
+                                reads.increment();
+                            }
+                        });
+                        UUID player = players[random.nextInt(PLAYERS)];
+                        PomodoroSession session = registry.get(player);
+                        if (session != null && read(player, session)) {
+                            reads.increment();
+                        }
+                    }
+                    return null;
+                }));
+            }
+
+            start.countDown();
+            for (Future<?> future : owners) {
+                future.get();
+            }
+            ownersDone.set(true);
+            for (Future<?> future : readers) {
+                // Rethrows the first failed check of each reader
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+            executor.awaitTermination(10, TimeUnit.SECONDS);
+        }
+        assertTrue(reads.sum() > 0, "The readers never saw a registered session");
+    }
+
+    @Test
+    void stoppedSessionsCannotBeRegistered() {
+        UUID player = UUID.randomUUID();
+        PomodoroSession session = new PomodoroSession("classic", PRESETS.get(1), true, true);
+
+        assertThrows(IllegalStateException.class, () -> registry.register(player, session));
+        assertNull(registry.get(player));
+
+        session.switchState(PomodoroState.WORK);
+        registry.register(player, session);
+        assertSame(session, registry.get(player));
+    }
+
+    /**
+     * Does one thing an owner thread does with a player's session, in the order
+     * PomodoroManager does it: start a new one in place of the current one, stop it, drop it
+     * when the player entity is retired, or change its countdown and publish a new snapshot.
+     */
+    private void drive(UUID player, ThreadLocalRandom random) {
+        PomodoroSession session = registry.get(player);
+        int action = random.nextInt(10);
+        if (session == null || action == 0) {
+            stop(player);
+            PresetConfig.Preset preset = PRESETS.get(random.nextInt(PRESETS.size()));
+            PomodoroSession started = new PomodoroSession("preset", preset, true, true);
+            started.startCountdown(started.getWorkDuration());
+            started.switchState(PomodoroState.WORK);
+            registry.register(player, started);
+        } else if (action == 1) {
+            stop(player);
+        } else if (action == 2) {
+            registry.remove(player, session);
+        } else {
+            switch (action % 3) {
+                case 0 -> {
+                    session.startCountdown(random.nextInt(session.getWorkDuration() + 1));
+                    session.switchState(PomodoroState.WORK);
+                }
+                case 1 -> {
+                    session.pauseCountdown();
+                    session.switchState(PomodoroState.PAUSED);
+                }
+                default -> {
+                    session.resumeCountdown();
+                    session.switchState(PomodoroState.WORK);
+                }
+            }
+        }
+    }
+
+    private void stop(UUID player) {
+        PomodoroSession session = registry.remove(player);
+        if (session != null) {
+            session.switchState(PomodoroState.STOPPED);
+        }
+    }
+
+    /**
+     * Reads the snapshot of a session found in the registry and, if the session is still
+     * registered afterwards, checks it is one whole frame of that session while it runs.
+     *
+     * @return true if the session was still registered and its snapshot was checked.
+     */
+    private boolean read(UUID player, PomodoroSession session) {
+        SessionSnapshot snapshot = session.getSnapshot();
+        if (!registry.isCurrent(player, session)) {
+            // Stopped or replaced since it was found, so any snapshot may be seen
+            return false;
+        }
+        assertNotNull(snapshot, "A registered session had no snapshot");
+        assertNotEquals(PomodoroState.STOPPED, snapshot.state(), "A registered session showed a stopped snapshot");
+        PresetConfig.Preset preset = snapshot.preset();
+        assertSame(session.getPreset(), preset, "A snapshot belonged to another session");
+        assertEquals(preset.work() * 60, snapshot.workDuration(), "Work duration torn from its preset");
+        assertEquals(preset.sessions(), snapshot.sessions(), "Rounds torn from their preset");
+        assertTrue(snapshot.timeLeft() >= 0 && snapshot.timeLeft() <= snapshot.workDuration(),
+                "Time left out of range: " + snapshot.timeLeft());
+        assertEquals(1, snapshot.currentSession());
+        return true;
+    }
+}
@@ -0,0 +1,38 @@
+package org.encinet.pomodoro.service.storage;
+
+import org.encinet.pomodoro.config.impl.PresetConfig;
+
+import java.util.UUID;
+
+/**
+ * Builds write batches the way the plugin does, by queueing writes on a {@link WriteBehindQueue}
+ * and draining it, for tests outside this package.
+ */
+public final class Batches {
+    private final WriteBehindQueue queue = new WriteBehindQueue();
+
+    public Batches upsert(UUID uuid, String key, PresetConfig.Preset preset) {
+        queue.upsert(uuid, key, preset);
+        return this;
+    }
+
+    public Batches delete(UUID uuid, String key) {
+        queue.delete(uuid, key);
+        return this;
+    }
+
+    public Batches session(SessionRecord record) {
+        queue.appendSession(record);
+        return this;
+    }
+
+    /**
+     * Drains everything queued so far.
+     *
+     * @return The batch; empty if nothing was queued.
+     */
+    public WriteBehindQueue.Batch drain() {
+        WriteBehindQueue.Batch batch = queue.drain();
+        return batch != null ? batch : WriteBehindQueue.Batch.empty();
+    }
+}
@@ -0,0 +1,71 @@
+package org.encinet.pomodoro.service.storage;
+
+import org.encinet.pomodoro.config.impl.PresetConfig;
+import org.junit.jupiter.api.Test;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class PresetIndexTest {
+    private static final List<String> PREFIXES = List.of("", "c", "cl", "classic", "d", "deep", "f", "focus", "p", "x");
+
+    private static PresetConfig.Preset preset(String name) {
+        return new PresetConfig.Preset(name, "TOMATO", false, 25, 5, 15, 4);
+    }
+
+    private static void assertSameMatches(PresetIndex expected, PresetIndex actual) {
+        for (String prefix : PREFIXES) {
+            assertEquals(new HashSet<>(expected.find(prefix)), new HashSet<>(actual.find(prefix)), "Prefix " + prefix);
+        }
+    }
+
+    @Test
+    void findsByKeyAndStrippedName() {
+        PresetIndex index = PresetIndex.of(Map.of(
+                "classic", preset("Classic"),
+                "deep", preset("<red>Focus</red>"),
+                "plain", preset(null)));
+
+        assertEquals(List.of("classic"), index.find("CL"));
+        assertEquals(List.of("deep"), index.find("foc"));
+        assertEquals(List.of("deep"), index.find("de"));
+        assertEquals("Focus", index.displayName("deep"));
+        assertNull(index.displayName("plain"));
+        assertNull(index.displayName("missing"));
+    }
+
+    @Test
+    void editsMatchARebuiltIndex() {
+        List<String> keys = List.of("classic", "deep", "focus", "cl", "pomodoro", "d");
+        List<String> names = List.of("Classic", "<red>Deep Work", "<bold>Focus</bold>", "Classic Long", "", "Deep");
+        Random random = new Random(42);
+        Map<String, PresetConfig.Preset> presets = new HashMap<>();
+        PresetIndex index = PresetIndex.EMPTY;
+
+        for (int i = 0; i < 500; i++) {
+            String key = keys.get(random.nextInt(keys.size()));
+            if (random.nextInt(4) == 0) {
+                presets.remove(key);
+            } else {
+                presets.put(key, preset(random.nextInt(8) == 0 ? null : names.get(random.nextInt(names.size()))));
+            }
+            Map<String, PresetConfig.Preset> snapshot = Collections.unmodifiableMap(new HashMap<>(presets));
+            index = index.with(snapshot, key);
+
+            PresetIndex rebuilt = PresetIndex.of(snapshot);
+            assertSameMatches(rebuilt, index);
+            for (String presetKey : keys) {
+                assertSame(snapshot.get(presetKey), index.get(presetKey));
+                assertEquals(rebuilt.displayName(presetKey), index.displayName(presetKey));
+            }
+        }
+    }
+}
@@ -0,0 +1,10 @@
+package org.encinet.pomodoro.service.storage.backend;
+
+import java.io.File;
+
+class H2StorageBackendTest extends StorageBackendContractTest {
+    @Override
+    protected StorageBackend createBackend(File dataFolder) {
+        return new H2StorageBackend(dataFolder);
+    }
+}
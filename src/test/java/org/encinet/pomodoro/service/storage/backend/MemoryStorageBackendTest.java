@@ -0,0 +1,15 @@
+package org.encinet.pomodoro.service.storage.backend;
+
+import java.io.File;
+
+class MemoryStorageBackendTest extends StorageBackendContractTest {
+    @Override
+    protected StorageBackend createBackend(File dataFolder) {
+        return new MemoryStorageBackend();
+    }
+
+    @Override
+    protected boolean isPersistent() {
+        return false;
+    }
+}
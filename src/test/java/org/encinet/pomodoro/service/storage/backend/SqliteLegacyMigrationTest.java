@@ -0,0 +1,213 @@
+package org.encinet.pomodoro.service.storage.backend;
+
+import org.encinet.pomodoro.config.impl.PresetConfig;
+import org.encinet.pomodoro.service.storage.Batches;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.logging.Logger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Opens playerdata.db files written before schema versioning, which key every table by UUID
+ * strings, and checks they are migrated to binary keys, or left untouched if they cannot be.
+ */
+class SqliteLegacyMigrationTest {
+    private static final PresetConfig.Preset CLASSIC = new PresetConfig.Preset("Classic", "TOMATO", true, 25, 5, 15, 4);
+    private static final PresetConfig.Preset LONG = new PresetConfig.Preset("<red>Long", "CLOCK", false, 50, 10, 30, 2);
+
+    @TempDir
+    File dataFolder;
+
+    private final UUID alice = UUID.randomUUID();
+    private final UUID bob = UUID.randomUUID();
+
+    private SqliteStorageBackend createBackend() {
+        return new SqliteStorageBackend(dataFolder, Logger.getLogger(getClass().getName()));
+    }
+
+    private Connection connect() throws SQLException {
+        return DriverManager.getConnection("jdbc:sqlite:" + new File(dataFolder, "playerdata.db").getAbsolutePath());
+    }
+
+    /**
+     * Writes a file the way the plugin did before schema versioning. Files from before
+     * presets could be enchanted have no {@code enchanted} column.
+     */
+    private void writeLegacyFile(boolean withEnchanted) throws SQLException {
+        try (Connection connection = connect(); Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE presets (" +
+                    "uuid TEXT NOT NULL," +
+                    "key TEXT NOT NULL," +
+                    "name TEXT NOT NULL," +
+                    "icon TEXT NOT NULL," +
+                    (withEnchanted ? "enchanted BOOLEAN NOT NULL DEFAULT FALSE," : "") +
+                    "work INTEGER NOT NULL," +
+                    "break INTEGER NOT NULL," +
+                    "long_break INTEGER NOT NULL," +
+                    "sessions INTEGER NOT NULL," +
+                    "PRIMARY KEY (uuid, key)" +
+                    ")");
+            statement.execute("CREATE TABLE player_stats (" +
+                    "uuid TEXT PRIMARY KEY," +
+                    "total_focus_seconds INTEGER NOT NULL DEFAULT 0," +
+                    "total_work_sessions INTEGER NOT NULL DEFAULT 0" +
+                    ")");
+            insertPreset(connection, alice.toString(), "classic", CLASSIC, withEnchanted);
+            insertPreset(connection, alice.toString(), "long", LONG, withEnchanted);
+            insertPreset(connection, bob.toString(), "classic", CLASSIC, withEnchanted);
+            insertStats(connection, alice.toString(), 3000, 2);
+            insertStats(connection, bob.toString(), 1500, 1);
+        }
+    }
+
+    private static void insertPreset(Connection connection, String uuid, String key, PresetConfig.Preset preset,
+                                     boolean withEnchanted) throws SQLException {
+        String sql = withEnchanted
+                ? "INSERT INTO presets (uuid, key, name, icon, enchanted, work, break, long_break, sessions) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)"
+                : "INSERT INTO presets (uuid, key, name, icon, work, break, long_break, sessions) VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+        try (PreparedStatement ps = connection.prepareStatement(sql)) {
+            int i = 1;
+            ps.setString(i++, uuid);
+            ps.setString(i++, key);
+            ps.setString(i++, preset.name());
+            ps.setString(i++, preset.icon());
+            if (withEnchanted) {
+                ps.setBoolean(i++, preset.enchanted());
+            }
+            ps.setInt(i++, preset.work());
+            ps.setInt(i++, preset.breakTime());
+            ps.setInt(i++, preset.longBreak());
+            ps.setInt(i, preset.sessions());
+            ps.executeUpdate();
+        }
+    }
+
+    private static void insertStats(Connection connection, String uuid, int focusSeconds, int workSessions) throws SQLException {
+        try (PreparedStatement ps = connection.prepareStatement(
+                "INSERT INTO player_stats (uuid, total_focus_seconds, total_work_sessions) VALUES (?, ?, ?)")) {
+            ps.setString(1, uuid);
+            ps.setInt(2, focusSeconds);
+            ps.setInt(3, workSessions);
+            ps.executeUpdate();
+        }
+    }
+
+    private List<String> tables() throws SQLException {
+        List<String> tables = new ArrayList<>();
+        try (Connection connection = connect(); Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery("SELECT name FROM sqlite_master WHERE type = 'table' ORDER BY name")) {
+            while (rs.next()) {
+                tables.add(rs.getString(1));
+            }
+        }
+        return tables;
+    }
+
+    private List<String> uuidTypes(String table) throws SQLException {
+        List<String> types = new ArrayList<>();
+        try (Connection connection = connect(); Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery("SELECT DISTINCT typeof(uuid) FROM " + table)) {
+            while (rs.next()) {
+                types.add(rs.getString(1));
+            }
+        }
+        return types;
+    }
+
+    private void assertMigrated(PresetConfig.Preset expectedClassic, PresetConfig.Preset expectedLong) throws SQLException {
+        SqliteStorageBackend backend = createBackend();
+        backend.open();
+        try {
+            assertEquals(Map.of("classic", expectedClassic, "long", expectedLong), backend.loadPresets(alice));
+            assertEquals(Map.of("classic", expectedClassic), backend.loadPresets(bob));
+            assertEquals(3000, backend.loadStats(alice).getTotalFocusSeconds());
+            assertEquals(2, backend.loadStats(alice).getTotalWorkSessions());
+            assertEquals(1500, backend.loadStats(bob).getTotalFocusSeconds());
+
+            Set<UUID> presetOwners = new HashSet<>();
+            Set<UUID> statsOwners = new HashSet<>();
+            backend.loadKnownPlayers(presetOwners, statsOwners);
+            assertEquals(Set.of(alice, bob), presetOwners);
+            assertEquals(Set.of(alice, bob), statsOwners);
+        } finally {
+            backend.close();
+        }
+
+        List<String> tables = tables();
+        assertTrue(tables.contains("schema_version"));
+        assertTrue(tables.stream().noneMatch(table -> table.endsWith("_legacy")), "Legacy tables left behind: " + tables);
+        assertEquals(List.of("blob"), uuidTypes("presets"));
+        assertEquals(List.of("blob"), uuidTypes("player_stats"));
+    }
+
+    @Test
+    void migratesLegacyFile() throws SQLException {
+        writeLegacyFile(true);
+
+        assertMigrated(CLASSIC, LONG);
+    }
+
+    @Test
+    void migratesLegacyFileWithoutEnchantedColumn() throws SQLException {
+        writeLegacyFile(false);
+
+        // Presets from before the column were never enchanted
+        assertMigrated(new PresetConfig.Preset("Classic", "TOMATO", false, 25, 5, 15, 4), LONG);
+    }
+
+    @Test
+    void migratedFileOpensAgainWithoutMigrating() throws SQLException {
+        writeLegacyFile(true);
+        SqliteStorageBackend backend = createBackend();
+        backend.open();
+        backend.close();
+
+        assertMigrated(CLASSIC, LONG);
+    }
+
+    @Test
+    void malformedUuidFailsTheOpenAndLeavesTheFileAsItWas() throws SQLException {
+        writeLegacyFile(true);
+        // Presets are copied first, so the migration fails after every table was renamed aside
+        try (Connection connection = connect()) {
+            insertPreset(connection, "not-a-uuid", "classic", CLASSIC, true);
+        }
+        List<String> tablesBefore = tables();
+
+        SqliteStorageBackend backend = createBackend();
+        assertThrows(SQLException.class, backend::open);
+        // The failed backend is closed, so nothing can land next to the legacy rows
+        assertThrows(SQLException.class, () -> backend.loadPresets(alice));
+        assertThrows(SQLException.class, () -> backend.writeBatch(new Batches().upsert(alice, "classic", CLASSIC).drain()));
+        backend.close();
+
+        assertEquals(tablesBefore, tables());
+        assertEquals(List.of("text"), uuidTypes("presets"));
+        assertEquals(List.of("text"), uuidTypes("player_stats"));
+        assertFalse(tables().contains("schema_version"));
+
+        // Once the row is fixed, the next start migrates the file
+        try (Connection connection = connect(); Statement statement = connection.createStatement()) {
+            statement.execute("DELETE FROM presets WHERE uuid = 'not-a-uuid'");
+        }
+        assertMigrated(CLASSIC, LONG);
+    }
+}
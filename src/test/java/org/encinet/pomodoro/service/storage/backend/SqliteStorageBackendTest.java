@@ -0,0 +1,11 @@
+package org.encinet.pomodoro.service.storage.backend;
+
+import java.io.File;
+import java.util.logging.Logger;
+
+class SqliteStorageBackendTest extends StorageBackendContractTest {
+    @Override
+    protected StorageBackend createBackend(File dataFolder) {
+        return new SqliteStorageBackend(dataFolder, Logger.getLogger(getClass().getName()));
+    }
+}
@@ -0,0 +1,214 @@
+package org.encinet.pomodoro.service.storage.backend;
+
+import org.encinet.pomodoro.config.impl.PresetConfig;
+import org.encinet.pomodoro.service.storage.Batches;
+import org.encinet.pomodoro.service.storage.DatabaseManager;
+import org.encinet.pomodoro.service.storage.SessionRecord;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * The behaviour every {@link StorageBackend} must share. Each backend runs this suite through
+ * a subclass that only says how to create it.
+ */
+abstract class StorageBackendContractTest {
+    private static final LocalDate DAY = LocalDate.of(2025, 10, 15);
+    private static final long NOON = DAY.atTime(LocalTime.NOON).atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    private static final long DAY_MILLIS = 24 * 60 * 60 * 1000L;
+    private static final PresetConfig.Preset CLASSIC = new PresetConfig.Preset("Classic", "TOMATO", false, 25, 5, 15, 4);
+    private static final PresetConfig.Preset LONG = new PresetConfig.Preset("<red>Long", "CLOCK", true, 50, 10, 30, 2);
+
+    @TempDir
+    File dataFolder;
+
+    private StorageBackend backend;
+    private final UUID alice = UUID.randomUUID();
+    private final UUID bob = UUID.randomUUID();
+
+    /**
+     * Creates the backend under test.
+     *
+     * @param dataFolder An empty folder the backend may keep its files in.
+     * @return The backend, not yet opened.
+     */
+    protected abstract StorageBackend createBackend(File dataFolder);
+
+    /**
+     * Whether the backend keeps its data after being closed and opened again.
+     */
+    protected boolean isPersistent() {
+        return true;
+    }
+
+    @BeforeEach
+    void open() throws SQLException {
+        backend = createBackend(dataFolder);
+        backend.open();
+    }
+
+    @AfterEach
+    void close() throws SQLException {
+        backend.close();
+    }
+
+    private static SessionRecord session(UUID uuid, long endedAt, int focusSeconds, int extraSeconds,
+                                         SessionRecord.Outcome outcome) {
+        return new SessionRecord(uuid, endedAt - focusSeconds * 1000L, endedAt, "classic", focusSeconds, extraSeconds,
+                0, outcome);
+    }
+
+    @Test
+    void emptyBackendHasNothing() throws SQLException {
+        assertTrue(backend.loadPresets(alice).isEmpty());
+        assertEquals(0, backend.loadStats(alice).getTotalFocusSeconds());
+        assertEquals(0, backend.loadStats(alice).getTotalWorkSessions());
+
+        Set<UUID> presetOwners = new HashSet<>();
+        Set<UUID> statsOwners = new HashSet<>();
+        backend.loadKnownPlayers(presetOwners, statsOwners);
+        assertTrue(presetOwners.isEmpty());
+        assertTrue(statsOwners.isEmpty());
+    }
+
+    @Test
+    void presetsRoundTrip() throws SQLException {
+        backend.writeBatch(new Batches().upsert(alice, "classic", CLASSIC).upsert(alice, "long", LONG).drain());
+
+        assertEquals(Map.of("classic", CLASSIC, "long", LONG), backend.loadPresets(alice));
+        assertTrue(backend.loadPresets(bob).isEmpty());
+    }
+
+    @Test
+    void laterUpsertReplacesPreset() throws SQLException {
+        backend.writeBatch(new Batches().upsert(alice, "classic", CLASSIC).drain());
+        PresetConfig.Preset renamed = new PresetConfig.Preset("Renamed", "TOMATO", false, 30, 5, 15, 4);
+        backend.writeBatch(new Batches().upsert(alice, "classic", renamed).drain());
+
+        assertEquals(Map.of("classic", renamed), backend.loadPresets(alice));
+    }
+
+    @Test
+    void deleteRemovesOnlyThatPreset() throws SQLException {
+        backend.writeBatch(new Batches().upsert(alice, "classic", CLASSIC).upsert(alice, "long", LONG)
+                .upsert(bob, "classic", CLASSIC).drain());
+        backend.writeBatch(new Batches().delete(alice, "classic").drain());
+
+        assertEquals(Map.of("long", LONG), backend.loadPresets(alice));
+        assertEquals(Map.of("classic", CLASSIC), backend.loadPresets(bob));
+    }
+
+    @Test
+    void completedSessionsAddUpAcrossBatches() throws SQLException {
+        backend.writeBatch(new Batches().session(session(alice, NOON, 1500, 60, SessionRecord.Outcome.COMPLETED)).drain());
+        backend.writeBatch(new Batches()
+                .session(session(alice, NOON + 3_600_000, 1500, 0, SessionRecord.Outcome.COMPLETED))
+                .session(session(alice, NOON + 7_200_000, 600, 0, SessionRecord.Outcome.STOPPED))
+                .drain());
+
+        DatabaseManager.PlayerStats stats = backend.loadStats(alice);
+        assertEquals(3060, stats.getTotalFocusSeconds());
+        assertEquals(2, stats.getTotalWorkSessions());
+        assertEquals(0, backend.loadStats(bob).getTotalWorkSessions());
+    }
+
+    @Test
+    void rollupsSplitByDayAndWeek() throws SQLException {
+        backend.writeBatch(new Batches()
+                .session(session(alice, NOON, 1500, 0, SessionRecord.Outcome.COMPLETED))
+                .session(session(alice, NOON - DAY_MILLIS, 1200, 0, SessionRecord.Outcome.COMPLETED))
+                .session(session(alice, NOON - 7 * DAY_MILLIS, 900, 0, SessionRecord.Outcome.COMPLETED))
+                .drain());
+
+        DatabaseManager.PeriodStats period = backend.loadPeriodStats(alice,
+                DatabaseManager.dayKey(DAY), DatabaseManager.weekKey(DAY));
+        assertEquals(1500, period.todayFocusSeconds());
+        assertEquals(1, period.todayWorkSessions());
+        // 2025-10-15 is a Wednesday, so the day before is in the same ISO week
+        assertEquals(2700, period.weekFocusSeconds());
+        assertEquals(2, period.weekWorkSessions());
+    }
+
+    @Test
+    void focusTotalsCoverEveryPlayer() throws SQLException {
+        backend.writeBatch(new Batches()
+                .session(session(alice, NOON, 1500, 0, SessionRecord.Outcome.COMPLETED))
+                .session(session(bob, NOON - 7 * DAY_MILLIS, 900, 0, SessionRecord.Outcome.COMPLETED))
+                .drain());
+
+        int day = DatabaseManager.dayKey(DAY);
+        int week = DatabaseManager.weekKey(DAY);
+        DatabaseManager.FocusTotals totals = backend.loadFocusTotals(day, week);
+        assertEquals(day, totals.day());
+        assertEquals(week, totals.week());
+        assertEquals(Map.of(alice, 1500, bob, 900), totals.all());
+        assertEquals(Map.of(alice, 1500), totals.daily());
+        assertEquals(Map.of(alice, 1500), totals.weekly());
+    }
+
+    @Test
+    void knownPlayersAreTheRowOwners() throws SQLException {
+        backend.writeBatch(new Batches()
+                .upsert(alice, "classic", CLASSIC)
+                .session(session(bob, NOON, 1500, 0, SessionRecord.Outcome.COMPLETED))
+                .drain());
+
+        Set<UUID> presetOwners = new HashSet<>();
+        Set<UUID> statsOwners = new HashSet<>();
+        backend.loadKnownPlayers(presetOwners, statsOwners);
+        assertEquals(Set.of(alice), presetOwners);
+        assertEquals(Set.of(bob), statsOwners);
+    }
+
+    @Test
+    void rebuildRollupsMatchesIncrementalRollups() throws SQLException {
+        backend.writeBatch(new Batches()
+                .session(session(alice, NOON, 1500, 30, SessionRecord.Outcome.COMPLETED))
+                .session(session(alice, NOON - DAY_MILLIS, 1200, 0, SessionRecord.Outcome.COMPLETED))
+                .session(session(bob, NOON, 300, 0, SessionRecord.Outcome.STOPPED))
+                .drain());
+        int day = DatabaseManager.dayKey(DAY);
+        int week = DatabaseManager.weekKey(DAY);
+        DatabaseManager.PeriodStats before = backend.loadPeriodStats(alice, day, week);
+
+        assertEquals(2, backend.rebuildRollups());
+        assertEquals(before, backend.loadPeriodStats(alice, day, week));
+        assertEquals(new DatabaseManager.PeriodStats(0, 0, 0, 0), backend.loadPeriodStats(bob, day, week));
+    }
+
+    @Test
+    void emptyBatchWritesNothing() throws SQLException {
+        assertEquals(0, backend.writeBatch(new Batches().drain()));
+        assertTrue(backend.loadPresets(alice).isEmpty());
+    }
+
+    @Test
+    void dataSurvivesReopening() throws SQLException {
+        assumeTrue(isPersistent());
+        backend.writeBatch(new Batches()
+                .upsert(alice, "classic", CLASSIC)
+                .session(session(alice, NOON, 1500, 0, SessionRecord.Outcome.COMPLETED))
+                .drain());
+        backend.close();
+
+        backend = createBackend(dataFolder);
+        backend.open();
+        assertEquals(Map.of("classic", CLASSIC), backend.loadPresets(alice));
+        assertEquals(1500, backend.loadStats(alice).getTotalFocusSeconds());
+    }
+}